@@ -0,0 +1,179 @@
+package com.unilak.employeeloan.config;
+
+import com.unilak.employeeloan.model.LoanApplication;
+import com.unilak.employeeloan.model.Repayment;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.jpa.boot.spi.JpaSettings;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Stamps every loan application and repayment that Hibernate inserts or updates with the next
+ * change sequence number, for the change feed. Numbers are handed out just before the JDBC commit,
+ * after the final flush, and written with one batched update on the transaction's own connection.
+ * <p>
+ * Sequence order and commit order can still differ between concurrent transactions, so a reader
+ * must never read past a number whose transaction is still open. {@link #watermark()} is the
+ * highest number below every open transaction; all rows at or below it are committed or gone.
+ */
+@Component
+public class ChangeSequenceTracker implements HibernatePropertiesCustomizer, Integrator,
+        PostInsertEventListener, PostUpdateEventListener {
+
+    private final Object lock = new Object();
+    private final TreeSet<Long> inFlight = new TreeSet<>();
+    private long last;
+
+    private final ThreadLocal<Pending> pending = new ThreadLocal<>();
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(JpaSettings.INTEGRATOR_PROVIDER, (IntegratorProvider) () -> List.of(this));
+    }
+
+    @Override
+    public void integrate(Metadata metadata, BootstrapContext bootstrapContext, SessionFactoryImplementor sessionFactory) {
+        EventListenerRegistry registry = sessionFactory.getServiceRegistry().requireService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        track(event.getSession(), event.getEntity(), event.getId());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        track(event.getSession(), event.getEntity(), event.getId());
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    public long watermark() {
+        synchronized (lock) {
+            return inFlight.isEmpty() ? last : inFlight.first() - 1;
+        }
+    }
+
+    /**
+     * Moves the sequence past numbers that are already in the database, e.g. from a restored
+     * snapshot.
+     */
+    public void advanceTo(long value) {
+        synchronized (lock) {
+            last = Math.max(last, value);
+        }
+    }
+
+    /**
+     * Reserves {@code count} numbers for a bulk write outside Hibernate and returns the one before
+     * the first. The range stays in flight, and so invisible to readers, until {@link #release}.
+     */
+    public long reserve(long count) {
+        synchronized (lock) {
+            long base = last;
+            last += count;
+            inFlight.add(base + 1);
+            return base;
+        }
+    }
+
+    public void release(long base) {
+        synchronized (lock) {
+            inFlight.remove(base + 1);
+        }
+    }
+
+    private void track(EventSource session, Object entity, Object id) {
+        if (!(entity instanceof LoanApplication) && !(entity instanceof Repayment)) {
+            return;
+        }
+        Pending current = pending.get();
+        if (current == null || current.session != session) {
+            Pending registered = new Pending(session);
+            pending.set(registered);
+            session.getActionQueue().registerProcess((BeforeTransactionCompletionProcess) s -> assign(registered));
+            session.getActionQueue().registerProcess((AfterTransactionCompletionProcess) (success, s) -> complete(registered));
+            current = registered;
+        }
+        (entity instanceof LoanApplication ? current.loanIds : current.repaymentIds).add((Long) id);
+    }
+
+    private void assign(Pending changes) {
+        int count = changes.loanIds.size() + changes.repaymentIds.size();
+        long base = reserve(count);
+        changes.base = base;
+        changes.session.doWork(connection -> {
+            long next = base;
+            next = stamp(connection, "update loan_applications set change_seq = ? where loan_id = ?", changes.loanIds, next);
+            stamp(connection, "update repayments set change_seq = ? where repayment_id = ?", changes.repaymentIds, next);
+        });
+    }
+
+    private static long stamp(Connection connection, String sql, Set<Long> ids, long next) throws SQLException {
+        if (ids.isEmpty()) {
+            return next;
+        }
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (Long id : ids) {
+                statement.setLong(1, ++next);
+                statement.setLong(2, id);
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+        return next;
+    }
+
+    private void complete(Pending changes) {
+        if (changes.base >= 0) {
+            release(changes.base);
+        }
+        if (pending.get() == changes) {
+            pending.remove();
+        }
+    }
+
+    private static final class Pending {
+        private final EventSource session;
+        private final Set<Long> loanIds = new LinkedHashSet<>();
+        private final Set<Long> repaymentIds = new LinkedHashSet<>();
+        private long base = -1;
+
+        private Pending(EventSource session) {
+            this.session = session;
+        }
+    }
+}
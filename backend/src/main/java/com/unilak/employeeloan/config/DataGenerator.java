@@ -0,0 +1,364 @@
+package com.unilak.employeeloan.config;
+
+import com.unilak.employeeloan.model.LoanApplication;
+import com.unilak.employeeloan.model.LoanType;
+import com.unilak.employeeloan.repository.LoanApplicationRepository;
+import com.unilak.employeeloan.repository.LoanTypeRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fills the database with a large synthetic dataset for performance testing. Every row is derived
+ * from the seed and its own index, so the same settings always produce the same data regardless
+ * of thread count or scheduling. Rows are written with plain JDBC batches and explicit ids.
+ *
+ * Enable with {@code --spring.profiles.active=datagen}; sizes live in application-datagen.properties.
+ */
+@Component
+@Profile("datagen")
+@Order(2)
+@RequiredArgsConstructor
+@Slf4j
+public class DataGenerator implements CommandLineRunner {
+
+    private static final String[] FIRST_NAMES = {
+            "Alice", "Eric", "Grace", "Jean", "Diane", "Patrick", "Claudine", "Emmanuel", "Aline", "David",
+            "Josiane", "Olivier", "Solange", "Innocent", "Yvonne", "Samuel", "Chantal", "Didier", "Esther", "Fabrice"};
+    private static final String[] LAST_NAMES = {
+            "Uwimana", "Mugisha", "Niyonzima", "Habimana", "Mukamana", "Nshimiyimana", "Uwase", "Ndayisaba",
+            "Ingabire", "Hakizimana", "Umutoni", "Bizimana", "Iradukunda", "Nsengiyumva", "Mutesi", "Tuyishime"};
+    private static final String[] DEPARTMENTS = {
+            "IT Department", "HR Department", "Finance", "Operations", "Sales", "Marketing", "Legal",
+            "Procurement", "Customer Service", "Research"};
+    private static final String[] REMARKS = {
+            "School fees", "Medical bills", "Home repairs", "Laptop purchase", "Family event", "Rent deposit",
+            "Vehicle repair", "Professional certification", "Wedding", "Travel"};
+    private static final String[] REJECTION_REASONS = {
+            "Insufficient repayment capacity", "Incomplete documentation", "Exceeds policy limit",
+            "Outstanding obligations", "Probation period not completed"};
+
+    private static final int HISTORY_DAYS = 3 * 365;
+    // Loans in the last ACTIVE_SLOTS positions of an employee's history may still be open
+    private static final int ACTIVE_SLOTS = 2;
+
+    private static final byte PENDING = 0;
+    private static final byte APPROVED = 1;
+    private static final byte REJECTED = 2;
+    private static final byte COMPLETED = 3;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LoanTypeRepository loanTypeRepository;
+    private final LoanApplicationRepository loanApplicationRepository;
+    private final PasswordEncoder passwordEncoder;
+
+    @Value("${datagen.seed}")
+    private long seed;
+
+    @Value("${datagen.employees}")
+    private int employees;
+
+    @Value("${datagen.officers}")
+    private int officers;
+
+    @Value("${datagen.accountants}")
+    private int accountants;
+
+    @Value("${datagen.loans}")
+    private int loans;
+
+    @Value("${datagen.repayments}")
+    private long repayments;
+
+    @Value("${datagen.threads}")
+    private int threads;
+
+    @Value("${datagen.batch-size}")
+    private int batchSize;
+
+    private final LocalDate today = LocalDate.now();
+    private List<LoanType> loanTypes;
+    private String passwordHash;
+    private long firstEmployeeId;
+    private long firstOfficerId;
+    private long firstAccountantId;
+    private long firstLoanId;
+    private long firstRepaymentId;
+
+    @Override
+    public void run(String... args) throws Exception {
+        long existing = loanApplicationRepository.count();
+        if (existing > 0) {
+            log.info("Skipping data generation, database already has {} loan applications", existing);
+            return;
+        }
+        loanTypes = loanTypeRepository.findAll();
+        // One hash for everyone: BCrypt is deliberately slow and would dominate the run otherwise
+        passwordHash = passwordEncoder.encode("pass123");
+        firstEmployeeId = nextId("employees", "id");
+        firstOfficerId = nextId("loan_officers", "id");
+        firstAccountantId = nextId("accountants", "id");
+        firstLoanId = nextId("loan_applications", "loan_id");
+        firstRepaymentId = nextId("repayments", "repayment_id");
+
+        log.info("Generating {} employees, {} loans and ~{} repayments with seed {} on {} threads",
+                employees, loans, repayments, seed, threads);
+        long start = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            long staffRows = insertStaff();
+            long employeeRows = runChunks(executor, employees, this::insertEmployees);
+            report("employees", employeeRows + staffRows, start);
+
+            LoanPlan plan = planLoans(executor);
+            long loanStart = System.nanoTime();
+            AtomicLong repaymentRows = new AtomicLong();
+            long loanRows = runChunks(executor, loans, (from, to) -> insertLoans(plan, from, to, repaymentRows));
+            report("loans and repayments", loanRows + repaymentRows.get(), loanStart);
+            log.info("Generated {} loans and {} repayments", loanRows, repaymentRows.get());
+        } finally {
+            executor.shutdown();
+        }
+
+        restartIdentity("employees", "id", firstEmployeeId + employees);
+        restartIdentity("loan_officers", "id", firstOfficerId + officers);
+        restartIdentity("accountants", "id", firstAccountantId + accountants);
+        restartIdentity("loan_applications", "loan_id", firstLoanId + loans);
+        restartIdentity("repayments", "repayment_id", nextId("repayments", "repayment_id"));
+        report("all tables", employees + officers + accountants + loans
+                + jdbcTemplate.queryForObject("select count(*) from repayments", Long.class), start);
+    }
+
+    private long insertStaff() {
+        List<Object[]> officerRows = new ArrayList<>(officers);
+        for (int i = 0; i < officers; i++) {
+            officerRows.add(new Object[]{firstOfficerId + i, "Officer " + (i + 1), "officer" + (i + 1) + "@gen.company.com", passwordHash});
+        }
+        jdbcTemplate.batchUpdate("insert into loan_officers (id, name, email, password) values (?, ?, ?, ?)", officerRows);
+
+        List<Object[]> accountantRows = new ArrayList<>(accountants);
+        for (int i = 0; i < accountants; i++) {
+            accountantRows.add(new Object[]{firstAccountantId + i, "Accountant " + (i + 1), "accountant" + (i + 1) + "@gen.company.com", passwordHash});
+        }
+        jdbcTemplate.batchUpdate("insert into accountants (id, name, email, password) values (?, ?, ?, ?)", accountantRows);
+        return officers + accountants;
+    }
+
+    private long insertEmployees(int from, int to) {
+        List<Object[]> rows = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            SplittableRandom random = random(1, i);
+            String first = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+            String last = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+            rows.add(new Object[]{firstEmployeeId + i, first + " " + last,
+                    first.toLowerCase() + "." + last.toLowerCase() + "." + (i + 1) + "@gen.company.com",
+                    passwordHash, DEPARTMENTS[random.nextInt(DEPARTMENTS.length)]});
+        }
+        jdbcTemplate.batchUpdate("insert into employees (id, name, email, password, department) values (?, ?, ?, ?, ?)", rows);
+        return rows.size();
+    }
+
+    /**
+     * Decides each loan's status and repayment count up front, so that repayment ids can be
+     * assigned from a prefix sum and every chunk knows where its ids start.
+     */
+    private LoanPlan planLoans(ExecutorService executor) throws InterruptedException, ExecutionException {
+        byte[] statuses = new byte[loans];
+        int[] repaymentCounts = new int[loans];
+        runChunks(executor, loans, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                statuses[i] = status(i);
+            }
+            return to - from;
+        });
+
+        long repaying = 0;
+        for (byte status : statuses) {
+            if (status == APPROVED || status == COMPLETED) {
+                repaying++;
+            }
+        }
+        double average = repaying == 0 ? 0 : (double) repayments / repaying;
+        runChunks(executor, loans, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                if (statuses[i] == APPROVED || statuses[i] == COMPLETED) {
+                    // Uniform around the target mean, at least one instalment each
+                    int max = Math.max(1, (int) Math.round(2 * average) - 1);
+                    repaymentCounts[i] = 1 + random(3, i).nextInt(max);
+                }
+            }
+            return to - from;
+        });
+
+        long[] repaymentOffsets = new long[loans + 1];
+        for (int i = 0; i < loans; i++) {
+            repaymentOffsets[i + 1] = repaymentOffsets[i] + repaymentCounts[i];
+        }
+        return new LoanPlan(statuses, repaymentCounts, repaymentOffsets);
+    }
+
+    private byte status(int loanIndex) {
+        int perEmployee = (loans + employees - 1) / employees;
+        int slot = loanIndex / employees;
+        double draw = random(2, loanIndex).nextDouble();
+        if (slot >= perEmployee - ACTIVE_SLOTS) {
+            return draw < 0.3 ? PENDING : draw < 0.4 ? REJECTED : APPROVED;
+        }
+        return draw < 0.2 ? REJECTED : COMPLETED;
+    }
+
+    private long insertLoans(LoanPlan plan, int from, int to, AtomicLong repaymentRows) {
+        int perEmployee = (loans + employees - 1) / employees;
+        List<Object[]> loanRows = new ArrayList<>(to - from);
+        List<Object[]> repaymentRowBatch = new ArrayList<>(batchSize);
+        for (int i = from; i < to; i++) {
+            SplittableRandom random = random(4, i);
+            long loanId = firstLoanId + i;
+            long employeeId = firstEmployeeId + (i % employees);
+            LoanType loanType = loanTypes.get(random.nextInt(loanTypes.size()));
+            BigDecimal amount = amount(random, loanType.getMaxAmount());
+
+            // Later slots in an employee's history are more recent
+            int slot = i / employees;
+            int windowStart = HISTORY_DAYS * slot / perEmployee;
+            int windowEnd = HISTORY_DAYS * (slot + 1) / perEmployee;
+            LocalDate applicationDate = today.minusDays(HISTORY_DAYS - windowStart - random.nextInt(Math.max(1, windowEnd - windowStart)));
+            byte status = plan.statuses()[i];
+            LocalDate decisionDate = status == PENDING ? null : min(applicationDate.plusDays(1 + random.nextInt(14)), today);
+            Long officerId = status == PENDING ? null : firstOfficerId + random.nextInt(officers);
+            int count = plan.repaymentCounts()[i];
+            LocalDate closedDate = status == REJECTED ? decisionDate
+                    : status == COMPLETED ? min(decisionDate.plusDays(30L * count), today) : null;
+
+            loanRows.add(new Object[]{loanId, employeeId, loanType.getLoanTypeId(), amount, statusName(status),
+                    applicationDate, status == APPROVED || status == COMPLETED ? decisionDate : null, closedDate,
+                    officerId, REMARKS[random.nextInt(REMARKS.length)],
+                    status == REJECTED ? REJECTION_REASONS[random.nextInt(REJECTION_REASONS.length)] : null});
+
+            if (count == 0) {
+                continue;
+            }
+            // Completed loans are paid off exactly; approved ones have paid part of the principal
+            long total = amount.longValue();
+            long paid = status == COMPLETED ? total : (long) (total * (0.1 + 0.8 * random.nextDouble()));
+            long instalment = Math.max(1, paid / count);
+            long balance = total;
+            for (int j = 0; j < count; j++) {
+                long amountPaid = j == count - 1 ? paid - instalment * (count - 1) : instalment;
+                balance -= amountPaid;
+                repaymentRowBatch.add(new Object[]{firstRepaymentId + plan.repaymentOffsets()[i] + j, loanId,
+                        firstAccountantId + random.nextInt(accountants), BigDecimal.valueOf(amountPaid),
+                        min(decisionDate.plusDays(30L * (j + 1)), today), BigDecimal.valueOf(balance)});
+            }
+            if (repaymentRowBatch.size() >= batchSize) {
+                flushLoans(loanRows);
+                repaymentRows.addAndGet(flushRepayments(repaymentRowBatch));
+            }
+        }
+        flushLoans(loanRows);
+        repaymentRows.addAndGet(flushRepayments(repaymentRowBatch));
+        return to - from;
+    }
+
+    private void flushLoans(List<Object[]> rows) {
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate("insert into loan_applications (loan_id, employee_id, loan_type_id, amount, status, " +
+                    "application_date, approved_date, closed_date, officer_id, remarks, rejection_reason) " +
+                    "values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", rows);
+            rows.clear();
+        }
+    }
+
+    private int flushRepayments(List<Object[]> rows) {
+        int size = rows.size();
+        if (size > 0) {
+            jdbcTemplate.batchUpdate("insert into repayments (repayment_id, loan_id, accountant_id, amount_paid, " +
+                    "payment_date, balance) values (?, ?, ?, ?, ?, ?)", rows);
+            rows.clear();
+        }
+        return size;
+    }
+
+    private static BigDecimal amount(SplittableRandom random, BigDecimal maxAmount) {
+        // Skewed towards small loans, rounded to 5,000 RWF, never below 10,000
+        double u = random.nextDouble();
+        long amount = Math.round(maxAmount.doubleValue() * u * u / 5000) * 5000;
+        return BigDecimal.valueOf(Math.max(10000, amount));
+    }
+
+    private static String statusName(byte status) {
+        return switch (status) {
+            case PENDING -> LoanApplication.LoanStatus.PENDING.name();
+            case APPROVED -> LoanApplication.LoanStatus.APPROVED.name();
+            case REJECTED -> LoanApplication.LoanStatus.REJECTED.name();
+            default -> LoanApplication.LoanStatus.COMPLETED.name();
+        };
+    }
+
+    private static LocalDate min(LocalDate a, LocalDate b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    /**
+     * Independent random stream per (purpose, row), so values never depend on generation order.
+     */
+    private SplittableRandom random(int purpose, long index) {
+        return new SplittableRandom(seed * 0x9E3779B97F4A7C15L + purpose * 0xBF58476D1CE4E5B9L + index);
+    }
+
+    private long runChunks(ExecutorService executor, int total, ChunkTask task)
+            throws InterruptedException, ExecutionException {
+        List<Future<Long>> futures = new ArrayList<>();
+        for (int from = 0; from < total; from += batchSize) {
+            int chunkStart = from;
+            int chunkEnd = Math.min(total, from + batchSize);
+            futures.add(executor.submit(() -> task.run(chunkStart, chunkEnd)));
+        }
+        long rows = 0;
+        for (Future<Long> future : futures) {
+            rows += future.get();
+        }
+        return rows;
+    }
+
+    private long nextId(String table, String column) {
+        Long max = jdbcTemplate.queryForObject("select max(" + column + ") from " + table, Long.class);
+        return max == null ? 1 : max + 1;
+    }
+
+    private void restartIdentity(String table, String column, long next) {
+        // Rows were inserted with explicit ids, so move the identity past them (H2 syntax)
+        jdbcTemplate.execute("alter table " + table + " alter column " + column + " restart with " + next);
+    }
+
+    private void report(String what, long rows, long startNanos) {
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        log.info("Inserted {} rows into {} in {} s ({} rows/s)", rows, what,
+                String.format("%.1f", seconds), Math.round(rows / Math.max(seconds, 1e-9)));
+    }
+
+    @FunctionalInterface
+    private interface ChunkTask {
+        long run(int from, int to);
+    }
+
+    private record LoanPlan(byte[] statuses, int[] repaymentCounts, long[] repaymentOffsets) {
+    }
+}
@@ -4,13 +4,16 @@ import com.unilak.employeeloan.model.*;
 import com.unilak.employeeloan.repository.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
 
 @Component
+@Order(1)
 @RequiredArgsConstructor
 @Slf4j
 public class DataInitializer implements CommandLineRunner {
@@ -22,8 +25,14 @@ public class DataInitializer implements CommandLineRunner {
     private final LoanTypeRepository loanTypeRepository;
     private final PasswordEncoder passwordEncoder;
 
+    @Value("${data-initializer.enabled}")
+    private boolean enabled;
+
     @Override
     public void run(String... args) {
+        if (!enabled) {
+            return;
+        }
         initializeLoanTypes();
         initializeUsers();
     }
@@ -0,0 +1,83 @@
+package com.unilak.employeeloan.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Two pools behind one routing DataSource: read-only transactions go to the replica while it is
+ * caught up, everything else to the primary. The lazy proxy delays picking a pool until the first
+ * statement, by which point the transaction's read-only flag is known.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    @Value("${datasource.replica.url}")
+    private String replicaUrl;
+
+    @Value("${datasource.replica.username}")
+    private String replicaUsername;
+
+    @Value("${datasource.replica.password}")
+    private String replicaPassword;
+
+    @Value("${datasource.replica.maximum-pool-size}")
+    private int replicaPoolSize;
+
+    @Bean
+    public PoolUsageTracker poolUsageTracker() {
+        return new PoolUsageTracker();
+    }
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties, PoolUsageTracker poolUsageTracker) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        dataSource.setMetricsTrackerFactory(poolUsageTracker);
+        return dataSource;
+    }
+
+    @Bean
+    public HikariDataSource replicaDataSource(DataSourceProperties properties, PoolUsageTracker poolUsageTracker) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica");
+        dataSource.setMetricsTrackerFactory(poolUsageTracker);
+        dataSource.setDriverClassName(properties.determineDriverClassName());
+        dataSource.setJdbcUrl(replicaUrl);
+        dataSource.setUsername(replicaUsername);
+        dataSource.setPassword(replicaPassword);
+        dataSource.setMaximumPoolSize(replicaPoolSize);
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("primaryDataSource") DataSource primary,
+                                               @Qualifier("replicaDataSource") DataSource replica) {
+        return new ReplicaLagMonitor(primary, replica);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica,
+                                 ReplicaLagMonitor replicaLagMonitor) {
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(replicaLagMonitor);
+        routing.setTargetDataSources(Map.of(
+                ReadWriteRoutingDataSource.Route.PRIMARY, primary,
+                ReadWriteRoutingDataSource.Route.REPLICA, replica));
+        routing.setDefaultTargetDataSource(primary);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+}
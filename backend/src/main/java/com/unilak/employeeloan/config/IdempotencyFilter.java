@@ -0,0 +1,282 @@
+package com.unilak.employeeloan.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.unilak.employeeloan.dto.ErrorResponse;
+import com.unilak.employeeloan.model.IdempotencyRecord;
+import com.unilak.employeeloan.service.IdempotencyService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Honours the Idempotency-Key header on loan submission and repayment posting. The first request
+ * for a key executes normally and its response is stored; retries with the same key and payload
+ * get that stored response back (marked with Idempotent-Replayed) without touching the services,
+ * waiting for it first if the original is still running.
+ */
+@Component
+@RequiredArgsConstructor
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final Set<String> IDEMPOTENT_PATHS = Set.of("/api/loans", "/api/repayments");
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final long POLL_INTERVAL_MS = 50;
+
+    private final IdempotencyService idempotencyService;
+    private final ObjectMapper objectMapper;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${idempotency.wait-timeout}")
+    private long waitTimeout;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !HttpMethod.POST.matches(request.getMethod())
+                || !IDEMPOTENT_PATHS.contains(request.getRequestURI())
+                || request.getHeader(IDEMPOTENCY_KEY_HEADER) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            chain.doFilter(request, response);
+            return;
+        }
+        String key = request.getHeader(IDEMPOTENCY_KEY_HEADER).trim();
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            writeError(request, response, HttpStatus.BAD_REQUEST,
+                    IDEMPOTENCY_KEY_HEADER + " must be between 1 and " + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+
+        byte[] body = StreamUtils.copyToByteArray(request.getInputStream());
+        String requestHash = sha256(body);
+        String scopedKey = authentication.getName() + " " + request.getRequestURI() + " " + key;
+
+        long deadline = System.currentTimeMillis() + waitTimeout;
+        boolean waited = false;
+        while (true) {
+            Optional<IdempotencyRecord> existing = idempotencyService.find(scopedKey);
+            if (existing.isEmpty()) {
+                String owner = idempotencyService.reserve(scopedKey, requestHash);
+                if (owner != null) {
+                    execute(scopedKey, owner, body, request, response, chain);
+                    return;
+                }
+                // Another request reserved it first; its row is there now
+                continue;
+            }
+
+            IdempotencyRecord record = existing.get();
+            if (record.getExpiresAt().isBefore(LocalDateTime.now())) {
+                idempotencyService.discardExpired(scopedKey);
+                continue;
+            }
+            if (!record.getRequestHash().equals(requestHash)) {
+                writeMismatch(request, response);
+                return;
+            }
+            if (record.getStatus() != null) {
+                replay(record, waited, response);
+                return;
+            }
+            // Still executing, here or on another instance, unless its owner died before finishing
+            if (record.getLockedUntil().isBefore(LocalDateTime.now())) {
+                String owner = idempotencyService.takeOver(scopedKey);
+                if (owner != null) {
+                    execute(scopedKey, owner, body, request, response, chain);
+                    return;
+                }
+                continue;
+            }
+            if (System.currentTimeMillis() >= deadline) {
+                writeError(request, response, HttpStatus.CONFLICT,
+                        "A request with this " + IDEMPOTENCY_KEY_HEADER + " is still being processed");
+                return;
+            }
+            waited = true;
+            try {
+                Thread.sleep(POLL_INTERVAL_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ServletException(e);
+            }
+        }
+    }
+
+    /**
+     * Runs the request in one transaction with the update that stores its response, so its changes
+     * and the stored response commit together. The services' own transactions join this one. A
+     * request that fails keeps none of its changes, but its response is still stored for replay.
+     */
+    private void execute(String scopedKey, String owner, byte[] body,
+                         HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        ContentCachingResponseWrapper cachingResponse = new ContentCachingResponseWrapper(response);
+        TransactionStatus transaction = transactionManager.getTransaction(TransactionDefinition.withDefaults());
+        boolean stored;
+        try {
+            chain.doFilter(new CachedBodyRequest(request, body), cachingResponse);
+            int status = cachingResponse.getStatus();
+            String contentType = cachingResponse.getContentType();
+            byte[] responseBody = cachingResponse.getContentAsByteArray();
+            if (transaction.isRollbackOnly() || status >= 500) {
+                transactionManager.rollback(transaction);
+                stored = idempotencyService.complete(scopedKey, owner, status, contentType, responseBody);
+            } else {
+                stored = idempotencyService.complete(scopedKey, owner, status, contentType, responseBody);
+                if (stored) {
+                    transactionManager.commit(transaction);
+                } else {
+                    transactionManager.rollback(transaction);
+                }
+            }
+        } catch (IOException | ServletException | RuntimeException e) {
+            if (!transaction.isCompleted()) {
+                transactionManager.rollback(transaction);
+            }
+            idempotencyService.release(scopedKey, owner);
+            throw e;
+        }
+
+        if (!stored) {
+            // The lease ran out and a retry took the key over, so this execution was rolled back
+            writeError(request, response, HttpStatus.CONFLICT,
+                    "A request with this " + IDEMPOTENCY_KEY_HEADER + " was taken over by a retry");
+            return;
+        }
+        cachingResponse.copyBodyToResponse();
+    }
+
+    private void replay(IdempotencyRecord record, boolean afterWaiting, HttpServletResponse response) throws IOException {
+        idempotencyService.recordReplay(afterWaiting);
+        response.setStatus(record.getStatus());
+        if (record.getContentType() != null) {
+            response.setContentType(record.getContentType());
+        }
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.setContentLength(record.getBody().length);
+        response.getOutputStream().write(record.getBody());
+    }
+
+    private void writeMismatch(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        idempotencyService.recordMismatch();
+        writeError(request, response, HttpStatus.UNPROCESSABLE_ENTITY,
+                IDEMPOTENCY_KEY_HEADER + " was already used with a different request body");
+    }
+
+    private void writeError(HttpServletRequest request, HttpServletResponse response, HttpStatus status, String message)
+            throws IOException {
+        ErrorResponse error = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(status.value())
+                .error(status.getReasonPhrase())
+                .message(message)
+                .path(request.getRequestURI())
+                .build();
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), error);
+    }
+
+    private static String sha256(byte[] body) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(body));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        private CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(new ByteArrayInputStream(body),
+                    encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
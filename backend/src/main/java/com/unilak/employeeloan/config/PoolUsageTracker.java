@@ -0,0 +1,89 @@
+package com.unilak.employeeloan.config;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-pool connection statistics fed by Hikari: how long callers waited for a connection, how long
+ * they held it before returning it, and how many threads were queued at peak.
+ */
+public class PoolUsageTracker implements MetricsTrackerFactory {
+
+    private final Map<String, Usage> pools = new ConcurrentHashMap<>();
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        Usage usage = new Usage(poolStats);
+        pools.put(poolName, usage);
+        return usage;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new TreeMap<>();
+        pools.forEach((name, usage) -> stats.put(name, usage.snapshot()));
+        return stats;
+    }
+
+    private static final class Usage implements IMetricsTracker {
+        private final PoolStats poolStats;
+        private final AtomicLong acquisitions = new AtomicLong();
+        private final AtomicLong acquireNanos = new AtomicLong();
+        private final AtomicLong maxAcquireNanos = new AtomicLong();
+        private final AtomicLong releases = new AtomicLong();
+        private final AtomicLong heldMillis = new AtomicLong();
+        private final AtomicLong maxHeldMillis = new AtomicLong();
+        private final AtomicLong timeouts = new AtomicLong();
+        private final AtomicLong peakPending = new AtomicLong();
+        private final AtomicLong peakActive = new AtomicLong();
+
+        private Usage(PoolStats poolStats) {
+            this.poolStats = poolStats;
+        }
+
+        @Override
+        public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+            acquisitions.incrementAndGet();
+            acquireNanos.addAndGet(elapsedAcquiredNanos);
+            maxAcquireNanos.accumulateAndGet(elapsedAcquiredNanos, Math::max);
+            // PoolStats refreshes at most once a second, so these peaks are approximate
+            peakPending.accumulateAndGet(poolStats.getPendingThreads(), Math::max);
+            peakActive.accumulateAndGet(poolStats.getActiveConnections(), Math::max);
+        }
+
+        @Override
+        public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+            releases.incrementAndGet();
+            heldMillis.addAndGet(elapsedBorrowedMillis);
+            maxHeldMillis.accumulateAndGet(elapsedBorrowedMillis, Math::max);
+        }
+
+        @Override
+        public void recordConnectionTimeout() {
+            timeouts.incrementAndGet();
+        }
+
+        private Map<String, Object> snapshot() {
+            long acquired = acquisitions.get();
+            long released = releases.get();
+            Map<String, Object> stats = new TreeMap<>();
+            stats.put("acquisitions", acquired);
+            stats.put("avgAcquireMs", acquired == 0 ? 0.0 : TimeUnit.NANOSECONDS.toMicros(acquireNanos.get()) / 1000.0 / acquired);
+            stats.put("maxAcquireMs", TimeUnit.NANOSECONDS.toMillis(maxAcquireNanos.get()));
+            stats.put("avgHeldMs", released == 0 ? 0.0 : (double) heldMillis.get() / released);
+            stats.put("maxHeldMs", maxHeldMillis.get());
+            stats.put("timeouts", timeouts.get());
+            stats.put("peakPendingThreads", peakPending.get());
+            stats.put("peakActiveConnections", peakActive.get());
+            stats.put("activeConnections", poolStats.getActiveConnections());
+            stats.put("totalConnections", poolStats.getTotalConnections());
+            return stats;
+        }
+    }
+}
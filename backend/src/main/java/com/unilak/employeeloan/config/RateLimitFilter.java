@@ -0,0 +1,78 @@
+package com.unilak.employeeloan.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.unilak.employeeloan.dto.ErrorResponse;
+import com.unilak.employeeloan.service.RateLimitService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+@Component
+@RequiredArgsConstructor
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimitService rateLimitService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${rate-limit.enabled}")
+    private boolean enabled;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String principal;
+        String role;
+        if (authentication != null && authentication.isAuthenticated()) {
+            principal = authentication.getName();
+            role = authentication.getAuthorities().stream()
+                    .map(GrantedAuthority::getAuthority)
+                    .map(authority -> authority.replaceFirst("^ROLE_", ""))
+                    .findFirst()
+                    .orElse(RateLimitService.ANONYMOUS);
+        } else {
+            // Login and other unauthenticated calls are limited per client address
+            principal = "ip:" + request.getRemoteAddr();
+            role = RateLimitService.ANONYMOUS;
+        }
+
+        RateLimitService.RouteGroup group = RateLimitService.routeGroup(request.getRequestURI());
+        long retryAfterMillis = rateLimitService.tryAcquire(principal, role, group);
+        if (retryAfterMillis == 0) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        ErrorResponse error = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.TOO_MANY_REQUESTS.value())
+                .error(HttpStatus.TOO_MANY_REQUESTS.getReasonPhrase())
+                .message("Rate limit of " + rateLimitService.limitPerMinute(role, group)
+                        + " requests per minute exceeded for " + group.name().toLowerCase() + " endpoints")
+                .path(request.getRequestURI())
+                .build();
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString((retryAfterMillis + 999) / 1000));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), error);
+    }
+}
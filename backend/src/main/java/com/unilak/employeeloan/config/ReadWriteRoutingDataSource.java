@@ -0,0 +1,31 @@
+package com.unilak.employeeloan.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Route {
+        PRIMARY, REPLICA
+    }
+
+    private final ReplicaLagMonitor replicaLagMonitor;
+
+    public ReadWriteRoutingDataSource(ReplicaLagMonitor replicaLagMonitor) {
+        this.replicaLagMonitor = replicaLagMonitor;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            replicaLagMonitor.recordRoute(Route.PRIMARY, false);
+            return Route.PRIMARY;
+        }
+        if (replicaLagMonitor.isReplicaUsable()) {
+            replicaLagMonitor.recordRoute(Route.REPLICA, false);
+            return Route.REPLICA;
+        }
+        replicaLagMonitor.recordRoute(Route.PRIMARY, true);
+        return Route.PRIMARY;
+    }
+}
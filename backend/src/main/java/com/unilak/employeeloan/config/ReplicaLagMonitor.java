@@ -0,0 +1,109 @@
+package com.unilak.employeeloan.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures replica lag with a heartbeat row: each check stamps the primary, then reads the stamp
+ * back from the replica. The replica is only used while the stamp it returns is within the
+ * allowed lag and the last check is recent; an unreachable replica, a missing heartbeat table or a
+ * stalled monitor all send reads back to the primary.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    private final JdbcTemplate primary;
+    private final JdbcTemplate replica;
+
+    private final AtomicLong primaryRoutes = new AtomicLong();
+    private final AtomicLong replicaRoutes = new AtomicLong();
+    private final AtomicLong fallbacks = new AtomicLong();
+
+    @Value("${datasource.replica.enabled}")
+    private boolean enabled;
+
+    @Value("${datasource.replica.max-lag}")
+    private long maxLag;
+
+    @Value("${datasource.replica.lag-check-interval}")
+    private long checkInterval;
+
+    private volatile boolean heartbeatTableReady;
+    private volatile long lagMillis = -1;
+    private volatile long lastCheckAt;
+    private volatile boolean replicaUsable;
+    private volatile String lastError;
+
+    public ReplicaLagMonitor(DataSource primary, DataSource replica) {
+        this.primary = new JdbcTemplate(primary);
+        this.replica = new JdbcTemplate(replica);
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.replica.lag-check-interval}")
+    public void check() {
+        if (!enabled) {
+            replicaUsable = false;
+            return;
+        }
+        try {
+            if (!heartbeatTableReady) {
+                primary.execute("create table if not exists replication_heartbeat " +
+                        "(id int primary key, beat_at timestamp(3) not null)");
+                heartbeatTableReady = true;
+            }
+            Timestamp beat = new Timestamp(System.currentTimeMillis());
+            primary.update("merge into replication_heartbeat key (id) values (1, ?)", beat);
+            Timestamp seen = replica.queryForObject("select beat_at from replication_heartbeat where id = 1",
+                    Timestamp.class);
+            lagMillis = Math.max(0, beat.getTime() - seen.getTime());
+            lastError = null;
+        } catch (RuntimeException e) {
+            // Missing table or row, or the replica is down: treat it as infinitely behind
+            lagMillis = -1;
+            if (lastError == null) {
+                log.warn("Replica lag check failed, routing reads to the primary: {}", e.getMessage());
+            }
+            lastError = e.getMessage();
+        }
+        lastCheckAt = System.currentTimeMillis();
+        boolean usable = lagMillis >= 0 && lagMillis <= maxLag;
+        if (usable != replicaUsable) {
+            log.info(usable ? "Replica caught up (lag {} ms), routing read-only work to it"
+                    : "Replica unavailable or lagging ({} ms), routing read-only work to the primary", lagMillis);
+        }
+        replicaUsable = usable;
+    }
+
+    public boolean isReplicaUsable() {
+        // A stalled monitor must not keep an old verdict alive
+        return replicaUsable && System.currentTimeMillis() - lastCheckAt <= checkInterval * 3;
+    }
+
+    void recordRoute(ReadWriteRoutingDataSource.Route route, boolean fallback) {
+        (route == ReadWriteRoutingDataSource.Route.REPLICA ? replicaRoutes : primaryRoutes).incrementAndGet();
+        if (fallback) {
+            fallbacks.incrementAndGet();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("replicaUsable", isReplicaUsable());
+        stats.put("lagMs", lagMillis);
+        stats.put("maxLagMs", maxLag);
+        stats.put("lastError", lastError);
+        stats.put("primaryConnections", primaryRoutes.get());
+        stats.put("replicaConnections", replicaRoutes.get());
+        stats.put("readOnlyFallbacks", fallbacks.get());
+        return stats;
+    }
+}
@@ -0,0 +1,67 @@
+package com.unilak.employeeloan.config;
+
+import com.unilak.employeeloan.service.RequestMetricsService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Times every API request from before the security filters to the end of the response and hands
+ * the result to {@link RequestMetricsService}. "auth" covers everything ahead of the controller
+ * (token check, rate limiting), "service" the controller call itself and "serialization" writing
+ * the response body.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class RequestMetricsFilter extends OncePerRequestFilter {
+
+    private final RequestMetricsService requestMetricsService;
+    private final SqlStatementCounter sqlStatementCounter;
+
+    @Value("${request-metrics.enabled}")
+    private boolean enabled;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestTiming timing = new RequestTiming(System.nanoTime());
+        request.setAttribute(RequestTiming.ATTRIBUTE, timing);
+        sqlStatementCounter.reset();
+        boolean failed = true;
+        try {
+            chain.doFilter(request, response);
+            failed = false;
+        } finally {
+            long end = System.nanoTime();
+            long handlerStart = timing.handlerStart != 0 ? timing.handlerStart : end;
+            long bodyWriteStart = timing.bodyWriteStart != 0 ? timing.bodyWriteStart : end;
+            Object route = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            requestMetricsService.record(request.getMethod(),
+                    route != null ? route.toString() : RequestMetricsService.UNMATCHED_ROUTE,
+                    request.getRequestURI(),
+                    failed ? HttpServletResponse.SC_INTERNAL_SERVER_ERROR : response.getStatus(),
+                    timing.user,
+                    timing.sqlBeforeHandler + sqlStatementCounter.current(),
+                    handlerStart - timing.start,
+                    bodyWriteStart - handlerStart,
+                    end - bodyWriteStart,
+                    end - timing.start);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.unilak.employeeloan.config;
+
+/**
+ * Phase timestamps for one request, stored as a request attribute by {@link RequestMetricsFilter}
+ * and filled in by {@link RequestTimingAdvice} as the request reaches the controller and starts
+ * writing its response body.
+ */
+final class RequestTiming {
+
+    static final String ATTRIBUTE = RequestTiming.class.getName();
+
+    final long start;
+    long handlerStart;
+    long bodyWriteStart;
+    long sqlBeforeHandler;
+    String user;
+
+    RequestTiming(long start) {
+        this.start = start;
+    }
+}
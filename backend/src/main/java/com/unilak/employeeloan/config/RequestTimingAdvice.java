@@ -0,0 +1,59 @@
+package com.unilak.employeeloan.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Marks where a request enters the controller and where its response body starts being written,
+ * splitting the time {@link RequestMetricsFilter} measures into phases. Registered as an
+ * interceptor ahead of {@link SqlStatementBudgetInterceptor}, so the statements issued during
+ * authentication are taken before that interceptor resets the counter.
+ */
+@ControllerAdvice
+@RequiredArgsConstructor
+public class RequestTimingAdvice implements HandlerInterceptor, ResponseBodyAdvice<Object> {
+
+    private final SqlStatementCounter sqlStatementCounter;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getAttribute(RequestTiming.ATTRIBUTE) instanceof RequestTiming timing) {
+            timing.handlerStart = System.nanoTime();
+            timing.sqlBeforeHandler = sqlStatementCounter.current();
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (authentication != null && !(authentication instanceof AnonymousAuthenticationToken)) {
+                timing.user = authentication.getName();
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (request instanceof ServletServerHttpRequest servletRequest
+                && servletRequest.getServletRequest().getAttribute(RequestTiming.ATTRIBUTE) instanceof RequestTiming timing) {
+            timing.bodyWriteStart = System.nanoTime();
+        }
+        return body;
+    }
+}
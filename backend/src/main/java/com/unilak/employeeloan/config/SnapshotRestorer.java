@@ -0,0 +1,39 @@
+package com.unilak.employeeloan.config;
+
+import com.unilak.employeeloan.service.SnapshotService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Files;
+
+/**
+ * Loads the configured snapshot before the seeders run, which then find the tables populated
+ * and skip their own inserts.
+ */
+@Component
+@Order(0)
+@RequiredArgsConstructor
+@Slf4j
+public class SnapshotRestorer implements CommandLineRunner {
+
+    private final SnapshotService snapshotService;
+
+    @Value("${snapshot.restore-on-startup}")
+    private boolean restoreOnStartup;
+
+    @Override
+    public void run(String... args) {
+        if (!restoreOnStartup) {
+            return;
+        }
+        if (!Files.exists(snapshotService.getPath())) {
+            log.warn("No snapshot at {}, starting from an empty database", snapshotService.getPath().toAbsolutePath());
+            return;
+        }
+        snapshotService.restore();
+    }
+}
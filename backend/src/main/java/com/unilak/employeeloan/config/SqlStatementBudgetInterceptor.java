@@ -0,0 +1,40 @@
+package com.unilak.employeeloan.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Flags requests that issue more SQL statements than the configured budget, which is how N+1
+ * query patterns usually show up first.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SqlStatementBudgetInterceptor implements HandlerInterceptor {
+
+    private final SqlStatementCounter sqlStatementCounter;
+
+    @Value("${sql.max-statements-per-request}")
+    private long maxStatementsPerRequest;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        sqlStatementCounter.reset();
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        long statements = sqlStatementCounter.current();
+        if (statements > maxStatementsPerRequest) {
+            log.warn("{} {} issued {} SQL statements (budget {})", request.getMethod(),
+                    request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE), statements, maxStatementsPerRequest);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.unilak.employeeloan.config;
+
+import com.unilak.employeeloan.controller.AuthController;
+import com.unilak.employeeloan.controller.LoanApplicationController;
+import com.unilak.employeeloan.service.CustomUserDetailsService;
+import com.unilak.employeeloan.service.LoanApplicationService;
+import com.unilak.employeeloan.service.UnifiedAuthService;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.Set;
+
+@Configuration
+public class StartupConfig {
+
+    // Created at startup even with lazy initialization, so the first login and loan requests do not pay for them
+    private static final Set<Class<?>> HOT_PATH = Set.of(AuthController.class, UnifiedAuthService.class,
+            CustomUserDetailsService.class, JwtUtil.class, LoanApplicationController.class, LoanApplicationService.class);
+
+    @Bean
+    static LazyInitializationExcludeFilter eagerStartupBeans() {
+        // Scheduled methods are only registered once their bean exists, so lazy jobs would never run
+        return (beanName, definition, beanType) -> beanType != null
+                && (HOT_PATH.contains(beanType) || hasScheduledMethods(beanType));
+    }
+
+    private static boolean hasScheduledMethods(Class<?> beanType) {
+        return !MethodIntrospector.selectMethods(beanType, (MethodIntrospector.MetadataLookup<Scheduled>) method ->
+                AnnotatedElementUtils.findMergedAnnotation(method, Scheduled.class)).isEmpty();
+    }
+}
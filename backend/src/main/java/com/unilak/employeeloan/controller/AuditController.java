@@ -0,0 +1,46 @@
+package com.unilak.employeeloan.controller;
+
+import com.unilak.employeeloan.model.AuditEvent;
+import com.unilak.employeeloan.service.AuditService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/audit")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+public class AuditController {
+
+    private static final int MAX_PAGE_SIZE = 500;
+
+    private final AuditService auditService;
+
+    @GetMapping
+    public ResponseEntity<List<AuditEvent>> search(
+            @RequestParam(required = false) Long loanId,
+            @RequestParam(required = false) String actor,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("page must be >= 0 and size between 1 and " + MAX_PAGE_SIZE);
+        }
+        return ResponseEntity.ok(auditService.search(loanId, actor, from, to, page, size));
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        return ResponseEntity.ok(auditService.getStats());
+    }
+}
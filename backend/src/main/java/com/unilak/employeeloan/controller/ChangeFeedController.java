@@ -0,0 +1,26 @@
+package com.unilak.employeeloan.controller;
+
+import com.unilak.employeeloan.dto.ChangeFeedPage;
+import com.unilak.employeeloan.service.ChangeFeedService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/changes")
+@RequiredArgsConstructor
+public class ChangeFeedController {
+
+    private final ChangeFeedService changeFeedService;
+
+    @GetMapping
+    @PreAuthorize("hasAnyRole('ADMIN', 'ACCOUNTANT')")
+    public ResponseEntity<ChangeFeedPage> getChanges(@RequestParam(defaultValue = "0") long since,
+                                                     @RequestParam(defaultValue = "500") int limit) {
+        return ResponseEntity.ok(changeFeedService.getChanges(since, limit));
+    }
+}
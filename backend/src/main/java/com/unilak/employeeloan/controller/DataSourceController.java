@@ -0,0 +1,32 @@
+package com.unilak.employeeloan.controller;
+
+import com.unilak.employeeloan.config.PoolUsageTracker;
+import com.unilak.employeeloan.config.ReplicaLagMonitor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/datasource")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+public class DataSourceController {
+
+    private final ReplicaLagMonitor replicaLagMonitor;
+    private final PoolUsageTracker poolUsageTracker;
+
+    @GetMapping("/routing")
+    public ResponseEntity<Map<String, Object>> getRouting() {
+        return ResponseEntity.ok(replicaLagMonitor.getStats());
+    }
+
+    @GetMapping("/pools")
+    public ResponseEntity<Map<String, Object>> getPools() {
+        return ResponseEntity.ok(poolUsageTracker.getStats());
+    }
+}
@@ -1,21 +1,34 @@
 package com.unilak.employeeloan.controller;
 
+import com.unilak.employeeloan.dto.BatchGetRequest;
+import com.unilak.employeeloan.dto.BatchGetResponse;
+import com.unilak.employeeloan.dto.EmployeeExposure;
 import com.unilak.employeeloan.model.Employee;
+import com.unilak.employeeloan.service.EmployeeImportService;
 import com.unilak.employeeloan.service.EmployeeService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/employees")
 @RequiredArgsConstructor
 public class EmployeeController {
 
+    private static final MediaType CSV = MediaType.parseMediaType("text/csv");
+
     private final EmployeeService employeeService;
+    private final EmployeeImportService employeeImportService;
 
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
@@ -23,12 +36,45 @@ public class EmployeeController {
         return ResponseEntity.ok(employeeService.getAllEmployees());
     }
 
+    @GetMapping(params = "fields")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<Map<String, Object>>> getAllEmployeesSparse(@RequestParam String fields) {
+        return ResponseEntity.ok(employeeService.getAllEmployees(fields));
+    }
+
     @GetMapping("/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'LOAN_OFFICER')")
     public ResponseEntity<Employee> getEmployeeById(@PathVariable Long id) {
         return ResponseEntity.ok(employeeService.getEmployeeById(id));
     }
 
+    @GetMapping(path = "/{id}", params = "fields")
+    @PreAuthorize("hasAnyRole('ADMIN', 'LOAN_OFFICER')")
+    public ResponseEntity<Map<String, Object>> getEmployeeByIdSparse(@PathVariable Long id, @RequestParam String fields) {
+        return ResponseEntity.ok(employeeService.getEmployeeById(id, fields));
+    }
+
+    @PostMapping("/batch-get")
+    public ResponseEntity<BatchGetResponse<Employee>> getEmployeesByIds(@Valid @RequestBody BatchGetRequest request) {
+        return ResponseEntity.ok(employeeService.getEmployeesByIds(request.getIds()));
+    }
+
+    @PostMapping(path = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    @PreAuthorize("hasRole('ADMIN')")
+    public void importEmployees(InputStream body, @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                HttpServletResponse response) throws IOException {
+        EmployeeImportService.Format format = MediaType.parseMediaType(contentType).isCompatibleWith(CSV)
+                ? EmployeeImportService.Format.CSV : EmployeeImportService.Format.NDJSON;
+        response.setContentType("application/x-ndjson");
+        employeeImportService.importEmployees(body, format, response.getOutputStream());
+    }
+
+    @GetMapping("/{id}/exposure")
+    @PreAuthorize("hasAnyRole('ADMIN', 'LOAN_OFFICER')")
+    public ResponseEntity<EmployeeExposure> getEmployeeExposure(@PathVariable Long id) {
+        return ResponseEntity.ok(employeeService.getEmployeeExposure(id));
+    }
+
     @PutMapping("/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'EMPLOYEE')")
     public ResponseEntity<Employee> updateEmployee(@PathVariable Long id, @Valid @RequestBody Employee employee) {
@@ -0,0 +1,25 @@
+package com.unilak.employeeloan.controller;
+
+import com.unilak.employeeloan.service.IdempotencyService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/idempotency")
+@RequiredArgsConstructor
+public class IdempotencyController {
+
+    private final IdempotencyService idempotencyService;
+
+    @GetMapping("/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        return ResponseEntity.ok(idempotencyService.getStats());
+    }
+}
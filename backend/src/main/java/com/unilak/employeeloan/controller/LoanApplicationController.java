@@ -1,15 +1,23 @@
 package com.unilak.employeeloan.controller;
 
+import com.unilak.employeeloan.dto.BatchGetRequest;
+import com.unilak.employeeloan.dto.BatchGetResponse;
+import com.unilak.employeeloan.dto.CompactLoanList;
 import com.unilak.employeeloan.dto.LoanApplicationRequest;
 import com.unilak.employeeloan.model.LoanApplication;
 import com.unilak.employeeloan.service.LoanApplicationService;
+import com.unilak.employeeloan.service.VersionStampService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/loans")
@@ -17,6 +25,7 @@ import java.util.List;
 public class LoanApplicationController {
 
     private final LoanApplicationService loanApplicationService;
+    private final VersionStampService versionStampService;
 
     @GetMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'LOAN_OFFICER')")
@@ -24,9 +33,37 @@ public class LoanApplicationController {
         return ResponseEntity.ok(loanApplicationService.getAllLoans());
     }
 
+    @GetMapping(params = "compact=true")
+    @PreAuthorize("hasAnyRole('ADMIN', 'LOAN_OFFICER')")
+    public ResponseEntity<CompactLoanList> getAllLoansCompact() {
+        return ResponseEntity.ok(CompactLoanList.ofLoans(loanApplicationService.getAllLoans()));
+    }
+
+    @GetMapping(params = "fields")
+    @PreAuthorize("hasAnyRole('ADMIN', 'LOAN_OFFICER')")
+    public ResponseEntity<List<Map<String, Object>>> getAllLoansSparse(@RequestParam String fields) {
+        return ResponseEntity.ok(loanApplicationService.getAllLoans(fields));
+    }
+
     @GetMapping("/my-loans")
-    public ResponseEntity<List<LoanApplication>> getMyLoans() {
-        return ResponseEntity.ok(loanApplicationService.getMyLoans());
+    public ResponseEntity<List<LoanApplication>> getMyLoans(Authentication authentication, WebRequest webRequest) {
+        if (webRequest.checkNotModified(versionStampService.employeeLoansEtag(authentication.getName()))) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(loanApplicationService.getMyLoans());
+    }
+
+    @GetMapping(path = "/my-loans", params = "fields")
+    public ResponseEntity<List<Map<String, Object>>> getMyLoansSparse(@RequestParam String fields,
+                                                                      Authentication authentication, WebRequest webRequest) {
+        if (webRequest.checkNotModified(versionStampService.employeeLoansEtag(authentication.getName()))) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(loanApplicationService.getMyLoans(fields));
     }
 
     @GetMapping("/employee/{employeeId}")
@@ -35,10 +72,48 @@ public class LoanApplicationController {
         return ResponseEntity.ok(loanApplicationService.getLoansByEmployee(employeeId));
     }
 
+    @GetMapping(path = "/employee/{employeeId}", params = "fields")
+    @PreAuthorize("hasAnyRole('ADMIN', 'LOAN_OFFICER')")
+    public ResponseEntity<List<Map<String, Object>>> getLoansByEmployeeSparse(@PathVariable Long employeeId,
+                                                                              @RequestParam String fields) {
+        return ResponseEntity.ok(loanApplicationService.getLoansByEmployee(employeeId, fields));
+    }
+
     @GetMapping("/status/{status}")
     @PreAuthorize("hasAnyRole('ADMIN', 'LOAN_OFFICER', 'ACCOUNTANT')")
-    public ResponseEntity<List<LoanApplication>> getLoansByStatus(@PathVariable LoanApplication.LoanStatus status) {
-        return ResponseEntity.ok(loanApplicationService.getLoansByStatus(status));
+    public ResponseEntity<List<LoanApplication>> getLoansByStatus(@PathVariable LoanApplication.LoanStatus status,
+                                                                  WebRequest webRequest) {
+        if (webRequest.checkNotModified(versionStampService.etag(VersionStampService.Aggregate.LOANS))) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(loanApplicationService.getLoansByStatus(status));
+    }
+
+    @GetMapping(path = "/status/{status}", params = "compact=true")
+    @PreAuthorize("hasAnyRole('ADMIN', 'LOAN_OFFICER', 'ACCOUNTANT')")
+    public ResponseEntity<CompactLoanList> getLoansByStatusCompact(@PathVariable LoanApplication.LoanStatus status,
+                                                                   WebRequest webRequest) {
+        if (webRequest.checkNotModified(versionStampService.etag(VersionStampService.Aggregate.LOANS))) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(CompactLoanList.ofLoans(loanApplicationService.getLoansByStatus(status)));
+    }
+
+    @GetMapping(path = "/status/{status}", params = "fields")
+    @PreAuthorize("hasAnyRole('ADMIN', 'LOAN_OFFICER', 'ACCOUNTANT')")
+    public ResponseEntity<List<Map<String, Object>>> getLoansByStatusSparse(@PathVariable LoanApplication.LoanStatus status,
+                                                                            @RequestParam String fields,
+                                                                            WebRequest webRequest) {
+        if (webRequest.checkNotModified(versionStampService.etag(VersionStampService.Aggregate.LOANS))) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(loanApplicationService.getLoansByStatus(status, fields));
     }
 
     @GetMapping("/{id}")
@@ -46,6 +121,16 @@ public class LoanApplicationController {
         return ResponseEntity.ok(loanApplicationService.getLoanById(id));
     }
 
+    @GetMapping(path = "/{id}", params = "fields")
+    public ResponseEntity<Map<String, Object>> getLoanByIdSparse(@PathVariable Long id, @RequestParam String fields) {
+        return ResponseEntity.ok(loanApplicationService.getLoanById(id, fields));
+    }
+
+    @PostMapping("/batch-get")
+    public ResponseEntity<BatchGetResponse<LoanApplication>> getLoansByIds(@Valid @RequestBody BatchGetRequest request) {
+        return ResponseEntity.ok(loanApplicationService.getLoansByIds(request.getIds()));
+    }
+
     @PostMapping
     public ResponseEntity<LoanApplication> createLoanApplication(@Valid @RequestBody LoanApplicationRequest request) {
         return ResponseEntity.ok(loanApplicationService.createLoanApplication(request));
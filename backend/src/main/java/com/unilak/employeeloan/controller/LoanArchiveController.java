@@ -0,0 +1,31 @@
+package com.unilak.employeeloan.controller;
+
+import com.unilak.employeeloan.service.LoanArchiveService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/archive")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+public class LoanArchiveController {
+
+    private final LoanArchiveService loanArchiveService;
+
+    @PostMapping("/run")
+    public ResponseEntity<Map<String, Object>> run() {
+        return ResponseEntity.ok(loanArchiveService.archive());
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        return ResponseEntity.ok(loanArchiveService.getStats());
+    }
+}
@@ -2,12 +2,16 @@ package com.unilak.employeeloan.controller;
 
 import com.unilak.employeeloan.model.LoanType;
 import com.unilak.employeeloan.service.LoanTypeService;
+import com.unilak.employeeloan.service.VersionStampService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.Duration;
 import java.util.List;
 
 @RestController
@@ -16,10 +20,16 @@ import java.util.List;
 public class LoanTypeController {
 
     private final LoanTypeService loanTypeService;
+    private final VersionStampService versionStampService;
 
     @GetMapping
-    public ResponseEntity<List<LoanType>> getAllLoanTypes() {
-        return ResponseEntity.ok(loanTypeService.getAllLoanTypes());
+    public ResponseEntity<List<LoanType>> getAllLoanTypes(WebRequest webRequest) {
+        if (webRequest.checkNotModified(versionStampService.etag(VersionStampService.Aggregate.LOAN_TYPES))) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(Duration.ofMinutes(5)).cachePrivate())
+                .body(loanTypeService.getAllLoanTypes());
     }
 
     @GetMapping("/{id}")
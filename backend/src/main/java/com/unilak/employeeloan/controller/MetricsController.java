@@ -0,0 +1,32 @@
+package com.unilak.employeeloan.controller;
+
+import com.unilak.employeeloan.dto.SlowRequest;
+import com.unilak.employeeloan.service.RequestMetricsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/metrics")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+public class MetricsController {
+
+    private final RequestMetricsService requestMetricsService;
+
+    @GetMapping("/latency")
+    public ResponseEntity<Map<String, Object>> getLatency() {
+        return ResponseEntity.ok(requestMetricsService.getLatency());
+    }
+
+    @GetMapping("/slow-requests")
+    public ResponseEntity<List<SlowRequest>> getSlowRequests() {
+        return ResponseEntity.ok(requestMetricsService.getSlowRequests());
+    }
+}
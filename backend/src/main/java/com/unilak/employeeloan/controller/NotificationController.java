@@ -0,0 +1,35 @@
+package com.unilak.employeeloan.controller;
+
+import com.unilak.employeeloan.model.OutboxMessage;
+import com.unilak.employeeloan.notification.InMemoryNotificationSink;
+import com.unilak.employeeloan.service.NotificationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/notifications")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+public class NotificationController {
+
+    private final NotificationService notificationService;
+    private final InMemoryNotificationSink inMemoryNotificationSink;
+
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        return ResponseEntity.ok(notificationService.getStats());
+    }
+
+    // Only populated when notification.sink=memory
+    @GetMapping("/delivered")
+    public ResponseEntity<List<OutboxMessage>> getDelivered() {
+        return ResponseEntity.ok(inMemoryNotificationSink.getDelivered());
+    }
+}
@@ -0,0 +1,25 @@
+package com.unilak.employeeloan.controller;
+
+import com.unilak.employeeloan.service.RateLimitService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/rate-limits")
+@RequiredArgsConstructor
+public class RateLimitController {
+
+    private final RateLimitService rateLimitService;
+
+    @GetMapping("/metrics")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getMetrics() {
+        return ResponseEntity.ok(rateLimitService.getMetrics());
+    }
+}
@@ -0,0 +1,26 @@
+package com.unilak.employeeloan.controller;
+
+import com.unilak.employeeloan.dto.ReconciliationReport;
+import com.unilak.employeeloan.service.ReconciliationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/api/reconciliations")
+@RequiredArgsConstructor
+public class ReconciliationController {
+
+    private final ReconciliationService reconciliationService;
+
+    @PostMapping(consumes = {"text/csv", "text/plain", "application/octet-stream"})
+    @PreAuthorize("hasRole('ACCOUNTANT')")
+    public ResponseEntity<ReconciliationReport> reconcile(InputStream statement,
+                                                          @RequestParam(defaultValue = "false") boolean dryRun) throws IOException {
+        return ResponseEntity.ok(reconciliationService.reconcile(statement, dryRun));
+    }
+}
@@ -1,5 +1,8 @@
 package com.unilak.employeeloan.controller;
 
+import com.unilak.employeeloan.dto.BatchGetRequest;
+import com.unilak.employeeloan.dto.BatchGetResponse;
+import com.unilak.employeeloan.dto.CompactLoanList;
 import com.unilak.employeeloan.dto.RepaymentRequest;
 import com.unilak.employeeloan.model.Repayment;
 import com.unilak.employeeloan.service.RepaymentService;
@@ -10,6 +13,7 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/repayments")
@@ -24,12 +28,36 @@ public class RepaymentController {
         return ResponseEntity.ok(repaymentService.getAllRepayments());
     }
 
+    @GetMapping(params = "compact=true")
+    @PreAuthorize("hasAnyRole('ADMIN', 'ACCOUNTANT')")
+    public ResponseEntity<CompactLoanList> getAllRepaymentsCompact() {
+        return ResponseEntity.ok(CompactLoanList.ofRepayments(repaymentService.getAllRepayments()));
+    }
+
+    @GetMapping(params = "fields")
+    @PreAuthorize("hasAnyRole('ADMIN', 'ACCOUNTANT')")
+    public ResponseEntity<List<Map<String, Object>>> getAllRepaymentsSparse(@RequestParam String fields) {
+        return ResponseEntity.ok(repaymentService.getAllRepayments(fields));
+    }
+
     @GetMapping("/loan/{loanId}")
     @PreAuthorize("hasAnyRole('ADMIN', 'ACCOUNTANT', 'LOAN_OFFICER')")
     public ResponseEntity<List<Repayment>> getRepaymentsByLoanId(@PathVariable Long loanId) {
         return ResponseEntity.ok(repaymentService.getRepaymentsByLoanId(loanId));
     }
 
+    @GetMapping(path = "/loan/{loanId}", params = "fields")
+    @PreAuthorize("hasAnyRole('ADMIN', 'ACCOUNTANT', 'LOAN_OFFICER')")
+    public ResponseEntity<List<Map<String, Object>>> getRepaymentsByLoanIdSparse(@PathVariable Long loanId,
+                                                                                 @RequestParam String fields) {
+        return ResponseEntity.ok(repaymentService.getRepaymentsByLoanId(loanId, fields));
+    }
+
+    @PostMapping("/batch-get")
+    public ResponseEntity<BatchGetResponse<Repayment>> getRepaymentsByIds(@Valid @RequestBody BatchGetRequest request) {
+        return ResponseEntity.ok(repaymentService.getRepaymentsByIds(request.getIds()));
+    }
+
     @PostMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'ACCOUNTANT')")
     public ResponseEntity<Repayment> createRepayment(@Valid @RequestBody RepaymentRequest request) {
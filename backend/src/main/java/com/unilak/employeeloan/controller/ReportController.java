@@ -1,17 +1,16 @@
 package com.unilak.employeeloan.controller;
 
-import com.unilak.employeeloan.model.LoanApplication;
-import com.unilak.employeeloan.service.LoanApplicationService;
+import com.unilak.employeeloan.service.ReportService;
+import com.unilak.employeeloan.service.VersionStampService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
-import java.math.BigDecimal;
-import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -20,46 +19,30 @@ import java.util.Map;
 @PreAuthorize("hasAnyRole('ADMIN', 'LOAN_OFFICER', 'ACCOUNTANT')")
 public class ReportController {
 
-    private final LoanApplicationService loanApplicationService;
+    private final ReportService reportService;
+    private final VersionStampService versionStampService;
 
     @GetMapping("/outstanding")
-    public ResponseEntity<Map<String, Object>> getOutstandingReport() {
-        List<LoanApplication> approvedLoans = loanApplicationService.getLoansByStatus(LoanApplication.LoanStatus.APPROVED);
-        
-        BigDecimal totalOutstanding = approvedLoans.stream()
-                .map(LoanApplication::getOutstandingBalance)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        Map<String, Object> report = new HashMap<>();
-        report.put("totalOutstandingLoans", approvedLoans.size());
-        report.put("totalOutstandingAmount", totalOutstanding);
-        report.put("loans", approvedLoans);
-
-        return ResponseEntity.ok(report);
+    public ResponseEntity<Map<String, Object>> getOutstandingReport(WebRequest webRequest) {
+        return respond(reportService.getOutstandingReport(), webRequest);
     }
 
     @GetMapping("/summary")
-    public ResponseEntity<Map<String, Object>> getSummaryReport() {
-        List<LoanApplication> allLoans = loanApplicationService.getAllLoans();
-        
-        long pendingCount = allLoans.stream().filter(l -> l.getStatus() == LoanApplication.LoanStatus.PENDING).count();
-        long approvedCount = allLoans.stream().filter(l -> l.getStatus() == LoanApplication.LoanStatus.APPROVED).count();
-        long completedCount = allLoans.stream().filter(l -> l.getStatus() == LoanApplication.LoanStatus.COMPLETED).count();
-        long rejectedCount = allLoans.stream().filter(l -> l.getStatus() == LoanApplication.LoanStatus.REJECTED).count();
-
-        BigDecimal totalDisbursed = allLoans.stream()
-                .filter(l -> l.getStatus() == LoanApplication.LoanStatus.APPROVED || l.getStatus() == LoanApplication.LoanStatus.COMPLETED)
-                .map(LoanApplication::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    public ResponseEntity<Map<String, Object>> getSummaryReport(WebRequest webRequest) {
+        return respond(reportService.getSummaryReport(), webRequest);
+    }
 
-        Map<String, Object> summary = new HashMap<>();
-        summary.put("totalLoans", allLoans.size());
-        summary.put("pendingLoans", pendingCount);
-        summary.put("approvedLoans", approvedCount);
-        summary.put("completedLoans", completedCount);
-        summary.put("rejectedLoans", rejectedCount);
-        summary.put("totalDisbursed", totalDisbursed);
+    @GetMapping("/cache")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getCacheStats() {
+        return ResponseEntity.ok(reportService.getStats());
+    }
 
-        return ResponseEntity.ok(summary);
+    // Tagged with the version the report was built at, which lags the current one while a stale copy is served
+    private ResponseEntity<Map<String, Object>> respond(ReportService.Report report, WebRequest webRequest) {
+        if (webRequest.checkNotModified(versionStampService.etag(VersionStampService.Aggregate.LOANS, report.version()))) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache().cachePrivate()).body(report.body());
     }
 }
@@ -0,0 +1,33 @@
+package com.unilak.employeeloan.controller;
+
+import com.unilak.employeeloan.dto.SearchResponse;
+import com.unilak.employeeloan.service.SearchIndexService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/search")
+@RequiredArgsConstructor
+@PreAuthorize("hasAnyRole('ADMIN', 'LOAN_OFFICER')")
+public class SearchController {
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final SearchIndexService searchIndexService;
+
+    @GetMapping
+    public ResponseEntity<SearchResponse> search(@RequestParam String q,
+                                                 @RequestParam(required = false) SearchIndexService.DocType type,
+                                                 @RequestParam(defaultValue = "0") int page,
+                                                 @RequestParam(defaultValue = "20") int size) {
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("page must be >= 0 and size between 1 and " + MAX_PAGE_SIZE);
+        }
+        return ResponseEntity.ok(searchIndexService.search(q, type, page, size));
+    }
+}
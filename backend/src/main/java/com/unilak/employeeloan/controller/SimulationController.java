@@ -0,0 +1,22 @@
+package com.unilak.employeeloan.controller;
+
+import com.unilak.employeeloan.dto.SimulationRequest;
+import com.unilak.employeeloan.dto.SimulationResponse;
+import com.unilak.employeeloan.service.LoanSimulationService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/simulations")
+@RequiredArgsConstructor
+public class SimulationController {
+
+    private final LoanSimulationService loanSimulationService;
+
+    @PostMapping
+    public ResponseEntity<SimulationResponse> simulate(@Valid @RequestBody SimulationRequest request) {
+        return ResponseEntity.ok(loanSimulationService.simulate(request));
+    }
+}
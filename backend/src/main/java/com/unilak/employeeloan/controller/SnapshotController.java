@@ -0,0 +1,25 @@
+package com.unilak.employeeloan.controller;
+
+import com.unilak.employeeloan.service.SnapshotService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/snapshots")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+public class SnapshotController {
+
+    private final SnapshotService snapshotService;
+
+    @PostMapping
+    public ResponseEntity<Map<String, Object>> create() {
+        return ResponseEntity.ok(snapshotService.save());
+    }
+}
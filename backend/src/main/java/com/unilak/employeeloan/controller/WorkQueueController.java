@@ -0,0 +1,55 @@
+package com.unilak.employeeloan.controller;
+
+import com.unilak.employeeloan.dto.ClaimedLoan;
+import com.unilak.employeeloan.service.WorkQueueService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/work-queue")
+@RequiredArgsConstructor
+public class WorkQueueController {
+
+    private static final int MAX_CLAIM_BATCH = 20;
+
+    private final WorkQueueService workQueueService;
+
+    @PostMapping("/claim")
+    @PreAuthorize("hasRole('LOAN_OFFICER')")
+    public ResponseEntity<List<ClaimedLoan>> claim(@RequestParam(defaultValue = "1") int count) {
+        if (count < 1 || count > MAX_CLAIM_BATCH) {
+            throw new IllegalArgumentException("count must be between 1 and " + MAX_CLAIM_BATCH);
+        }
+        return ResponseEntity.ok(workQueueService.claim(count).stream().map(ClaimedLoan::of).toList());
+    }
+
+    @GetMapping("/mine")
+    @PreAuthorize("hasRole('LOAN_OFFICER')")
+    public ResponseEntity<List<ClaimedLoan>> getMyClaims() {
+        return ResponseEntity.ok(workQueueService.getMyClaims().stream().map(ClaimedLoan::of).toList());
+    }
+
+    @PutMapping("/{loanId}/renew")
+    @PreAuthorize("hasRole('LOAN_OFFICER')")
+    public ResponseEntity<ClaimedLoan> renew(@PathVariable Long loanId) {
+        return ResponseEntity.ok(ClaimedLoan.of(workQueueService.renew(loanId)));
+    }
+
+    @PutMapping("/{loanId}/release")
+    @PreAuthorize("hasRole('LOAN_OFFICER')")
+    public ResponseEntity<Void> release(@PathVariable Long loanId) {
+        workQueueService.release(loanId);
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/metrics")
+    @PreAuthorize("hasAnyRole('ADMIN', 'LOAN_OFFICER')")
+    public ResponseEntity<Map<String, Object>> getMetrics() {
+        return ResponseEntity.ok(workQueueService.getMetrics());
+    }
+}
@@ -0,0 +1,14 @@
+package com.unilak.employeeloan.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BatchGetRequest {
+    @NotNull
+    @Size(max = 500)
+    private List<@NotNull Long> ids;
+}
@@ -0,0 +1,48 @@
+package com.unilak.employeeloan.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Result of a batch lookup, keyed by the requested ids in request order. Every id gets an entry,
+ * so a caller can tell an id that does not exist from one it may not see.
+ */
+@Data
+@AllArgsConstructor
+public class BatchGetResponse<T> {
+
+    public enum Status {
+        FOUND, NOT_FOUND, FORBIDDEN
+    }
+
+    private Map<Long, Entry<T>> results;
+
+    @Data
+    @AllArgsConstructor
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Entry<T> {
+        private Status status;
+        private T data;
+    }
+
+    public static <T> BatchGetResponse<T> of(Collection<Long> ids, Map<Long, T> found, Predicate<T> visible) {
+        Map<Long, Entry<T>> results = new LinkedHashMap<>();
+        for (Long id : ids) {
+            T item = found.get(id);
+            if (item == null) {
+                results.put(id, new Entry<>(Status.NOT_FOUND, null));
+            } else if (!visible.test(item)) {
+                results.put(id, new Entry<>(Status.FORBIDDEN, null));
+            } else {
+                results.put(id, new Entry<>(Status.FOUND, item));
+            }
+        }
+        return new BatchGetResponse<>(results);
+    }
+}
@@ -0,0 +1,20 @@
+package com.unilak.employeeloan.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ChangeFeedItem {
+
+    public enum Type {
+        LOAN, REPAYMENT
+    }
+
+    private long seq;
+    private Type type;
+    private CompactLoan loan;
+    private CompactRepayment repayment;
+}
@@ -0,0 +1,15 @@
+package com.unilak.employeeloan.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class ChangeFeedPage {
+    private List<ChangeFeedItem> changes;
+    // Pass back as "since" to continue; never skips a change that has not been returned yet
+    private long resumeToken;
+    private boolean hasMore;
+}
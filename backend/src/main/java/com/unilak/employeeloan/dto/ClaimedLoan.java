@@ -0,0 +1,23 @@
+package com.unilak.employeeloan.dto;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import com.unilak.employeeloan.model.LoanApplication;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+// A loan as the work-queue endpoints return it: the usual fields plus the lease, which no other endpoint shows
+@Data
+@AllArgsConstructor
+public class ClaimedLoan {
+    @JsonUnwrapped
+    private LoanApplication loan;
+    private Long claimedById;
+    private LocalDateTime claimedAt;
+    private LocalDateTime leaseExpiresAt;
+
+    public static ClaimedLoan of(LoanApplication loan) {
+        return new ClaimedLoan(loan, loan.getClaimedById(), loan.getClaimedAt(), loan.getLeaseExpiresAt());
+    }
+}
@@ -0,0 +1,46 @@
+package com.unilak.employeeloan.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.unilak.employeeloan.model.LoanApplication;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CompactLoan {
+    private Long loanId;
+    private Long employeeId;
+    private Long loanTypeId;
+    private Long officerId;
+    private BigDecimal amount;
+    private LoanApplication.LoanStatus status;
+    private LocalDate applicationDate;
+    private LocalDate approvedDate;
+    private String remarks;
+    private String rejectionReason;
+    private BigDecimal totalPaid;
+    private BigDecimal outstandingBalance;
+    private List<CompactRepayment> repayments;
+
+    public static CompactLoan of(LoanApplication loan, boolean withRepayments) {
+        return new CompactLoan(
+                loan.getLoanId(),
+                loan.getEmployee().getId(),
+                loan.getLoanType().getLoanTypeId(),
+                loan.getLoanOfficer() != null ? loan.getLoanOfficer().getId() : null,
+                loan.getAmount(),
+                loan.getStatus(),
+                loan.getApplicationDate(),
+                loan.getApprovedDate(),
+                loan.getRemarks(),
+                loan.getRejectionReason(),
+                loan.getTotalPaid(),
+                loan.getOutstandingBalance(),
+                withRepayments ? loan.getRepayments().stream().map(CompactRepayment::of).toList() : null);
+    }
+}
@@ -0,0 +1,69 @@
+package com.unilak.employeeloan.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.unilak.employeeloan.model.Accountant;
+import com.unilak.employeeloan.model.Employee;
+import com.unilak.employeeloan.model.LoanApplication;
+import com.unilak.employeeloan.model.LoanOfficer;
+import com.unilak.employeeloan.model.LoanType;
+import com.unilak.employeeloan.model.Repayment;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dictionary-style listing: employees, loan types and staff referenced by the rows are sent
+ * once, keyed by id, and each row only carries the ids.
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public class CompactLoanList {
+    private Map<Long, Employee> employees = new LinkedHashMap<>();
+    private Map<Long, LoanType> loanTypes = new LinkedHashMap<>();
+    private Map<Long, LoanOfficer> officers = new LinkedHashMap<>();
+    private Map<Long, Accountant> accountants = new LinkedHashMap<>();
+    private List<CompactLoan> loans = new ArrayList<>();
+    private List<CompactRepayment> repayments = new ArrayList<>();
+
+    public static CompactLoanList ofLoans(List<LoanApplication> loanApplications) {
+        CompactLoanList list = new CompactLoanList();
+        for (LoanApplication loan : loanApplications) {
+            list.reference(loan);
+            loan.getRepayments().forEach(repayment -> list.reference(repayment.getAccountant()));
+            list.loans.add(CompactLoan.of(loan, true));
+        }
+        return list;
+    }
+
+    public static CompactLoanList ofRepayments(List<Repayment> repaymentList) {
+        CompactLoanList list = new CompactLoanList();
+        Map<Long, LoanApplication> loans = new LinkedHashMap<>();
+        for (Repayment repayment : repaymentList) {
+            list.reference(repayment.getAccountant());
+            loans.putIfAbsent(repayment.getLoanApplication().getLoanId(), repayment.getLoanApplication());
+            list.repayments.add(CompactRepayment.of(repayment));
+        }
+        for (LoanApplication loan : loans.values()) {
+            list.reference(loan);
+            list.loans.add(CompactLoan.of(loan, false));
+        }
+        return list;
+    }
+
+    private void reference(LoanApplication loan) {
+        employees.putIfAbsent(loan.getEmployee().getId(), loan.getEmployee());
+        loanTypes.putIfAbsent(loan.getLoanType().getLoanTypeId(), loan.getLoanType());
+        if (loan.getLoanOfficer() != null) {
+            officers.putIfAbsent(loan.getLoanOfficer().getId(), loan.getLoanOfficer());
+        }
+    }
+
+    private void reference(Accountant accountant) {
+        if (accountant != null) {
+            accountants.putIfAbsent(accountant.getId(), accountant);
+        }
+    }
+}
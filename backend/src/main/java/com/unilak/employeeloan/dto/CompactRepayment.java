@@ -0,0 +1,31 @@
+package com.unilak.employeeloan.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.unilak.employeeloan.model.Repayment;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CompactRepayment {
+    private Long repaymentId;
+    private Long loanId;
+    private Long accountantId;
+    private BigDecimal amountPaid;
+    private LocalDate paymentDate;
+    private BigDecimal balance;
+
+    public static CompactRepayment of(Repayment repayment) {
+        return new CompactRepayment(
+                repayment.getRepaymentId(),
+                repayment.getLoanApplication().getLoanId(),
+                repayment.getAccountant() != null ? repayment.getAccountant().getId() : null,
+                repayment.getAmountPaid(),
+                repayment.getPaymentDate(),
+                repayment.getBalance());
+    }
+}
@@ -0,0 +1,14 @@
+package com.unilak.employeeloan.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+@AllArgsConstructor
+public class EmployeeExposure {
+    private Long employeeId;
+    private long activeLoans;
+    private BigDecimal totalOutstanding;
+}
@@ -0,0 +1,22 @@
+package com.unilak.employeeloan.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class EmployeeImportResult {
+
+    public enum Status {
+        CREATED, DUPLICATE, INVALID
+    }
+
+    private long line;
+    private Status status;
+    // Only set for CREATED
+    private Long id;
+    private String email;
+    private String error;
+}
@@ -0,0 +1,28 @@
+package com.unilak.employeeloan.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+public class ReconciliationReport {
+    private boolean dryRun;
+    private long lines;
+    private long matched;
+    private BigDecimal matchedAmount;
+    private long repaymentsCreated;
+    private long loansCompleted;
+    private long unmatched;
+    private Map<UnmatchedLine.Reason, Long> unmatchedByReason;
+    // The first reconciliation.max-reported-exceptions unmatched lines
+    private List<UnmatchedLine> exceptions;
+    // Loading the open loans and employees into the in-memory indexes
+    private double indexMs;
+    private double parseAndMatchMs;
+    private double applyMs;
+    private double linesPerSecond;
+}
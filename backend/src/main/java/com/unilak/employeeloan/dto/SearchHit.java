@@ -0,0 +1,13 @@
+package com.unilak.employeeloan.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class SearchHit {
+    private String type;
+    private Long id;
+    private String title;
+    private String subtitle;
+}
@@ -0,0 +1,16 @@
+package com.unilak.employeeloan.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class SearchResponse {
+    private String query;
+    private int total;
+    private int page;
+    private int size;
+    private List<SearchHit> hits;
+}
@@ -0,0 +1,31 @@
+package com.unilak.employeeloan.dto;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * A grid of what-if scenarios: every amount is combined with every term and every loan type.
+ * Leaving out loanTypeIds simulates all loan types.
+ */
+@Data
+public class SimulationRequest {
+    @NotEmpty
+    private List<@NotNull @Positive @DecimalMax("100000000000") BigDecimal> amounts;
+
+    @NotEmpty
+    private List<@NotNull @Min(1) @Max(600) Integer> termMonths;
+
+    private List<@NotNull Long> loanTypeIds;
+
+    // First installment is due one month after this date; defaults to today
+    private LocalDate startDate;
+}
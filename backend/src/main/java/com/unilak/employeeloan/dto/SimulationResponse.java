@@ -0,0 +1,14 @@
+package com.unilak.employeeloan.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class SimulationResponse {
+    private int scenarios;
+    private double computeMs;
+    private List<SimulationResult> results;
+}
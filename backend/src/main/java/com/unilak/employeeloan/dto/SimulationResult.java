@@ -0,0 +1,25 @@
+package com.unilak.employeeloan.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+public class SimulationResult {
+    private Long loanTypeId;
+    private String loanTypeName;
+    private BigDecimal amount;
+    private int termMonths;
+    private BigDecimal monthlyInstallment;
+    // Absorbs the rounding of the earlier installments
+    private BigDecimal finalInstallment;
+    private BigDecimal totalInterest;
+    private BigDecimal totalPaid;
+    private LocalDate payoffDate;
+    private boolean withinLimit;
+    // False when the installment only covers the interest and the principal is all due at the end
+    private boolean paysDown;
+}
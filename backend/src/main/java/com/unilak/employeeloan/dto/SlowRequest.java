@@ -0,0 +1,26 @@
+package com.unilak.employeeloan.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SlowRequest {
+    private LocalDateTime timestamp;
+    private String method;
+    private String route;
+    private String path;
+    private int status;
+    private String user;
+    private long sqlStatements;
+    private double totalMs;
+    private double authMs;
+    private double serviceMs;
+    private double serializationMs;
+}
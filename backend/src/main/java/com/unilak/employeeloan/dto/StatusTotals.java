@@ -0,0 +1,19 @@
+package com.unilak.employeeloan.dto;
+
+import com.unilak.employeeloan.model.LoanApplication;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+@AllArgsConstructor
+public class StatusTotals {
+    private LoanApplication.LoanStatus status;
+    private long count;
+    private BigDecimal totalAmount;
+
+    public StatusTotals add(StatusTotals other) {
+        return new StatusTotals(status, count + other.count, totalAmount.add(other.totalAmount));
+    }
+}
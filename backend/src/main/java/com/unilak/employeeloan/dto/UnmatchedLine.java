@@ -0,0 +1,22 @@
+package com.unilak.employeeloan.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class UnmatchedLine {
+
+    public enum Reason {
+        MALFORMED, INVALID_DATE, INVALID_AMOUNT, DUPLICATE, UNKNOWN_EMPLOYEE, NO_ACTIVE_LOAN, AMBIGUOUS,
+        INEXACT_AMOUNT, EXCEEDS_BALANCE, BALANCE_CHANGED
+    }
+
+    private long line;
+    private String bankRef;
+    private String reference;
+    private String amount;
+    private Reason reason;
+    // Loans the line could belong to, for AMBIGUOUS, INEXACT_AMOUNT and EXCEEDS_BALANCE
+    private String candidates;
+}
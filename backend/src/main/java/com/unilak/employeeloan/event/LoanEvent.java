@@ -0,0 +1,41 @@
+package com.unilak.employeeloan.event;
+
+import com.unilak.employeeloan.model.LoanApplication;
+import com.unilak.employeeloan.model.Repayment;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+public class LoanEvent {
+
+    public enum Type {
+        LOAN_SUBMITTED, LOAN_APPROVED, LOAN_REJECTED, LOAN_COMPLETED, REPAYMENT_POSTED
+    }
+
+    private Type type;
+    private Long loanId;
+    private Long repaymentId;
+    private Long employeeId;
+    private String employeeEmail;
+    private String actorEmail;
+    private LoanApplication.LoanStatus status;
+    private BigDecimal amount;
+    private BigDecimal outstandingBalance;
+    private LocalDateTime occurredAt;
+
+    public static LoanEvent of(Type type, LoanApplication loan, String actorEmail) {
+        return new LoanEvent(type, loan.getLoanId(), null, loan.getEmployee().getId(), loan.getEmployee().getEmail(),
+                actorEmail, loan.getStatus(), loan.getAmount(), loan.getOutstandingBalance(), LocalDateTime.now());
+    }
+
+    public static LoanEvent repaymentPosted(Repayment repayment, String actorEmail) {
+        LoanApplication loan = repayment.getLoanApplication();
+        return new LoanEvent(Type.REPAYMENT_POSTED, loan.getLoanId(), repayment.getRepaymentId(), loan.getEmployee().getId(),
+                loan.getEmployee().getEmail(), actorEmail, loan.getStatus(), repayment.getAmountPaid(),
+                repayment.getBalance(), LocalDateTime.now());
+    }
+}
@@ -0,0 +1,89 @@
+package com.unilak.employeeloan.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A closed loan application moved out of {@code loan_applications} by the archival job. Rows keep
+ * their original ids and columns, so they can be copied with INSERT ... SELECT and served back
+ * through {@link #toLoanApplication()} unchanged.
+ */
+@Entity
+@Table(name = "loan_applications_archive", indexes = {
+        @Index(name = "idx_loan_applications_archive_employee_id", columnList = "employee_id"),
+        @Index(name = "idx_loan_applications_archive_status", columnList = "status")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedLoanApplication {
+    @Id
+    private Long loanId;
+
+    @ManyToOne
+    @JoinColumn(name = "employee_id", nullable = false)
+    private Employee employee;
+
+    @ManyToOne
+    @JoinColumn(name = "loan_type_id", nullable = false)
+    private LoanType loanType;
+
+    @Column(nullable = false)
+    private BigDecimal amount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private LoanApplication.LoanStatus status;
+
+    @Column(nullable = false)
+    private LocalDate applicationDate;
+
+    private LocalDate approvedDate;
+
+    private LocalDate closedDate;
+
+    @ManyToOne
+    @JoinColumn(name = "officer_id")
+    private LoanOfficer loanOfficer;
+
+    @Column(columnDefinition = "TEXT")
+    private String remarks;
+
+    @Column(columnDefinition = "TEXT")
+    private String rejectionReason;
+
+    @Column(nullable = false)
+    private LocalDateTime archivedAt;
+
+    @OneToMany
+    @JoinColumn(name = "loan_id", insertable = false, updatable = false)
+    @OrderBy("repaymentId")
+    private List<ArchivedRepayment> repayments = new ArrayList<>();
+
+    public LoanApplication toLoanApplication() {
+        LoanApplication loan = new LoanApplication();
+        loan.setLoanId(loanId);
+        loan.setEmployee(employee);
+        loan.setLoanType(loanType);
+        loan.setAmount(amount);
+        loan.setStatus(status);
+        loan.setApplicationDate(applicationDate);
+        loan.setApprovedDate(approvedDate);
+        loan.setClosedDate(closedDate);
+        loan.setLoanOfficer(loanOfficer);
+        loan.setRemarks(remarks);
+        loan.setRejectionReason(rejectionReason);
+        for (ArchivedRepayment repayment : repayments) {
+            loan.getRepayments().add(repayment.toRepayment(loan));
+        }
+        return loan;
+    }
+}
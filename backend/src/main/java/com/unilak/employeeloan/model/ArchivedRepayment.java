@@ -0,0 +1,44 @@
+package com.unilak.employeeloan.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Entity
+@Table(name = "repayments_archive", indexes = {
+        @Index(name = "idx_repayments_archive_loan_id", columnList = "loan_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedRepayment {
+    @Id
+    private Long repaymentId;
+
+    @Column(name = "loan_id", nullable = false)
+    private Long loanId;
+
+    @ManyToOne
+    @JoinColumn(name = "accountant_id")
+    private Accountant accountant;
+
+    @Column(nullable = false)
+    private BigDecimal amountPaid;
+
+    @Column(nullable = false)
+    private LocalDate paymentDate;
+
+    @Column(nullable = false)
+    private BigDecimal balance;
+
+    @Column(unique = true)
+    private String bankRef;
+
+    public Repayment toRepayment(LoanApplication loan) {
+        return new Repayment(repaymentId, loan, accountant, amountPaid, paymentDate, balance, bankRef, null);
+    }
+}
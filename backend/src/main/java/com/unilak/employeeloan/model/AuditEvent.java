@@ -0,0 +1,50 @@
+package com.unilak.employeeloan.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Entity
+@Immutable
+@Table(name = "audit_log", indexes = {
+        @Index(name = "idx_audit_log_loan_id", columnList = "loanId"),
+        @Index(name = "idx_audit_log_actor", columnList = "actor"),
+        @Index(name = "idx_audit_log_occurred_at", columnList = "occurredAt")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditEvent {
+    // Sequence ids (not IDENTITY) so Hibernate can batch the inserts
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "audit_log_seq")
+    @SequenceGenerator(name = "audit_log_seq", sequenceName = "audit_log_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private String action;
+
+    private Long loanId;
+
+    private Long repaymentId;
+
+    private Long employeeId;
+
+    @Column(nullable = false)
+    private String actor;
+
+    private String status;
+
+    private BigDecimal amount;
+
+    @Column(nullable = false)
+    private LocalDateTime occurredAt;
+
+    @Column(nullable = false)
+    private LocalDateTime recordedAt;
+}
@@ -0,0 +1,28 @@
+package com.unilak.employeeloan.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Running totals of an employee's APPROVED loans, kept up to date in the same transaction as every
+ * approval, repayment and completion. The row is created from the loans the first time it is needed.
+ */
+@Entity
+@Table(name = "employee_exposure")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmployeeExposureTotals {
+    @Id
+    private Long employeeId;
+
+    @Column(nullable = false)
+    private long activeLoans;
+
+    @Column(nullable = false)
+    private BigDecimal totalOutstanding;
+}
@@ -0,0 +1,46 @@
+package com.unilak.employeeloan.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "idempotency_keys", indexes = {
+        @Index(name = "idx_idempotency_keys_expires_at", columnList = "expiresAt")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyRecord {
+    // Caller, endpoint and client-supplied key, so keys never collide across users or routes
+    @Id
+    @Column(length = 600)
+    private String scopedKey;
+
+    @Column(nullable = false, length = 64)
+    private String requestHash;
+
+    // Null while the request is still executing; the response fields are set together with it
+    private Integer status;
+
+    private String contentType;
+
+    @Lob
+    private byte[] body;
+
+    // Identifies the execution holding the key, which may be on another instance
+    @Column(nullable = false, length = 36)
+    private String owner;
+
+    // Until then the owner is presumed alive; after it, a retry may take the key over
+    private LocalDateTime lockedUntil;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+}
@@ -1,5 +1,6 @@
 package com.unilak.employeeloan.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
@@ -10,11 +11,18 @@ import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "loan_applications")
+@Table(name = "loan_applications", indexes = {
+        @Index(name = "idx_loan_applications_employee_id", columnList = "employee_id"),
+        @Index(name = "idx_loan_applications_status", columnList = "status"),
+        @Index(name = "idx_loan_applications_officer_id", columnList = "officer_id"),
+        @Index(name = "idx_loan_applications_application_date", columnList = "applicationDate"),
+        @Index(name = "idx_loan_applications_change_seq", columnList = "changeSeq")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -46,6 +54,9 @@ public class LoanApplication {
 
     private LocalDate approvedDate;
 
+    // Set when the application is rejected or fully repaid; drives archival
+    private LocalDate closedDate;
+
     @ManyToOne
     @JoinColumn(name = "officer_id")
     @JsonIgnoreProperties({"processedApplications", "password"})
@@ -57,6 +68,22 @@ public class LoanApplication {
     @Column(columnDefinition = "TEXT")
     private String rejectionReason;
 
+    // Work-queue lease: a PENDING application is reserved for one officer until the lease expires.
+    // Only the work-queue endpoints show it, through ClaimedLoan
+    @JsonIgnore
+    private Long claimedById;
+
+    @JsonIgnore
+    private LocalDateTime claimedAt;
+
+    @JsonIgnore
+    private LocalDateTime leaseExpiresAt;
+
+    // Position in the change feed; stamped by ChangeSequenceTracker when the write commits
+    @JsonIgnore
+    @Column(insertable = false, updatable = false)
+    private Long changeSeq;
+
     @OneToMany(mappedBy = "loanApplication", cascade = CascadeType.ALL, orphanRemoval = true)
     @JsonIgnoreProperties("loanApplication")
     private List<Repayment> repayments = new ArrayList<>();
@@ -1,5 +1,6 @@
 package com.unilak.employeeloan.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
@@ -12,7 +13,10 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "repayments")
+@Table(name = "repayments", indexes = {
+        @Index(name = "idx_repayments_loan_id_payment_date", columnList = "loan_id, paymentDate"),
+        @Index(name = "idx_repayments_change_seq", columnList = "changeSeq")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -40,4 +44,13 @@ public class Repayment {
 
     @NotNull
     private BigDecimal balance;
+
+    // Bank reference of a reconciled statement line; unique, so a statement is never posted twice
+    @Column(unique = true)
+    private String bankRef;
+
+    // Position in the change feed; stamped by ChangeSequenceTracker when the write commits
+    @JsonIgnore
+    @Column(insertable = false, updatable = false)
+    private Long changeSeq;
 }
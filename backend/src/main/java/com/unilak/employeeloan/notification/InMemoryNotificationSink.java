@@ -0,0 +1,57 @@
+package com.unilak.employeeloan.notification;
+
+import com.unilak.employeeloan.model.OutboxMessage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Local stand-in for a real channel: keeps the most recent deliveries in memory so tests and
+ * manual runs can check what would have been sent. Setting notification.memory.fail-deliveries
+ * makes it reject batches, to exercise the retry path.
+ */
+@Component
+public class InMemoryNotificationSink implements NotificationSink {
+
+    private final Deque<OutboxMessage> delivered = new ArrayDeque<>();
+
+    @Value("${notification.memory.capacity}")
+    private int capacity;
+
+    @Value("${notification.memory.fail-deliveries}")
+    private volatile boolean failDeliveries;
+
+    @Override
+    public String name() {
+        return "memory";
+    }
+
+    @Override
+    public synchronized void deliver(List<OutboxMessage> messages) {
+        if (failDeliveries) {
+            throw new IllegalStateException("In-memory sink is set to fail deliveries");
+        }
+        for (OutboxMessage message : messages) {
+            if (delivered.size() == capacity) {
+                delivered.removeFirst();
+            }
+            delivered.addLast(message);
+        }
+    }
+
+    public synchronized List<OutboxMessage> getDelivered() {
+        return new ArrayList<>(delivered);
+    }
+
+    public synchronized void clear() {
+        delivered.clear();
+    }
+
+    public void setFailDeliveries(boolean failDeliveries) {
+        this.failDeliveries = failDeliveries;
+    }
+}
@@ -0,0 +1,24 @@
+package com.unilak.employeeloan.notification;
+
+import com.unilak.employeeloan.model.OutboxMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+@Slf4j
+public class LogNotificationSink implements NotificationSink {
+
+    @Override
+    public String name() {
+        return "log";
+    }
+
+    @Override
+    public void deliver(List<OutboxMessage> messages) {
+        for (OutboxMessage message : messages) {
+            log.info("Notification {} to {}: {}", message.getId(), message.getRecipient(), message.getSubject());
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.unilak.employeeloan.notification;
+
+import com.unilak.employeeloan.model.OutboxMessage;
+
+import java.util.List;
+
+/**
+ * Somewhere outbox messages can be delivered. A sink gets a whole batch at once so it can reuse a
+ * connection or send a single request; throwing means none of the batch is considered delivered.
+ * The dispatcher then retries the messages one by one, so a single bad message cannot hold back
+ * the rest. Delivery is at least once, so receivers should treat the message id as a dedup key.
+ */
+public interface NotificationSink {
+
+    String name();
+
+    void deliver(List<OutboxMessage> messages) throws Exception;
+}
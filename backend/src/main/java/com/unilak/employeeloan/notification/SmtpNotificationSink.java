@@ -0,0 +1,48 @@
+package com.unilak.employeeloan.notification;
+
+import com.unilak.employeeloan.model.OutboxMessage;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Sends each message as a plain-text email. A batch is handed to the mail sender in one call,
+ * which delivers it over a single SMTP connection. Needs spring.mail.host to be configured.
+ */
+@Component
+@RequiredArgsConstructor
+public class SmtpNotificationSink implements NotificationSink {
+
+    private final ObjectProvider<JavaMailSender> mailSender;
+
+    @Value("${notification.smtp.from}")
+    private String from;
+
+    @Override
+    public String name() {
+        return "smtp";
+    }
+
+    @Override
+    public void deliver(List<OutboxMessage> messages) {
+        JavaMailSender sender = mailSender.getIfAvailable();
+        if (sender == null) {
+            throw new IllegalStateException("spring.mail.host is not set");
+        }
+        SimpleMailMessage[] mails = new SimpleMailMessage[messages.size()];
+        for (int i = 0; i < mails.length; i++) {
+            OutboxMessage message = messages.get(i);
+            mails[i] = new SimpleMailMessage();
+            mails[i].setFrom(from);
+            mails[i].setTo(message.getRecipient());
+            mails[i].setSubject(message.getSubject());
+            mails[i].setText(message.getBody());
+        }
+        sender.send(mails);
+    }
+}
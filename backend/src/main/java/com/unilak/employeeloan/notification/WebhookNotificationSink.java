@@ -0,0 +1,68 @@
+package com.unilak.employeeloan.notification;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.unilak.employeeloan.model.OutboxMessage;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * POSTs each batch as one JSON array to notification.webhook.url. Any non-2xx answer fails the
+ * batch.
+ */
+@Component
+@RequiredArgsConstructor
+public class WebhookNotificationSink implements NotificationSink {
+
+    private final ObjectMapper objectMapper;
+
+    @Value("${notification.webhook.url}")
+    private String url;
+
+    @Value("${notification.webhook.timeout}")
+    private long timeout;
+
+    private volatile HttpClient client;
+
+    @Override
+    public String name() {
+        return "webhook";
+    }
+
+    @Override
+    public void deliver(List<OutboxMessage> messages) throws IOException, InterruptedException {
+        if (url.isBlank()) {
+            throw new IllegalStateException("notification.webhook.url is not set");
+        }
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofMillis(timeout))
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(messages)))
+                .build();
+        HttpResponse<String> response = client().send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() / 100 != 2) {
+            throw new IOException("Webhook answered " + response.statusCode() + ": " + response.body());
+        }
+    }
+
+    private HttpClient client() {
+        if (client == null) {
+            synchronized (this) {
+                if (client == null) {
+                    client = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(timeout)).build();
+                }
+            }
+        }
+        return client;
+    }
+}
@@ -0,0 +1,55 @@
+package com.unilak.employeeloan.repository;
+
+import com.unilak.employeeloan.dto.StatusTotals;
+import com.unilak.employeeloan.model.ArchivedLoanApplication;
+import com.unilak.employeeloan.model.LoanApplication;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ArchivedLoanApplicationRepository extends JpaRepository<ArchivedLoanApplication, Long> {
+
+    @EntityGraph(attributePaths = {"employee", "loanType", "loanOfficer", "repayments", "repayments.accountant"})
+    @Query("select a from ArchivedLoanApplication a")
+    List<ArchivedLoanApplication> findAllWithRepayments();
+
+    @EntityGraph(attributePaths = {"employee", "loanType", "loanOfficer", "repayments", "repayments.accountant"})
+    Optional<ArchivedLoanApplication> findWithRepaymentsByLoanId(Long loanId);
+
+    @EntityGraph(attributePaths = {"employee", "loanType", "loanOfficer", "repayments", "repayments.accountant"})
+    List<ArchivedLoanApplication> findWithRepaymentsByLoanIdIn(Collection<Long> loanIds);
+
+    @EntityGraph(attributePaths = {"employee", "loanType", "loanOfficer", "repayments", "repayments.accountant"})
+    @Query("select a from ArchivedLoanApplication a where a.loanId in " +
+           "(select r.loanId from ArchivedRepayment r where r.repaymentId in :repaymentIds)")
+    List<ArchivedLoanApplication> findWithRepaymentsByRepaymentIdIn(Collection<Long> repaymentIds);
+
+    @EntityGraph(attributePaths = {"employee", "loanType", "loanOfficer", "repayments", "repayments.accountant"})
+    List<ArchivedLoanApplication> findByEmployeeId(Long employeeId);
+
+    @EntityGraph(attributePaths = {"employee", "loanType", "loanOfficer", "repayments", "repayments.accountant"})
+    List<ArchivedLoanApplication> findByStatus(LoanApplication.LoanStatus status);
+
+    @Query("select new com.unilak.employeeloan.dto.StatusTotals(a.status, count(a), coalesce(sum(a.amount), 0)) " +
+           "from ArchivedLoanApplication a group by a.status")
+    List<StatusTotals> summarizeByStatus();
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("delete from ArchivedRepayment r where r.loanId in " +
+           "(select a.loanId from ArchivedLoanApplication a where a.employee.id = :employeeId)")
+    int deleteRepaymentsByEmployeeId(Long employeeId);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("delete from ArchivedLoanApplication a where a.employee.id = :employeeId")
+    int deleteByEmployeeId(Long employeeId);
+}
@@ -0,0 +1,39 @@
+package com.unilak.employeeloan.repository;
+
+import com.unilak.employeeloan.model.EmployeeExposureTotals;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+@Repository
+public interface EmployeeExposureTotalsRepository extends JpaRepository<EmployeeExposureTotals, Long> {
+
+    // Held until the transaction ends, so approvals for one employee check their limits one at a time
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select t from EmployeeExposureTotals t where t.employeeId = :employeeId")
+    Optional<EmployeeExposureTotals> lockByEmployeeId(Long employeeId);
+
+    // Native: Hibernate renders the decimal parameter in this arithmetic as a cast H2 cannot parse
+    @Modifying
+    @Query(value = "update employee_exposure set active_loans = active_loans + :loansDelta, " +
+                   "total_outstanding = total_outstanding + :outstandingDelta where employee_id = :employeeId",
+           nativeQuery = true)
+    int adjust(Long employeeId, long loansDelta, BigDecimal outstandingDelta);
+
+    // Inserts nothing if the row exists; two concurrent inserts still meet at the primary key
+    @Modifying
+    @Query(value = "insert into employee_exposure (employee_id, active_loans, total_outstanding) " +
+                   "select :employeeId, :activeLoans, :totalOutstanding from dual " +
+                   "where not exists (select 1 from employee_exposure where employee_id = :employeeId)", nativeQuery = true)
+    int insertIfAbsent(Long employeeId, long activeLoans, BigDecimal totalOutstanding);
+
+    @Modifying
+    @Query("delete from EmployeeExposureTotals t where t.employeeId = :employeeId")
+    int deleteByEmployeeId(Long employeeId);
+}
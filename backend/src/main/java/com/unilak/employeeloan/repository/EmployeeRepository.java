@@ -2,12 +2,22 @@ package com.unilak.employeeloan.repository;
 
 import com.unilak.employeeloan.model.Employee;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Repository
 public interface EmployeeRepository extends JpaRepository<Employee, Long> {
     Optional<Employee> findByEmail(String email);
     boolean existsByEmail(String email);
+
+    @Query("select e.id, e.email from Employee e")
+    List<Object[]> findAllIdsAndEmails();
+
+    @Query("select e.email from Employee e where e.email in :emails")
+    Set<String> findExistingEmails(Collection<String> emails);
 }
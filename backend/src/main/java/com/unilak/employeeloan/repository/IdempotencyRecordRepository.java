@@ -0,0 +1,54 @@
+package com.unilak.employeeloan.repository;
+
+import com.unilak.employeeloan.model.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    // Inserts nothing if the key is taken; two concurrent reservations still meet at the primary key
+    @Transactional
+    @Modifying
+    @Query(value = "insert into idempotency_keys (scoped_key, request_hash, owner, locked_until, created_at, expires_at) " +
+                   "select :scopedKey, :requestHash, :owner, :lockedUntil, :now, :expiresAt from dual " +
+                   "where not exists (select 1 from idempotency_keys where scoped_key = :scopedKey)", nativeQuery = true)
+    int reserve(String scopedKey, String requestHash, String owner, LocalDateTime lockedUntil,
+                 LocalDateTime now, LocalDateTime expiresAt);
+
+    @Transactional
+    @Modifying
+    @Query("update IdempotencyRecord r set r.owner = :owner, r.lockedUntil = :lockedUntil " +
+           "where r.scopedKey = :scopedKey and r.status is null and r.lockedUntil < :now")
+    int takeOver(String scopedKey, String owner, LocalDateTime lockedUntil, LocalDateTime now);
+
+    // Joins the caller's transaction, if any; not clearing it keeps that transaction's pending changes
+    @Transactional
+    @Modifying
+    @Query("update IdempotencyRecord r set r.status = :status, r.contentType = :contentType, r.body = :body, " +
+           "r.lockedUntil = null, r.expiresAt = :expiresAt " +
+           "where r.scopedKey = :scopedKey and r.owner = :owner and r.status is null")
+    int complete(String scopedKey, String owner, int status, String contentType, byte[] body, LocalDateTime expiresAt);
+
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.scopedKey = :scopedKey and r.owner = :owner and r.status is null")
+    int release(String scopedKey, String owner);
+
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.scopedKey = :scopedKey and r.expiresAt < :now")
+    int deleteExpired(String scopedKey, LocalDateTime now);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("delete from IdempotencyRecord r where r.expiresAt < :now")
+    int deleteExpired(LocalDateTime now);
+
+    long countByStatusIsNull();
+}
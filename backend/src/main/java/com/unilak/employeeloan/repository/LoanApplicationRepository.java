@@ -1,13 +1,120 @@
 package com.unilak.employeeloan.repository;
 
+import com.unilak.employeeloan.dto.StatusTotals;
 import com.unilak.employeeloan.model.LoanApplication;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface LoanApplicationRepository extends JpaRepository<LoanApplication, Long> {
+    // Loans are serialized with their parties and repayments after the transaction has ended,
+    // so every finder that returns them to a caller fetches the whole graph in one query
+    @EntityGraph(attributePaths = {"employee", "loanType", "loanOfficer", "repayments", "repayments.accountant"})
+    @Override
+    List<LoanApplication> findAll();
+
+    @EntityGraph(attributePaths = {"employee", "loanType", "loanOfficer", "repayments", "repayments.accountant"})
+    @Override
+    Optional<LoanApplication> findById(Long loanId);
+
+    @EntityGraph(attributePaths = {"employee", "loanType", "loanOfficer", "repayments", "repayments.accountant"})
+    @Override
+    List<LoanApplication> findAllById(Iterable<Long> loanIds);
+
+    @EntityGraph(attributePaths = {"employee", "loanType", "loanOfficer", "repayments", "repayments.accountant"})
     List<LoanApplication> findByEmployeeId(Long employeeId);
+
+    @EntityGraph(attributePaths = {"employee", "loanType", "loanOfficer", "repayments", "repayments.accountant"})
     List<LoanApplication> findByStatus(LoanApplication.LoanStatus status);
+
+    // Only what search documents need, without pulling in every repayment
+    @EntityGraph(attributePaths = {"employee", "loanType", "loanOfficer"})
+    @Query("select l from LoanApplication l")
+    List<LoanApplication> findAllForIndex();
+
+    // Repayments (for the balance) come in through batch fetching; fetching a collection here would
+    // make Hibernate apply the limit in memory
+    @EntityGraph(attributePaths = {"employee", "loanType", "loanOfficer"})
+    @Query("select l from LoanApplication l where l.changeSeq > :since and l.changeSeq <= :upTo order by l.changeSeq")
+    List<LoanApplication> findChanges(long since, long upTo, Pageable pageable);
+
+    // loanId, employeeId, outstanding balance and the most recent installment (null before the first)
+    @Query("select l.loanId, l.employee.id, " +
+           "l.amount - coalesce((select sum(r.amountPaid) from Repayment r where r.loanApplication = l), 0), " +
+           "(select r.amountPaid from Repayment r where r.repaymentId = " +
+           "(select max(r2.repaymentId) from Repayment r2 where r2.loanApplication = l)) " +
+           "from LoanApplication l where l.status = :status order by l.employee.id, l.loanId")
+    List<Object[]> findBalancesByStatus(LoanApplication.LoanStatus status);
+
+    @EntityGraph(attributePaths = {"employee"})
+    List<LoanApplication> findWithEmployeeByLoanIdIn(Collection<Long> loanIds);
+
+    long countByStatus(LoanApplication.LoanStatus status);
+    long countByEmployeeIdAndStatus(Long employeeId, LoanApplication.LoanStatus status);
+
+    @Query("select new com.unilak.employeeloan.dto.StatusTotals(l.status, count(l), coalesce(sum(l.amount), 0)) " +
+           "from LoanApplication l group by l.status")
+    List<StatusTotals> summarizeByStatus();
+
+    @Query("select coalesce(sum(l.amount), 0) from LoanApplication l where l.employee.id = :employeeId and l.status = :status")
+    BigDecimal sumAmountByEmployeeIdAndStatus(Long employeeId, LoanApplication.LoanStatus status);
+
+    @Query("select l.loanId from LoanApplication l where l.status = :status " +
+           "and (l.leaseExpiresAt is null or l.leaseExpiresAt < :now) order by l.applicationDate, l.loanId")
+    List<Long> findClaimableIds(LoanApplication.LoanStatus status, LocalDateTime now, Pageable pageable);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update LoanApplication l set l.claimedById = :officerId, l.claimedAt = :now, l.leaseExpiresAt = :expiresAt " +
+           "where l.loanId = :loanId and l.status = :status and (l.leaseExpiresAt is null or l.leaseExpiresAt < :now) " +
+           "and (select count(o) from LoanApplication o where o.status = :status and o.claimedById = :officerId " +
+           "and o.leaseExpiresAt >= :now) < :maxLeases")
+    int tryClaim(Long loanId, LoanApplication.LoanStatus status, Long officerId, LocalDateTime now, LocalDateTime expiresAt,
+                 long maxLeases);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update LoanApplication l set l.leaseExpiresAt = :expiresAt " +
+           "where l.loanId = :loanId and l.claimedById = :officerId and l.leaseExpiresAt >= :now")
+    int renewLease(Long loanId, Long officerId, LocalDateTime now, LocalDateTime expiresAt);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update LoanApplication l set l.claimedById = null, l.claimedAt = null, l.leaseExpiresAt = null " +
+           "where l.loanId = :loanId and l.claimedById = :officerId")
+    int releaseLease(Long loanId, Long officerId);
+
+    // Runs inside the deciding transaction, which still holds the loan it loaded, so nothing is cleared
+    @Modifying
+    @Query("update LoanApplication l set l.claimedById = null, l.claimedAt = null, l.leaseExpiresAt = null " +
+           "where l.loanId = :loanId and (l.claimedById is null or l.claimedById = :officerId " +
+           "or l.leaseExpiresAt is null or l.leaseExpiresAt < :now)")
+    int clearLeaseUnlessHeldByOther(Long loanId, Long officerId, LocalDateTime now);
+
+    @EntityGraph(attributePaths = {"employee", "loanType", "loanOfficer", "repayments", "repayments.accountant"})
+    List<LoanApplication> findByStatusAndClaimedByIdAndLeaseExpiresAtGreaterThanEqual(
+            LoanApplication.LoanStatus status, Long officerId, LocalDateTime now);
+
+    long countByStatusAndClaimedByIdAndLeaseExpiresAtGreaterThanEqual(
+            LoanApplication.LoanStatus status, Long officerId, LocalDateTime now);
+
+    long countByStatusAndLeaseExpiresAtGreaterThanEqual(LoanApplication.LoanStatus status, LocalDateTime now);
+
+    @Query("select min(l.claimedAt) from LoanApplication l where l.status = :status and l.leaseExpiresAt >= :now")
+    LocalDateTime findOldestActiveClaim(LoanApplication.LoanStatus status, LocalDateTime now);
+
+    @Query("select l.claimedById, count(l) from LoanApplication l " +
+           "where l.status = :status and l.leaseExpiresAt >= :now group by l.claimedById")
+    List<Object[]> countActiveLeasesByOfficer(LoanApplication.LoanStatus status, LocalDateTime now);
 }
@@ -1,7 +1,10 @@
 package com.unilak.employeeloan.repository;
 
 import com.unilak.employeeloan.model.LoanOfficer;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -10,4 +13,9 @@ import java.util.Optional;
 public interface LoanOfficerRepository extends JpaRepository<LoanOfficer, Long> {
     Optional<LoanOfficer> findByEmail(String email);
     boolean existsByEmail(String email);
+
+    // Held until the transaction ends, so one officer's claims are counted against the cap one at a time
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select o from LoanOfficer o where o.id = :id")
+    Optional<LoanOfficer> lockById(Long id);
 }
@@ -0,0 +1,29 @@
+package com.unilak.employeeloan.repository;
+
+import com.unilak.employeeloan.model.OutboxMessage;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OutboxMessageRepository extends JpaRepository<OutboxMessage, Long> {
+
+    @Query("select m from OutboxMessage m where m.status = 'PENDING' and m.nextAttemptAt <= :now order by m.id")
+    List<OutboxMessage> findDue(LocalDateTime now, Pageable pageable);
+
+    @Modifying(clearAutomatically = true)
+    @Query("update OutboxMessage m set m.status = 'SENT', m.sentAt = :sentAt, m.attempts = m.attempts + 1, " +
+           "m.lastError = null where m.id in :ids")
+    int markSent(Collection<Long> ids, LocalDateTime sentAt);
+
+    long countByStatus(OutboxMessage.Status status);
+
+    @Query("select min(m.createdAt) from OutboxMessage m where m.status = 'PENDING'")
+    LocalDateTime oldestPendingCreatedAt();
+}
@@ -1,12 +1,47 @@
 package com.unilak.employeeloan.repository;
 
+import com.unilak.employeeloan.model.LoanApplication;
 import com.unilak.employeeloan.model.Repayment;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
 @Repository
 public interface RepaymentRepository extends JpaRepository<Repayment, Long> {
+    @EntityGraph(attributePaths = {"loanApplication", "loanApplication.employee", "loanApplication.loanType",
+            "loanApplication.loanOfficer", "accountant"})
+    @Override
+    List<Repayment> findAll();
+
+    @EntityGraph(attributePaths = {"loanApplication", "loanApplication.employee", "loanApplication.loanType",
+            "loanApplication.loanOfficer", "accountant"})
+    @Override
+    List<Repayment> findAllById(Iterable<Long> repaymentIds);
+
+    @EntityGraph(attributePaths = {"loanApplication", "loanApplication.employee", "loanApplication.loanType",
+            "loanApplication.loanOfficer", "accountant"})
     List<Repayment> findByLoanApplicationLoanId(Long loanId);
+
+    @EntityGraph(attributePaths = {"loanApplication", "accountant"})
+    @Query("select r from Repayment r where r.changeSeq > :since and r.changeSeq <= :upTo order by r.changeSeq")
+    List<Repayment> findChanges(long since, long upTo, Pageable pageable);
+
+    // Driven from the loans so each sum is an index lookup; grouping repayments scans them all
+    @Query("select l.loanId, (select coalesce(sum(r.amountPaid), 0) from Repayment r where r.loanApplication = l) " +
+           "from LoanApplication l where l.loanId in :loanIds")
+    List<Object[]> sumAmountPaidByLoanIds(Collection<Long> loanIds);
+
+    @Query("select r.bankRef from Repayment r where r.bankRef in :bankRefs")
+    Set<String> findExistingBankRefs(Collection<String> bankRefs);
+
+    @Query("select coalesce(sum(r.amountPaid), 0) from Repayment r " +
+           "where r.loanApplication.employee.id = :employeeId and r.loanApplication.status = :status")
+    BigDecimal sumAmountPaidByEmployeeIdAndLoanStatus(Long employeeId, LoanApplication.LoanStatus status);
 }
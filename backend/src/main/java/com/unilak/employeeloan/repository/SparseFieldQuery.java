@@ -0,0 +1,209 @@
+package com.unilak.employeeloan.repository;
+
+import com.unilak.employeeloan.model.ArchivedLoanApplication;
+import com.unilak.employeeloan.model.ArchivedRepayment;
+import com.unilak.employeeloan.model.Employee;
+import com.unilak.employeeloan.model.LoanApplication;
+import com.unilak.employeeloan.model.Repayment;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import jakarta.persistence.criteria.Subquery;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Answers "fields=" requests with a Criteria tuple query that selects only the requested columns.
+ * Associations are joined only when one of their fields is asked for (and left-joined, so a loan
+ * without an officer still comes back); a requested id of an association is read from the foreign
+ * key without a join. Rows come back as maps shaped like the full JSON, with dotted fields nested.
+ */
+@Component
+@RequiredArgsConstructor
+public class SparseFieldQuery {
+
+    public static final Catalog LOANS = new Catalog(LoanApplication.class, ArchivedLoanApplication.class, "loanId")
+            .field("loanId", q -> q.root().get("loanId"))
+            .field("amount", q -> q.root().get("amount"))
+            .field("status", q -> q.root().get("status"))
+            .field("applicationDate", q -> q.root().get("applicationDate"))
+            .field("approvedDate", q -> q.root().get("approvedDate"))
+            .field("closedDate", q -> q.root().get("closedDate"))
+            .field("remarks", q -> q.root().get("remarks"))
+            .field("rejectionReason", q -> q.root().get("rejectionReason"))
+            .field("totalPaid", SparseFieldQuery::totalPaid)
+            .field("outstandingBalance", q -> q.cb().diff(q.root().<BigDecimal>get("amount"), totalPaid(q)))
+            .field("employee.id", q -> q.root().get("employee").get("id"))
+            .field("employee.name", q -> q.join("employee").get("name"))
+            .field("employee.email", q -> q.join("employee").get("email"))
+            .field("employee.department", q -> q.join("employee").get("department"))
+            .field("loanType.loanTypeId", q -> q.root().get("loanType").get("loanTypeId"))
+            .field("loanType.name", q -> q.join("loanType").get("name"))
+            .field("loanType.interestRate", q -> q.join("loanType").get("interestRate"))
+            .field("loanOfficer.id", q -> q.root().get("loanOfficer").get("id"))
+            .field("loanOfficer.name", q -> q.join("loanOfficer").get("name"))
+            .field("loanOfficer.email", q -> q.join("loanOfficer").get("email"));
+
+    public static final Catalog REPAYMENTS = new Catalog(Repayment.class, ArchivedRepayment.class, "repaymentId")
+            .field("repaymentId", q -> q.root().get("repaymentId"))
+            .field("amountPaid", q -> q.root().get("amountPaid"))
+            .field("paymentDate", q -> q.root().get("paymentDate"))
+            .field("balance", q -> q.root().get("balance"))
+            .field("loanApplication.loanId", q -> q.archived()
+                    ? q.root().get("loanId") : q.root().get("loanApplication").get("loanId"))
+            .field("accountant.id", q -> q.root().get("accountant").get("id"))
+            .field("accountant.name", q -> q.join("accountant").get("name"))
+            .field("accountant.email", q -> q.join("accountant").get("email"));
+
+    public static final Catalog EMPLOYEES = new Catalog(Employee.class, null, "id")
+            .field("id", q -> q.root().get("id"))
+            .field("name", q -> q.root().get("name"))
+            .field("email", q -> q.root().get("email"))
+            .field("department", q -> q.root().get("department"));
+
+    private final EntityManager entityManager;
+
+    /**
+     * Selects {@code fields} (comma separated, validated against the catalog) from the rows
+     * matching {@code filter}, followed by matching archived rows when {@code includeArchive} is
+     * set and the catalog has an archive table.
+     */
+    public List<Map<String, Object>> find(Catalog catalog, String fields, Function<QueryContext, Predicate> filter,
+                                          boolean includeArchive) {
+        List<String> selected = catalog.resolve(fields);
+        List<Map<String, Object>> rows = find(catalog, selected, filter, false);
+        if (includeArchive && catalog.archiveEntity != null) {
+            rows.addAll(find(catalog, selected, filter, true));
+        }
+        return rows;
+    }
+
+    private List<Map<String, Object>> find(Catalog catalog, List<String> fields, Function<QueryContext, Predicate> filter,
+                                           boolean archived) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Class<?> entity = archived ? catalog.archiveEntity : catalog.entity;
+        Root<?> root = query.from(entity);
+        QueryContext context = new QueryContext(cb, query, root, archived, new HashMap<>());
+
+        List<Selection<?>> selections = new ArrayList<>(fields.size());
+        for (String field : fields) {
+            selections.add(catalog.fields.get(field).apply(context).alias(field));
+        }
+        query.multiselect(selections);
+        Predicate predicate = filter.apply(context);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(cb.asc(root.get(catalog.orderBy)));
+
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Tuple tuple : entityManager.createQuery(query).getResultList()) {
+            rows.add(toRow(fields, tuple));
+        }
+        return rows;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> toRow(List<String> fields, Tuple tuple) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (String field : fields) {
+            int dot = field.indexOf('.');
+            if (dot < 0) {
+                row.put(field, tuple.get(field));
+            } else {
+                ((Map<String, Object>) row.computeIfAbsent(field.substring(0, dot), key -> new LinkedHashMap<>()))
+                        .put(field.substring(dot + 1), tuple.get(field));
+            }
+        }
+        // A missing association (no officer yet) is null, as in the full response
+        row.replaceAll((key, value) -> value instanceof Map<?, ?> nested
+                && nested.values().stream().allMatch(v -> v == null) ? null : value);
+        return row;
+    }
+
+    private static Expression<BigDecimal> totalPaid(QueryContext q) {
+        Subquery<BigDecimal> paid = q.query().subquery(BigDecimal.class);
+        if (q.archived()) {
+            Root<ArchivedRepayment> repayment = paid.from(ArchivedRepayment.class);
+            paid.select(q.cb().sum(repayment.get("amountPaid")))
+                    .where(q.cb().equal(repayment.get("loanId"), q.root().get("loanId")));
+        } else {
+            Root<Repayment> repayment = paid.from(Repayment.class);
+            paid.select(q.cb().sum(repayment.get("amountPaid")))
+                    .where(q.cb().equal(repayment.get("loanApplication"), q.root()));
+        }
+        return q.cb().coalesce(paid, BigDecimal.ZERO);
+    }
+
+    public record QueryContext(CriteriaBuilder cb, CriteriaQuery<Tuple> query, Root<?> root, boolean archived,
+                               Map<String, Join<?, ?>> joins) {
+
+        public Join<?, ?> join(String association) {
+            return joins.computeIfAbsent(association, name -> root.join(name, JoinType.LEFT));
+        }
+    }
+
+    public static final class Catalog {
+        private final Class<?> entity;
+        private final Class<?> archiveEntity;
+        private final String orderBy;
+        private final Map<String, Function<QueryContext, Expression<?>>> fields = new LinkedHashMap<>();
+
+        private Catalog(Class<?> entity, Class<?> archiveEntity, String orderBy) {
+            this.entity = entity;
+            this.archiveEntity = archiveEntity;
+            this.orderBy = orderBy;
+        }
+
+        private Catalog field(String name, Function<QueryContext, Expression<?>> expression) {
+            fields.put(name, expression);
+            return this;
+        }
+
+        /**
+         * Parses a fields parameter. An association name on its own ("employee") stands for all
+         * of its fields.
+         */
+        public List<String> resolve(String requested) {
+            Set<String> resolved = new LinkedHashSet<>();
+            for (String part : requested.split(",")) {
+                String name = part.trim();
+                if (name.isEmpty()) {
+                    continue;
+                }
+                if (fields.containsKey(name)) {
+                    resolved.add(name);
+                    continue;
+                }
+                List<String> nested = fields.keySet().stream().filter(field -> field.startsWith(name + ".")).toList();
+                if (nested.isEmpty()) {
+                    throw new IllegalArgumentException("Unknown field '" + name + "'; available: "
+                            + String.join(", ", fields.keySet()));
+                }
+                resolved.addAll(nested);
+            }
+            if (resolved.isEmpty()) {
+                throw new IllegalArgumentException("fields must name at least one field");
+            }
+            return new ArrayList<>(resolved);
+        }
+    }
+}
@@ -6,6 +6,7 @@ import com.unilak.employeeloan.repository.AccountantRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -15,21 +16,26 @@ public class AccountantService {
 
     private final AccountantRepository accountantRepository;
     private final PasswordEncoder passwordEncoder;
+    private final VersionStampService versionStampService;
 
+    @Transactional(readOnly = true)
     public List<Accountant> getAllAccountants() {
         return accountantRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
     public Accountant getAccountantById(Long id) {
         return accountantRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Accountant", "id", id));
     }
 
+    @Transactional(readOnly = true)
     public Accountant getAccountantByEmail(String email) {
         return accountantRepository.findByEmail(email)
                 .orElseThrow(() -> new ResourceNotFoundException("Accountant", "email", email));
     }
 
+    @Transactional
     public Accountant createAccountant(Accountant accountant) {
         if (accountantRepository.existsByEmail(accountant.getEmail())) {
             throw new IllegalArgumentException("Email already exists");
@@ -38,16 +44,21 @@ public class AccountantService {
         return accountantRepository.save(accountant);
     }
 
+    @Transactional
     public Accountant updateAccountant(Long id, Accountant updatedAccountant) {
         Accountant accountant = getAccountantById(id);
         accountant.setName(updatedAccountant.getName());
         if (updatedAccountant.getPassword() != null && !updatedAccountant.getPassword().isEmpty()) {
             accountant.setPassword(passwordEncoder.encode(updatedAccountant.getPassword()));
         }
-        return accountantRepository.save(accountant);
+        Accountant savedAccountant = accountantRepository.save(accountant);
+        versionStampService.staffChanged();
+        return savedAccountant;
     }
 
+    @Transactional
     public void deleteAccountant(Long id) {
         accountantRepository.deleteById(id);
+        versionStampService.staffChanged();
     }
 }
@@ -6,6 +6,7 @@ import com.unilak.employeeloan.repository.AdminRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -16,20 +17,24 @@ public class AdminService {
     private final AdminRepository adminRepository;
     private final PasswordEncoder passwordEncoder;
 
+    @Transactional(readOnly = true)
     public List<Admin> getAllAdmins() {
         return adminRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
     public Admin getAdminById(Long id) {
         return adminRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Admin", "id", id));
     }
 
+    @Transactional(readOnly = true)
     public Admin getAdminByEmail(String email) {
         return adminRepository.findByEmail(email)
                 .orElseThrow(() -> new ResourceNotFoundException("Admin", "email", email));
     }
 
+    @Transactional
     public Admin createAdmin(Admin admin) {
         if (adminRepository.existsByEmail(admin.getEmail())) {
             throw new IllegalArgumentException("Email already exists");
@@ -38,6 +43,7 @@ public class AdminService {
         return adminRepository.save(admin);
     }
 
+    @Transactional
     public Admin updateAdmin(Long id, Admin updatedAdmin) {
         Admin admin = getAdminById(id);
         admin.setName(updatedAdmin.getName());
@@ -48,6 +54,7 @@ public class AdminService {
         return adminRepository.save(admin);
     }
 
+    @Transactional
     public void deleteAdmin(Long id) {
         adminRepository.deleteById(id);
     }
@@ -0,0 +1,223 @@
+package com.unilak.employeeloan.service;
+
+import com.unilak.employeeloan.event.LoanEvent;
+import com.unilak.employeeloan.model.AuditEvent;
+import com.unilak.employeeloan.repository.AuditEventRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Append-only audit trail of loan decisions and repayments. Events are taken after the business
+ * transaction commits and only enqueued on the request thread; a background writer drains the
+ * bounded buffer and inserts in batches, once a batch is full or the flush interval elapses.
+ * Failed batches are retried, so delivery is at-least-once for everything that was enqueued.
+ * Entries still buffered when the process dies are lost; a clean shutdown writes them first.
+ * <p>
+ * Every batch, including the caller's own insert when the buffer is full, is written in a
+ * transaction of its own: the listener runs after the business transaction has committed, so
+ * joining it would leave the insert unflushed.
+ */
+@Service
+@Slf4j
+public class AuditService {
+
+    private final AuditEventRepository auditEventRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate newTransaction;
+
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong overflowWrites = new AtomicLong();
+    private final AtomicLong failedFlushes = new AtomicLong();
+
+    @Value("${audit.buffer-size}")
+    private int bufferSize;
+
+    @Value("${audit.batch-size}")
+    private int batchSize;
+
+    @Value("${audit.flush-interval}")
+    private long flushInterval;
+
+    private BlockingQueue<AuditEvent> buffer;
+    private Thread writer;
+    private volatile boolean running;
+
+    public AuditService(AuditEventRepository auditEventRepository, EntityManager entityManager,
+                        PlatformTransactionManager transactionManager) {
+        this.auditEventRepository = auditEventRepository;
+        this.entityManager = entityManager;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @PostConstruct
+    public void start() {
+        buffer = new ArrayBlockingQueue<>(bufferSize);
+        running = true;
+        writer = new Thread(this::writeLoop, "audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLoanEvent(LoanEvent event) {
+        record(new AuditEvent(null, event.getType().name(), event.getLoanId(), event.getRepaymentId(),
+                event.getEmployeeId(), event.getActorEmail(), event.getStatus().name(), event.getAmount(),
+                event.getOccurredAt(), null));
+    }
+
+    public void record(AuditEvent auditEvent) {
+        enqueued.incrementAndGet();
+        if (!buffer.offer(auditEvent)) {
+            // Never drop an entry: when the writer falls behind, the caller pays for the insert
+            overflowWrites.incrementAndGet();
+            if (!writeBatch(List.of(auditEvent))) {
+                // The change has already committed, so wait for room rather than fail the caller
+                putUninterruptibly(auditEvent);
+            }
+        }
+    }
+
+    // Only the given filters go into the query: "(:x is null or ...)" conditions keep H2 from using the indexes
+    public List<AuditEvent> search(Long loanId, String actor, LocalDateTime from, LocalDateTime to, int page, int size) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<AuditEvent> query = cb.createQuery(AuditEvent.class);
+        Root<AuditEvent> root = query.from(AuditEvent.class);
+        List<Predicate> where = new ArrayList<>();
+        if (loanId != null) {
+            where.add(cb.equal(root.get("loanId"), loanId));
+        }
+        if (actor != null) {
+            where.add(cb.equal(root.get("actor"), actor));
+        }
+        if (from != null) {
+            where.add(cb.greaterThanOrEqualTo(root.get("occurredAt"), from));
+        }
+        if (to != null) {
+            where.add(cb.lessThan(root.get("occurredAt"), to));
+        }
+        query.where(where.toArray(Predicate[]::new))
+                .orderBy(cb.desc(root.get("occurredAt")), cb.desc(root.get("id")));
+        return entityManager.createQuery(query)
+                .setFirstResult(page * size)
+                .setMaxResults(size)
+                .getResultList();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("buffered", buffer.size());
+        stats.put("bufferSize", bufferSize);
+        stats.put("enqueued", enqueued.get());
+        stats.put("written", written.get());
+        stats.put("overflowWrites", overflowWrites.get());
+        stats.put("failedFlushes", failedFlushes.get());
+        stats.put("total", auditEventRepository.count());
+        return stats;
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        writer.interrupt();
+        writer.join(flushInterval * 10);
+        List<AuditEvent> remaining = new ArrayList<>();
+        buffer.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            writeBatch(remaining);
+        }
+    }
+
+    private void writeLoop() {
+        List<AuditEvent> batch = new ArrayList<>(batchSize);
+        while (running || !batch.isEmpty()) {
+            try {
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushInterval);
+                while (batch.size() < batchSize) {
+                    long wait = deadline - System.nanoTime();
+                    AuditEvent next = wait > 0 ? buffer.poll(wait, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    buffer.drainTo(batch, batchSize - batch.size());
+                }
+            } catch (InterruptedException e) {
+                if (!running) {
+                    buffer.drainTo(batch);
+                }
+            }
+            if (!batch.isEmpty()) {
+                if (writeBatch(batch)) {
+                    batch = new ArrayList<>(batchSize);
+                } else if (running) {
+                    sleepQuietly(flushInterval);
+                } else {
+                    return;
+                }
+            }
+        }
+    }
+
+    private boolean writeBatch(List<AuditEvent> batch) {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            batch.forEach(auditEvent -> auditEvent.setRecordedAt(now));
+            newTransaction.executeWithoutResult(status -> auditEventRepository.saveAll(batch));
+            written.addAndGet(batch.size());
+            return true;
+        } catch (RuntimeException e) {
+            failedFlushes.incrementAndGet();
+            log.error("Failed to write {} audit events, will retry", batch.size(), e);
+            // The ids assigned by the failed attempt must not be reused for the retry
+            batch.forEach(auditEvent -> auditEvent.setId(null));
+            return false;
+        }
+    }
+
+    private void putUninterruptibly(AuditEvent auditEvent) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                buffer.put(auditEvent);
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.unilak.employeeloan.service;
+
+import com.unilak.employeeloan.config.ChangeSequenceTracker;
+import com.unilak.employeeloan.dto.ChangeFeedItem;
+import com.unilak.employeeloan.dto.ChangeFeedPage;
+import com.unilak.employeeloan.dto.CompactLoan;
+import com.unilak.employeeloan.dto.CompactRepayment;
+import com.unilak.employeeloan.model.LoanApplication;
+import com.unilak.employeeloan.model.Repayment;
+import com.unilak.employeeloan.repository.LoanApplicationRepository;
+import com.unilak.employeeloan.repository.RepaymentRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Incremental feed of loan application and repayment inserts and updates in change sequence
+ * order, so external systems can sync by asking for everything after the last token they saw.
+ * Each item carries the row's current state; a row changed several times appears once, at its
+ * latest position. Rows moved to the archive tables leave the feed without a delete marker.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ChangeFeedService {
+
+    private final ChangeSequenceTracker changeSequenceTracker;
+    private final LoanApplicationRepository loanApplicationRepository;
+    private final RepaymentRepository repaymentRepository;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${changes.max-limit}")
+    private int maxLimit;
+
+    // Reads go to the primary: the watermark only says what has committed there
+    @Transactional
+    public ChangeFeedPage getChanges(long since, int limit) {
+        if (since < 0) {
+            throw new IllegalArgumentException("since must not be negative");
+        }
+        if (limit < 1 || limit > maxLimit) {
+            throw new IllegalArgumentException("limit must be between 1 and " + maxLimit);
+        }
+        long upTo = changeSequenceTracker.watermark();
+        List<LoanApplication> loans = loanApplicationRepository.findChanges(since, upTo, PageRequest.of(0, limit));
+        List<Repayment> repayments = repaymentRepository.findChanges(since, upTo, PageRequest.of(0, limit));
+
+        List<ChangeFeedItem> changes = new ArrayList<>(Math.min(limit, loans.size() + repayments.size()));
+        int l = 0;
+        int r = 0;
+        while (changes.size() < limit && (l < loans.size() || r < repayments.size())) {
+            if (r == repayments.size()
+                    || (l < loans.size() && loans.get(l).getChangeSeq() < repayments.get(r).getChangeSeq())) {
+                LoanApplication loan = loans.get(l++);
+                changes.add(new ChangeFeedItem(loan.getChangeSeq(), ChangeFeedItem.Type.LOAN, CompactLoan.of(loan, false), null));
+            } else {
+                Repayment repayment = repayments.get(r++);
+                changes.add(new ChangeFeedItem(repayment.getChangeSeq(), ChangeFeedItem.Type.REPAYMENT, null,
+                        CompactRepayment.of(repayment)));
+            }
+        }
+        boolean hasMore = changes.size() == limit;
+        long resumeToken = hasMore ? changes.get(changes.size() - 1).getSeq() : Math.max(since, upTo);
+        return new ChangeFeedPage(changes, resumeToken, hasMore);
+    }
+
+    /**
+     * Gives rows written with plain JDBC (generated data) a place in the feed and moves the
+     * sequence past numbers restored from a snapshot. Runs after the startup data loaders.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        Long highest = jdbcTemplate.queryForObject("select greatest(coalesce((select max(change_seq) from loan_applications), 0), " +
+                "coalesce((select max(change_seq) from repayments), 0))", new MapSqlParameterSource(), Long.class);
+        changeSequenceTracker.advanceTo(highest);
+        long loans = backfill("loan_applications", "loan_id");
+        long repayments = backfill("repayments", "repayment_id");
+        if (loans + repayments > 0) {
+            log.info("Assigned change sequence numbers to {} loan applications and {} repayments", loans, repayments);
+        }
+    }
+
+    private long backfill(String table, String idColumn) {
+        Long maxId = jdbcTemplate.queryForObject("select max(" + idColumn + ") from " + table + " where change_seq is null",
+                new MapSqlParameterSource(), Long.class);
+        if (maxId == null) {
+            return 0;
+        }
+        // Ids are unique and positive, so base + id is a unique number inside the reserved range
+        long base = changeSequenceTracker.reserve(maxId);
+        try {
+            return transactionTemplate.execute(status -> jdbcTemplate.update("update " + table + " set change_seq = :base + " +
+                    idColumn + " where change_seq is null", new MapSqlParameterSource("base", base)));
+        } finally {
+            changeSequenceTracker.release(base);
+        }
+    }
+}
@@ -0,0 +1,398 @@
+package com.unilak.employeeloan.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.unilak.employeeloan.dto.EmployeeImportResult;
+import com.unilak.employeeloan.model.Employee;
+import com.unilak.employeeloan.repository.EmployeeRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Creates employees from a CSV or NDJSON upload of any size. The upload is read a batch at a time,
+ * and each batch is checked against existing emails with one query, has its passwords hashed on a
+ * fixed pool, is inserted with one JDBC batch and has its per-line results written out before the
+ * next batch is read, so memory use depends on the batch size rather than on the upload.
+ * <p>
+ * Each batch commits on its own: a failure part way through leaves the earlier batches in place,
+ * and the results already written say which lines those were.
+ */
+@Service
+@Slf4j
+public class EmployeeImportService {
+
+    public enum Format {
+        CSV, NDJSON
+    }
+
+    private static final List<String> CSV_COLUMNS = List.of("name", "email", "password", "department");
+    private static final String INSERT = "insert into employees (name, email, password, department) values (?, ?, ?, ?)";
+
+    private final EmployeeRepository employeeRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final SearchIndexService searchIndexService;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService hashers;
+
+    @Value("${employee-import.batch-size}")
+    private int batchSize;
+
+    public EmployeeImportService(EmployeeRepository employeeRepository, PasswordEncoder passwordEncoder,
+                                 SearchIndexService searchIndexService, Validator validator, ObjectMapper objectMapper,
+                                 JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                 @Value("${employee-import.hash-threads}") int hashThreads) {
+        this.employeeRepository = employeeRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.searchIndexService = searchIndexService;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        AtomicLong threadIds = new AtomicLong();
+        int threads = hashThreads > 0 ? hashThreads : Runtime.getRuntime().availableProcessors();
+        this.hashers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "password-hasher-" + threadIds.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hashers.shutdownNow();
+    }
+
+    /**
+     * Reads employees from {@code in} and writes one {@link EmployeeImportResult} per non-blank
+     * line to {@code out} as NDJSON. A CSV upload may start with a header naming its columns;
+     * without one they are name, email, password, department.
+     */
+    public void importEmployees(InputStream in, Format format, OutputStream out) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        RowReader rows = format == Format.CSV ? new CsvRowReader(reader) : new NdjsonRowReader(reader);
+        long started = System.nanoTime();
+        long[] counts = new long[EmployeeImportResult.Status.values().length];
+        List<Row> batch = new ArrayList<>(batchSize);
+        Row row;
+        while ((row = rows.next()) != null) {
+            batch.add(row);
+            if (batch.size() == batchSize) {
+                write(importBatch(batch), counts, out);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            write(importBatch(batch), counts, out);
+        }
+        log.info("Employee import finished in {} ms: {} created, {} duplicate, {} invalid",
+                (System.nanoTime() - started) / 1_000_000, counts[EmployeeImportResult.Status.CREATED.ordinal()],
+                counts[EmployeeImportResult.Status.DUPLICATE.ordinal()], counts[EmployeeImportResult.Status.INVALID.ordinal()]);
+    }
+
+    private List<EmployeeImportResult> importBatch(List<Row> rows) {
+        EmployeeImportResult[] results = new EmployeeImportResult[rows.size()];
+        Set<String> emails = new HashSet<>();
+        List<Integer> pending = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            Row row = rows.get(i);
+            String error = row.error() != null ? row.error() : violations(row.employee());
+            if (error != null) {
+                results[i] = result(row, EmployeeImportResult.Status.INVALID, error);
+            } else if (!emails.add(row.employee().getEmail())) {
+                results[i] = result(row, EmployeeImportResult.Status.DUPLICATE, "Email appears earlier in the import");
+            } else {
+                pending.add(i);
+            }
+        }
+
+        // Earlier batches are committed by now, so this also catches repeats further back in the upload
+        Set<String> existing = emails.isEmpty() ? Set.of() : employeeRepository.findExistingEmails(emails);
+        List<Employee> inserts = new ArrayList<>(pending.size());
+        List<Integer> insertIndexes = new ArrayList<>(pending.size());
+        for (int i : pending) {
+            if (existing.contains(rows.get(i).employee().getEmail())) {
+                results[i] = result(rows.get(i), EmployeeImportResult.Status.DUPLICATE, "Email already exists");
+            } else {
+                inserts.add(rows.get(i).employee());
+                insertIndexes.add(i);
+            }
+        }
+        hashPasswords(inserts);
+
+        List<Long> ids;
+        try {
+            ids = transactionTemplate.execute(status -> insert(inserts));
+        } catch (DataIntegrityViolationException e) {
+            // Someone else took one of the emails since the check; find out which, one row at a time
+            ids = new ArrayList<>(inserts.size());
+            for (Employee employee : inserts) {
+                try {
+                    ids.add(transactionTemplate.execute(status -> insert(List.of(employee))).get(0));
+                } catch (DataIntegrityViolationException duplicate) {
+                    ids.add(null);
+                }
+            }
+        }
+        for (int k = 0; k < inserts.size(); k++) {
+            Row row = rows.get(insertIndexes.get(k));
+            Long id = ids.get(k);
+            if (id == null) {
+                results[insertIndexes.get(k)] = result(row, EmployeeImportResult.Status.DUPLICATE, "Email already exists");
+                continue;
+            }
+            row.employee().setId(id);
+            searchIndexService.indexEmployee(row.employee());
+            results[insertIndexes.get(k)] = new EmployeeImportResult(row.line(), EmployeeImportResult.Status.CREATED, id,
+                    row.employee().getEmail(), null);
+        }
+        return List.of(results);
+    }
+
+    private void hashPasswords(List<Employee> employees) {
+        List<Future<String>> hashes = new ArrayList<>(employees.size());
+        for (Employee employee : employees) {
+            String password = employee.getPassword();
+            hashes.add(hashers.submit(() -> passwordEncoder.encode(password)));
+        }
+        try {
+            for (int i = 0; i < employees.size(); i++) {
+                employees.get(i).setPassword(hashes.get(i).get());
+            }
+        } catch (InterruptedException e) {
+            hashes.forEach(hash -> hash.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing passwords", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to hash a password", e.getCause());
+        }
+    }
+
+    private List<Long> insert(List<Employee> employees) {
+        if (employees.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.execute((ConnectionCallback<List<Long>>) connection -> {
+            try (PreparedStatement insert = connection.prepareStatement(INSERT, Statement.RETURN_GENERATED_KEYS)) {
+                for (Employee employee : employees) {
+                    insert.setString(1, employee.getName());
+                    insert.setString(2, employee.getEmail());
+                    insert.setString(3, employee.getPassword());
+                    insert.setString(4, employee.getDepartment());
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+                List<Long> ids = new ArrayList<>(employees.size());
+                try (ResultSet keys = insert.getGeneratedKeys()) {
+                    while (keys.next()) {
+                        ids.add(keys.getLong(1));
+                    }
+                }
+                if (ids.size() != employees.size()) {
+                    throw new IllegalStateException("Expected " + employees.size() + " generated ids, got " + ids.size());
+                }
+                return ids;
+            }
+        });
+    }
+
+    private String violations(Employee employee) {
+        Set<ConstraintViolation<Employee>> violations = validator.validate(employee);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    private void write(List<EmployeeImportResult> results, long[] counts, OutputStream out) throws IOException {
+        for (EmployeeImportResult result : results) {
+            counts[result.getStatus().ordinal()]++;
+            out.write(objectMapper.writeValueAsBytes(result));
+            out.write('\n');
+        }
+        out.flush();
+    }
+
+    private static EmployeeImportResult result(Row row, EmployeeImportResult.Status status, String error) {
+        return new EmployeeImportResult(row.line(), status, null, row.employee() == null ? null : row.employee().getEmail(), error);
+    }
+
+    private static Employee employee(String name, String email, String password, String department) {
+        Employee employee = new Employee();
+        employee.setName(blankToNull(name));
+        employee.setEmail(blankToNull(email));
+        employee.setPassword(blankToNull(password));
+        employee.setDepartment(blankToNull(department));
+        return employee;
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    // A parsed line: either an employee to validate or the reason it could not be read
+    private record Row(long line, Employee employee, String error) {
+    }
+
+    private interface RowReader {
+        // The next non-blank line, or null at the end of the upload
+        Row next() throws IOException;
+    }
+
+    private static final class CsvRowReader implements RowReader {
+        private final BufferedReader reader;
+        private long line;
+        private int[] columns;
+
+        private CsvRowReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public Row next() throws IOException {
+            String text;
+            while ((text = reader.readLine()) != null) {
+                line++;
+                if (text.isBlank()) {
+                    continue;
+                }
+                List<String> fields = split(text);
+                if (columns == null) {
+                    columns = header(fields);
+                    if (columns != null) {
+                        continue;
+                    }
+                    columns = new int[]{0, 1, 2, 3};
+                }
+                if (fields == null) {
+                    return new Row(line, null, "Unterminated quoted field");
+                }
+                return new Row(line, employee(field(fields, 0), field(fields, 1), field(fields, 2), field(fields, 3)), null);
+            }
+            return null;
+        }
+
+        private String field(List<String> fields, int column) {
+            int index = columns[column];
+            return index >= 0 && index < fields.size() ? fields.get(index) : null;
+        }
+
+        // Column positions from a header line, or null if the line is data
+        private static int[] header(List<String> fields) {
+            if (fields == null || !fields.stream().map(field -> field.trim().toLowerCase(Locale.ROOT)).toList().contains("email")) {
+                return null;
+            }
+            Map<String, Integer> positions = new HashMap<>();
+            for (int i = 0; i < fields.size(); i++) {
+                positions.putIfAbsent(fields.get(i).trim().toLowerCase(Locale.ROOT), i);
+            }
+            int[] columns = new int[CSV_COLUMNS.size()];
+            for (int c = 0; c < columns.length; c++) {
+                columns[c] = positions.getOrDefault(CSV_COLUMNS.get(c), -1);
+            }
+            return columns;
+        }
+
+        // RFC 4180 fields, with "" for a quote inside a quoted field; null if a quote is left open
+        private static List<String> split(String text) {
+            List<String> fields = new ArrayList<>(CSV_COLUMNS.size());
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (quoted) {
+                    if (c != '"') {
+                        field.append(c);
+                    } else if (i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            if (quoted) {
+                return null;
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+
+    private final class NdjsonRowReader implements RowReader {
+        private final BufferedReader reader;
+        private long line;
+
+        private NdjsonRowReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public Row next() throws IOException {
+            String text;
+            while ((text = reader.readLine()) != null) {
+                line++;
+                if (text.isBlank()) {
+                    continue;
+                }
+                JsonNode node;
+                try {
+                    node = objectMapper.readTree(text);
+                } catch (IOException e) {
+                    // The parser message would quote the line, password included
+                    return new Row(line, null, "Malformed JSON");
+                }
+                if (!node.isObject()) {
+                    return new Row(line, null, "Expected a JSON object");
+                }
+                return new Row(line, employee(node.path("name").asText(null), node.path("email").asText(null),
+                        node.path("password").asText(null), node.path("department").asText(null)), null);
+            }
+            return null;
+        }
+    }
+}
@@ -1,43 +1,105 @@
 package com.unilak.employeeloan.service;
 
+import com.unilak.employeeloan.dto.BatchGetResponse;
+import com.unilak.employeeloan.dto.EmployeeExposure;
 import com.unilak.employeeloan.exception.ResourceNotFoundException;
 import com.unilak.employeeloan.model.Employee;
+import com.unilak.employeeloan.repository.ArchivedLoanApplicationRepository;
 import com.unilak.employeeloan.repository.EmployeeRepository;
+import com.unilak.employeeloan.repository.SparseFieldQuery;
 import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 public class EmployeeService {
 
+    private static final Set<String> STAFF_ROLES = Set.of("ROLE_ADMIN", "ROLE_LOAN_OFFICER");
+
     private final EmployeeRepository employeeRepository;
+    private final ArchivedLoanApplicationRepository archivedLoanApplicationRepository;
     private final PasswordEncoder passwordEncoder;
+    private final ExposureService exposureService;
+    private final SearchIndexService searchIndexService;
+    private final VersionStampService versionStampService;
+    private final SparseFieldQuery sparseFieldQuery;
 
+    @Transactional(readOnly = true)
     public List<Employee> getAllEmployees() {
         return employeeRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
     public Employee getEmployeeById(Long id) {
         return employeeRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Employee", "id", id));
     }
 
+    /**
+     * Looks up a batch of employees in one query. Admins and loan officers see every employee;
+     * anyone else only their own record.
+     */
+    @Transactional(readOnly = true)
+    public BatchGetResponse<Employee> getEmployeesByIds(List<Long> ids) {
+        Set<Long> wanted = new LinkedHashSet<>(ids);
+        Map<Long, Employee> found = new HashMap<>();
+        employeeRepository.findAllById(wanted).forEach(employee -> found.put(employee.getId(), employee));
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        boolean staff = auth.getAuthorities().stream().map(GrantedAuthority::getAuthority)
+                .anyMatch(STAFF_ROLES::contains);
+        return BatchGetResponse.of(wanted, found, employee -> staff || employee.getEmail().equals(auth.getName()));
+    }
+
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getAllEmployees(String fields) {
+        return sparseFieldQuery.find(SparseFieldQuery.EMPLOYEES, fields, q -> null, false);
+    }
+
+    @Transactional(readOnly = true)
+    public Map<String, Object> getEmployeeById(Long id, String fields) {
+        List<Map<String, Object>> rows = sparseFieldQuery.find(SparseFieldQuery.EMPLOYEES, fields,
+                q -> q.cb().equal(q.root().get("id"), id), false);
+        if (rows.isEmpty()) {
+            throw new ResourceNotFoundException("Employee", "id", id);
+        }
+        return rows.get(0);
+    }
+
+    @Transactional(readOnly = true)
     public Employee getEmployeeByEmail(String email) {
         return employeeRepository.findByEmail(email)
                 .orElseThrow(() -> new ResourceNotFoundException("Employee", "email", email));
     }
 
+    // Not readOnly: a cache miss must read from the primary, or a lagging replica could be cached
+    @Transactional
+    public EmployeeExposure getEmployeeExposure(Long id) {
+        return exposureService.getExposure(getEmployeeById(id).getId());
+    }
+
+    @Transactional
     public Employee createEmployee(Employee employee) {
         if (employeeRepository.existsByEmail(employee.getEmail())) {
             throw new IllegalArgumentException("Email already exists");
         }
         employee.setPassword(passwordEncoder.encode(employee.getPassword()));
-        return employeeRepository.save(employee);
+        Employee savedEmployee = employeeRepository.save(employee);
+        searchIndexService.indexEmployee(savedEmployee);
+        return savedEmployee;
     }
 
+    @Transactional
     public Employee updateEmployee(Long id, Employee updatedEmployee) {
         Employee employee = getEmployeeById(id);
         employee.setName(updatedEmployee.getName());
@@ -45,10 +107,19 @@ public class EmployeeService {
         if (updatedEmployee.getPassword() != null && !updatedEmployee.getPassword().isEmpty()) {
             employee.setPassword(passwordEncoder.encode(updatedEmployee.getPassword()));
         }
-        return employeeRepository.save(employee);
+        Employee savedEmployee = employeeRepository.save(employee);
+        searchIndexService.indexEmployee(savedEmployee);
+        versionStampService.loansChanged(savedEmployee.getEmail());
+        return savedEmployee;
     }
 
+    @Transactional
     public void deleteEmployee(Long id) {
+        employeeRepository.findById(id).ifPresent(employee -> versionStampService.loansChanged(employee.getEmail()));
+        archivedLoanApplicationRepository.deleteRepaymentsByEmployeeId(id);
+        archivedLoanApplicationRepository.deleteByEmployeeId(id);
         employeeRepository.deleteById(id);
+        exposureService.onEmployeeDeleted(id);
+        searchIndexService.removeEmployee(id);
     }
 }
@@ -0,0 +1,163 @@
+package com.unilak.employeeloan.service;
+
+import com.unilak.employeeloan.dto.EmployeeExposure;
+import com.unilak.employeeloan.model.EmployeeExposureTotals;
+import com.unilak.employeeloan.model.LoanApplication;
+import com.unilak.employeeloan.repository.EmployeeExposureTotalsRepository;
+import com.unilak.employeeloan.repository.LoanApplicationRepository;
+import com.unilak.employeeloan.repository.RepaymentRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps a per-employee aggregate of APPROVED loans (count and outstanding balance) so that
+ * eligibility checks do not have to load an employee's loan history. The aggregate is a row in
+ * employee_exposure, adjusted in the same transaction as each approval, repayment and completion,
+ * so it commits or rolls back with the change. Approvals lock the row before checking the limits,
+ * which keeps two concurrent approvals for one employee from both passing.
+ * <p>
+ * Reads at application time go through an in-memory copy of the row, dropped after every change
+ * commits. That check is advisory; the one at approval is the one that holds.
+ */
+@Service
+public class ExposureService {
+
+    private final EmployeeExposureTotalsRepository totalsRepository;
+    private final LoanApplicationRepository loanApplicationRepository;
+    private final RepaymentRepository repaymentRepository;
+    private final TransactionTemplate newTransaction;
+
+    private final Map<Long, CachedExposure> cache = new ConcurrentHashMap<>();
+
+    @Value("${loan.exposure.max-active-loans}")
+    private long maxActiveLoans;
+
+    @Value("${loan.exposure.max-total-outstanding}")
+    private BigDecimal maxTotalOutstanding;
+
+    @Value("${loan.exposure.cache-ttl}")
+    private long cacheTtl;
+
+    public ExposureService(EmployeeExposureTotalsRepository totalsRepository,
+                           LoanApplicationRepository loanApplicationRepository,
+                           RepaymentRepository repaymentRepository,
+                           PlatformTransactionManager transactionManager) {
+        this.totalsRepository = totalsRepository;
+        this.loanApplicationRepository = loanApplicationRepository;
+        this.repaymentRepository = repaymentRepository;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public EmployeeExposure getExposure(Long employeeId) {
+        long now = System.currentTimeMillis();
+        CachedExposure cached = cache.get(employeeId);
+        if (cached == null || now - cached.loadedAt() > cacheTtl) {
+            cached = cache.compute(employeeId, (id, current) ->
+                    current != null && now - current.loadedAt() <= cacheTtl ? current : new CachedExposure(read(id), now));
+        }
+        return cached.exposure();
+    }
+
+    public void checkEligibility(Long employeeId, BigDecimal requestedAmount) {
+        check(getExposure(employeeId), requestedAmount);
+    }
+
+    /**
+     * Checks the limits against the locked aggregate and counts the loan in it. Must run in the
+     * approving transaction, which then holds the row until it commits.
+     */
+    public void approve(LoanApplication loan) {
+        Long employeeId = loan.getEmployee().getId();
+        EmployeeExposureTotals totals = totalsRepository.lockByEmployeeId(employeeId).orElse(null);
+        if (totals == null) {
+            initialize(employeeId);
+            totals = totalsRepository.lockByEmployeeId(employeeId).orElseThrow();
+        }
+        check(toExposure(totals), loan.getAmount());
+        totals.setActiveLoans(totals.getActiveLoans() + 1);
+        totals.setTotalOutstanding(totals.getTotalOutstanding().add(loan.getAmount()));
+        evict(employeeId);
+    }
+
+    // Loans are only completed at a zero balance, so completion just takes the loan out of the count
+    public void onRepaymentPosted(LoanApplication loan, BigDecimal amountPaid, boolean completesLoan) {
+        adjust(loan.getEmployee().getId(), completesLoan ? -1 : 0, amountPaid.negate());
+    }
+
+    public void onLoanCompleted(LoanApplication loan) {
+        adjust(loan.getEmployee().getId(), -1, BigDecimal.ZERO);
+    }
+
+    public void onEmployeeDeleted(Long employeeId) {
+        totalsRepository.deleteByEmployeeId(employeeId);
+        evict(employeeId);
+    }
+
+    /**
+     * Drops the employee's cached copy once the current transaction commits. A read that is still
+     * running holds the entry's lock in compute, so the removal waits for it and discards whatever
+     * it read, whether that was before or after the commit.
+     */
+    private void evict(Long employeeId) {
+        AfterCommit.run(() -> cache.remove(employeeId));
+    }
+
+    private void adjust(Long employeeId, long loansDelta, BigDecimal outstandingDelta) {
+        if (totalsRepository.adjust(employeeId, loansDelta, outstandingDelta) == 0) {
+            initialize(employeeId);
+            totalsRepository.adjust(employeeId, loansDelta, outstandingDelta);
+        }
+        evict(employeeId);
+    }
+
+    private void check(EmployeeExposure exposure, BigDecimal requestedAmount) {
+        if (exposure.getActiveLoans() >= maxActiveLoans) {
+            throw new IllegalStateException("Employee already has the maximum of " + maxActiveLoans + " active loans");
+        }
+        if (exposure.getTotalOutstanding().add(requestedAmount).compareTo(maxTotalOutstanding) > 0) {
+            throw new IllegalArgumentException("Loan amount exceeds the employee's remaining exposure limit of "
+                    + maxTotalOutstanding.subtract(exposure.getTotalOutstanding()));
+        }
+    }
+
+    private EmployeeExposure read(Long employeeId) {
+        return toExposure(totalsRepository.findById(employeeId).orElseGet(() -> {
+            initialize(employeeId);
+            return totalsRepository.findById(employeeId).orElseThrow();
+        }));
+    }
+
+    /**
+     * Creates the row from the employee's committed loans. It runs in its own transaction, so the
+     * caller's uncommitted change is left out and is then applied to the row like any other.
+     */
+    private void initialize(Long employeeId) {
+        try {
+            newTransaction.executeWithoutResult(status -> {
+                LoanApplication.LoanStatus approved = LoanApplication.LoanStatus.APPROVED;
+                long activeLoans = loanApplicationRepository.countByEmployeeIdAndStatus(employeeId, approved);
+                BigDecimal borrowed = loanApplicationRepository.sumAmountByEmployeeIdAndStatus(employeeId, approved);
+                BigDecimal repaid = repaymentRepository.sumAmountPaidByEmployeeIdAndLoanStatus(employeeId, approved);
+                totalsRepository.insertIfAbsent(employeeId, activeLoans, borrowed.subtract(repaid));
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Created concurrently from the same committed loans
+        }
+    }
+
+    private static EmployeeExposure toExposure(EmployeeExposureTotals totals) {
+        return new EmployeeExposure(totals.getEmployeeId(), totals.getActiveLoans(), totals.getTotalOutstanding());
+    }
+
+    private record CachedExposure(EmployeeExposure exposure, long loadedAt) {
+    }
+}
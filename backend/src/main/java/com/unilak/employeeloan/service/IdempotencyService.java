@@ -0,0 +1,131 @@
+package com.unilak.employeeloan.service;
+
+import com.unilak.employeeloan.model.IdempotencyRecord;
+import com.unilak.employeeloan.repository.IdempotencyRecordRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stores the response for each Idempotency-Key so that retried submissions are answered from the
+ * store instead of being executed again. A key is reserved with a committed row before its request
+ * runs, so duplicates wait for it (or find its response) on any instance. The response is written
+ * to that row in the request's own transaction, so a change and its stored response commit
+ * together: a crash in between leaves neither, and the key can be retried once the owner's lease
+ * has run out.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class IdempotencyService {
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+
+    private final AtomicLong executed = new AtomicLong();
+    private final AtomicLong replayed = new AtomicLong();
+    private final AtomicLong waited = new AtomicLong();
+    private final AtomicLong mismatches = new AtomicLong();
+    private final AtomicLong takenOver = new AtomicLong();
+
+    @Value("${idempotency.ttl}")
+    private long ttl;
+
+    @Value("${idempotency.lease}")
+    private long lease;
+
+    public Optional<IdempotencyRecord> find(String scopedKey) {
+        return idempotencyRecordRepository.findById(scopedKey);
+    }
+
+    /**
+     * Claims an unused key for a new execution. Returns the owner token to complete it with, or
+     * null if another request reserved the key first.
+     */
+    public String reserve(String scopedKey, String requestHash) {
+        String owner = UUID.randomUUID().toString();
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            int reserved = idempotencyRecordRepository.reserve(scopedKey, requestHash, owner,
+                    now.plus(Duration.ofMillis(lease)), now, now.plus(Duration.ofMillis(ttl)));
+            return reserved == 1 ? owner : null;
+        } catch (DataIntegrityViolationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Claims a key whose owner's lease has run out. Nothing it did was committed, because its
+     * changes only commit together with its response. Returns null if the key was not claimable.
+     */
+    public String takeOver(String scopedKey) {
+        String owner = UUID.randomUUID().toString();
+        LocalDateTime now = LocalDateTime.now();
+        if (idempotencyRecordRepository.takeOver(scopedKey, owner, now.plus(Duration.ofMillis(lease)), now) == 0) {
+            return null;
+        }
+        takenOver.incrementAndGet();
+        log.warn("Took over idempotency key {} after its lease ran out", scopedKey);
+        return owner;
+    }
+
+    /**
+     * Stores the response, in the caller's transaction if there is one. Returns false if the key no
+     * longer belongs to this owner, in which case that transaction must not commit.
+     */
+    public boolean complete(String scopedKey, String owner, int status, String contentType, byte[] body) {
+        executed.incrementAndGet();
+        LocalDateTime expiresAt = LocalDateTime.now().plus(Duration.ofMillis(ttl));
+        return idempotencyRecordRepository.complete(scopedKey, owner, status, contentType, body, expiresAt) == 1;
+    }
+
+    // For a request that ended without a response to store; the key can be used again straight away
+    public void release(String scopedKey, String owner) {
+        idempotencyRecordRepository.release(scopedKey, owner);
+    }
+
+    public void discardExpired(String scopedKey) {
+        idempotencyRecordRepository.deleteExpired(scopedKey, LocalDateTime.now());
+    }
+
+    public void recordReplay(boolean afterWaiting) {
+        replayed.incrementAndGet();
+        if (afterWaiting) {
+            waited.incrementAndGet();
+        }
+    }
+
+    public void recordMismatch() {
+        mismatches.incrementAndGet();
+    }
+
+    @Scheduled(fixedRateString = "${idempotency.purge-interval}")
+    public void purgeExpired() {
+        int purged = idempotencyRecordRepository.deleteExpired(LocalDateTime.now());
+        if (purged > 0) {
+            log.debug("Purged {} expired idempotency keys", purged);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("inFlight", idempotencyRecordRepository.countByStatusIsNull());
+        stats.put("stored", idempotencyRecordRepository.count());
+        stats.put("executed", executed.get());
+        stats.put("replayed", replayed.get());
+        stats.put("waitedForOriginal", waited.get());
+        stats.put("payloadMismatches", mismatches.get());
+        stats.put("takenOver", takenOver.get());
+        return stats;
+    }
+}
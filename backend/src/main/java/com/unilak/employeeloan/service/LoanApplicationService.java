@@ -1,57 +1,190 @@
 package com.unilak.employeeloan.service;
 
+import com.unilak.employeeloan.dto.BatchGetResponse;
 import com.unilak.employeeloan.dto.LoanApplicationRequest;
+import com.unilak.employeeloan.dto.StatusTotals;
+import com.unilak.employeeloan.event.LoanEvent;
 import com.unilak.employeeloan.exception.ResourceNotFoundException;
+import com.unilak.employeeloan.model.ArchivedLoanApplication;
 import com.unilak.employeeloan.model.LoanApplication;
 import com.unilak.employeeloan.model.LoanType;
 import com.unilak.employeeloan.model.Employee;
 import com.unilak.employeeloan.model.LoanOfficer;
+import com.unilak.employeeloan.repository.ArchivedLoanApplicationRepository;
 import com.unilak.employeeloan.repository.EmployeeRepository;
 import com.unilak.employeeloan.repository.LoanApplicationRepository;
 import com.unilak.employeeloan.repository.LoanOfficerRepository;
 import com.unilak.employeeloan.repository.LoanTypeRepository;
+import com.unilak.employeeloan.repository.SparseFieldQuery;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 public class LoanApplicationService {
 
+    private static final Set<String> STAFF_ROLES = Set.of("ROLE_ADMIN", "ROLE_LOAN_OFFICER", "ROLE_ACCOUNTANT");
+
     private final LoanApplicationRepository loanApplicationRepository;
+    private final ArchivedLoanApplicationRepository archivedLoanApplicationRepository;
     private final LoanTypeRepository loanTypeRepository;
     private final EmployeeRepository employeeRepository;
     private final LoanOfficerRepository loanOfficerRepository;
+    private final ExposureService exposureService;
+    private final SearchIndexService searchIndexService;
+    private final VersionStampService versionStampService;
+    private final WorkQueueService workQueueService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SparseFieldQuery sparseFieldQuery;
 
+    @Transactional(readOnly = true)
     public List<LoanApplication> getAllLoans() {
-        return loanApplicationRepository.findAll();
+        return withArchived(loanApplicationRepository.findAll(), archivedLoanApplicationRepository.findAllWithRepayments());
     }
 
+    @Transactional(readOnly = true)
     public List<LoanApplication> getMyLoans() {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         String email = auth.getName();
         Employee employee = employeeRepository.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("Employee not found"));
-        return loanApplicationRepository.findByEmployeeId(employee.getId());
+        return getLoansByEmployee(employee.getId());
     }
 
+    @Transactional(readOnly = true)
     public List<LoanApplication> getLoansByEmployee(Long employeeId) {
-        return loanApplicationRepository.findByEmployeeId(employeeId);
+        return withArchived(loanApplicationRepository.findByEmployeeId(employeeId),
+                archivedLoanApplicationRepository.findByEmployeeId(employeeId));
     }
 
+    @Transactional(readOnly = true)
     public List<LoanApplication> getLoansByStatus(LoanApplication.LoanStatus status) {
-        return loanApplicationRepository.findByStatus(status);
+        List<LoanApplication> loans = loanApplicationRepository.findByStatus(status);
+        // Only closed applications are ever archived
+        if (status == LoanApplication.LoanStatus.COMPLETED || status == LoanApplication.LoanStatus.REJECTED) {
+            return withArchived(loans, archivedLoanApplicationRepository.findByStatus(status));
+        }
+        return loans;
     }
 
+    @Transactional(readOnly = true)
     public LoanApplication getLoanById(Long id) {
         return loanApplicationRepository.findById(id)
+                .or(() -> archivedLoanApplicationRepository.findWithRepaymentsByLoanId(id)
+                        .map(ArchivedLoanApplication::toLoanApplication))
                 .orElseThrow(() -> new ResourceNotFoundException("LoanApplication", "id", id));
     }
 
+    // For write paths: an archived loan comes back as a detached copy, which save() would insert again
+    private LoanApplication getLiveLoanById(Long id) {
+        return loanApplicationRepository.findById(id).orElseThrow(() -> archivedLoanApplicationRepository.existsById(id)
+                ? new IllegalStateException("Loan " + id + " is archived and can no longer be changed")
+                : new ResourceNotFoundException("LoanApplication", "id", id));
+    }
+
+    /**
+     * Looks up a batch of loans, live and archived, in one query each. Staff see every loan; an
+     * employee only their own, and gets FORBIDDEN entries for the rest.
+     */
+    @Transactional(readOnly = true)
+    public BatchGetResponse<LoanApplication> getLoansByIds(List<Long> ids) {
+        Set<Long> wanted = new LinkedHashSet<>(ids);
+        Map<Long, LoanApplication> found = new HashMap<>();
+        loanApplicationRepository.findAllById(wanted).forEach(loan -> found.put(loan.getLoanId(), loan));
+        if (found.size() < wanted.size()) {
+            List<Long> missing = wanted.stream().filter(id -> !found.containsKey(id)).toList();
+            archivedLoanApplicationRepository.findWithRepaymentsByLoanIdIn(missing)
+                    .forEach(archived -> found.put(archived.getLoanId(), archived.toLoanApplication()));
+        }
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        boolean staff = auth.getAuthorities().stream().map(GrantedAuthority::getAuthority)
+                .anyMatch(STAFF_ROLES::contains);
+        return BatchGetResponse.of(wanted, found, loan -> staff || loan.getEmployee().getEmail().equals(auth.getName()));
+    }
+
+    // Sparse counterparts of the reads above for "fields=" requests: only the requested columns,
+    // straight from a tuple query, with no entities loaded
+
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getAllLoans(String fields) {
+        return sparseFieldQuery.find(SparseFieldQuery.LOANS, fields, q -> null, true);
+    }
+
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getMyLoans(String fields) {
+        String email = SecurityContextHolder.getContext().getAuthentication().getName();
+        Employee employee = employeeRepository.findByEmail(email)
+                .orElseThrow(() -> new ResourceNotFoundException("Employee", "email", email));
+        return getLoansByEmployee(employee.getId(), fields);
+    }
+
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getLoansByEmployee(Long employeeId, String fields) {
+        return sparseFieldQuery.find(SparseFieldQuery.LOANS, fields,
+                q -> q.cb().equal(q.root().get("employee").get("id"), employeeId), true);
+    }
+
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getLoansByStatus(LoanApplication.LoanStatus status, String fields) {
+        return sparseFieldQuery.find(SparseFieldQuery.LOANS, fields, q -> q.cb().equal(q.root().get("status"), status),
+                status == LoanApplication.LoanStatus.COMPLETED || status == LoanApplication.LoanStatus.REJECTED);
+    }
+
+    @Transactional(readOnly = true)
+    public Map<String, Object> getLoanById(Long id, String fields) {
+        List<Map<String, Object>> rows = sparseFieldQuery.find(SparseFieldQuery.LOANS, fields,
+                q -> q.cb().equal(q.root().get("loanId"), id), true);
+        if (rows.isEmpty()) {
+            throw new ResourceNotFoundException("LoanApplication", "id", id);
+        }
+        return rows.get(0);
+    }
+
+    /**
+     * Loan counts and amounts per status across the live and archive tables, computed in the
+     * database rather than by loading every application.
+     */
+    @Transactional(readOnly = true)
+    public Map<LoanApplication.LoanStatus, StatusTotals> getStatusTotals() {
+        Map<LoanApplication.LoanStatus, StatusTotals> totals = new EnumMap<>(LoanApplication.LoanStatus.class);
+        for (LoanApplication.LoanStatus status : LoanApplication.LoanStatus.values()) {
+            totals.put(status, new StatusTotals(status, 0, BigDecimal.ZERO));
+        }
+        for (StatusTotals row : loanApplicationRepository.summarizeByStatus()) {
+            totals.merge(row.getStatus(), row, StatusTotals::add);
+        }
+        for (StatusTotals row : archivedLoanApplicationRepository.summarizeByStatus()) {
+            totals.merge(row.getStatus(), row, StatusTotals::add);
+        }
+        return totals;
+    }
+
+    private List<LoanApplication> withArchived(List<LoanApplication> loans, List<ArchivedLoanApplication> archived) {
+        if (archived.isEmpty()) {
+            return loans;
+        }
+        List<LoanApplication> all = new ArrayList<>(loans.size() + archived.size());
+        all.addAll(loans);
+        archived.forEach(loan -> all.add(loan.toLoanApplication()));
+        return all;
+    }
+
+    @Transactional
     public LoanApplication createLoanApplication(LoanApplicationRequest request) {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         String email = auth.getName();
@@ -66,6 +199,8 @@ public class LoanApplicationService {
             throw new IllegalArgumentException("Loan amount exceeds maximum allowed for this loan type");
         }
 
+        exposureService.checkEligibility(employee.getId(), request.getAmount());
+
         LoanApplication loanApplication = new LoanApplication();
         loanApplication.setEmployee(employee);
         loanApplication.setLoanType(loanType);
@@ -74,52 +209,83 @@ public class LoanApplicationService {
         loanApplication.setApplicationDate(LocalDate.now());
         loanApplication.setStatus(LoanApplication.LoanStatus.PENDING);
 
-        return loanApplicationRepository.save(loanApplication);
+        LoanApplication savedLoan = loanApplicationRepository.save(loanApplication);
+        searchIndexService.indexLoan(savedLoan);
+        versionStampService.loansChanged(employee.getEmail());
+        eventPublisher.publishEvent(LoanEvent.of(LoanEvent.Type.LOAN_SUBMITTED, savedLoan, email));
+        return savedLoan;
     }
 
+    @Transactional
     public LoanApplication approveLoan(Long loanId) {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         String email = auth.getName();
         LoanOfficer loanOfficer = loanOfficerRepository.findByEmail(email)
                 .orElseThrow(() -> new ResourceNotFoundException("LoanOfficer", "email", email));
 
-        LoanApplication loan = getLoanById(loanId);
+        LoanApplication loan = getLiveLoanById(loanId);
         
         // Validation: Can only approve PENDING loans
         if (loan.getStatus() != LoanApplication.LoanStatus.PENDING) {
             throw new IllegalStateException("Can only approve loans with PENDING status. Current status: " + loan.getStatus());
         }
+        workQueueService.checkAndClearLease(loan, loanOfficer);
+
+        // Other applications may have been approved since this one was submitted
+        exposureService.approve(loan);
         
         loan.setStatus(LoanApplication.LoanStatus.APPROVED);
         loan.setApprovedDate(LocalDate.now());
         loan.setLoanOfficer(loanOfficer);
-        return loanApplicationRepository.save(loan);
+        LoanApplication savedLoan = loanApplicationRepository.save(loan);
+        searchIndexService.indexLoan(savedLoan);
+        versionStampService.loansChanged(savedLoan.getEmployee().getEmail());
+        eventPublisher.publishEvent(LoanEvent.of(LoanEvent.Type.LOAN_APPROVED, savedLoan, email));
+        return savedLoan;
     }
 
+    @Transactional
     public LoanApplication rejectLoan(Long loanId, String rejectionReason) {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         String email = auth.getName();
         LoanOfficer loanOfficer = loanOfficerRepository.findByEmail(email)
                 .orElseThrow(() -> new ResourceNotFoundException("LoanOfficer", "email", email));
 
-        LoanApplication loan = getLoanById(loanId);
+        LoanApplication loan = getLiveLoanById(loanId);
         
         // Validation: Can only reject PENDING loans
         if (loan.getStatus() != LoanApplication.LoanStatus.PENDING) {
             throw new IllegalStateException("Can only reject loans with PENDING status. Current status: " + loan.getStatus());
         }
+        workQueueService.checkAndClearLease(loan, loanOfficer);
         
         loan.setStatus(LoanApplication.LoanStatus.REJECTED);
+        loan.setClosedDate(LocalDate.now());
         loan.setLoanOfficer(loanOfficer);
         loan.setRejectionReason(rejectionReason != null ? rejectionReason : "No reason provided");
-        return loanApplicationRepository.save(loan);
+        LoanApplication savedLoan = loanApplicationRepository.save(loan);
+        searchIndexService.indexLoan(savedLoan);
+        versionStampService.loansChanged(savedLoan.getEmployee().getEmail());
+        eventPublisher.publishEvent(LoanEvent.of(LoanEvent.Type.LOAN_REJECTED, savedLoan, email));
+        return savedLoan;
     }
 
+    @Transactional
     public LoanApplication completeLoan(Long loanId) {
-        LoanApplication loan = getLoanById(loanId);
+        LoanApplication loan = getLiveLoanById(loanId);
+        if (loan.getStatus() != LoanApplication.LoanStatus.APPROVED) {
+            throw new IllegalStateException("Can only complete loans with APPROVED status. Current status: " + loan.getStatus());
+        }
         if (loan.getOutstandingBalance().compareTo(java.math.BigDecimal.ZERO) == 0) {
             loan.setStatus(LoanApplication.LoanStatus.COMPLETED);
-            return loanApplicationRepository.save(loan);
+            loan.setClosedDate(LocalDate.now());
+            LoanApplication savedLoan = loanApplicationRepository.save(loan);
+            exposureService.onLoanCompleted(savedLoan);
+            searchIndexService.indexLoan(savedLoan);
+            versionStampService.loansChanged(savedLoan.getEmployee().getEmail());
+            String actor = SecurityContextHolder.getContext().getAuthentication().getName();
+            eventPublisher.publishEvent(LoanEvent.of(LoanEvent.Type.LOAN_COMPLETED, savedLoan, actor));
+            return savedLoan;
         }
         throw new IllegalStateException("Cannot complete loan with outstanding balance");
     }
@@ -0,0 +1,130 @@
+package com.unilak.employeeloan.service;
+
+import com.unilak.employeeloan.model.LoanApplication;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Moves COMPLETED and REJECTED applications closed longer than the retention period, with their
+ * repayments, into the archive tables. Each chunk is copied and deleted in its own transaction,
+ * so a failure leaves every loan either fully hot or fully archived and the job can simply be
+ * run again. Reads union the archive back in where history is needed.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LoanArchiveService {
+
+    private static final List<String> CLOSED_STATUSES =
+            List.of(LoanApplication.LoanStatus.COMPLETED.name(), LoanApplication.LoanStatus.REJECTED.name());
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong archivedLoans = new AtomicLong();
+    private final AtomicLong archivedRepayments = new AtomicLong();
+    private volatile LocalDateTime lastRunAt;
+
+    @Value("${loan.archive.enabled}")
+    private boolean enabled;
+
+    @Value("${loan.archive.retention-months}")
+    private int retentionMonths;
+
+    @Value("${loan.archive.chunk-size}")
+    private int chunkSize;
+
+    @Scheduled(cron = "${loan.archive.cron}")
+    public void scheduledArchive() {
+        if (enabled) {
+            archive();
+        }
+    }
+
+    public Map<String, Object> archive() {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("Archival is already running");
+        }
+        try {
+            long start = System.currentTimeMillis();
+            LocalDate cutoff = LocalDate.now().minusMonths(retentionMonths);
+            long loans = 0;
+            long repayments = 0;
+            while (true) {
+                List<Long> chunk = findArchivable(cutoff);
+                if (chunk.isEmpty()) {
+                    break;
+                }
+                int[] moved = transactionTemplate.execute(status -> moveChunk(chunk));
+                loans += moved[0];
+                repayments += moved[1];
+            }
+            archivedLoans.addAndGet(loans);
+            archivedRepayments.addAndGet(repayments);
+            lastRunAt = LocalDateTime.now();
+            log.info("Archived {} loan applications and {} repayments closed before {} in {} ms",
+                    loans, repayments, cutoff, System.currentTimeMillis() - start);
+
+            Map<String, Object> result = new HashMap<>();
+            result.put("cutoff", cutoff);
+            result.put("archivedLoans", loans);
+            result.put("archivedRepayments", repayments);
+            result.put("durationMs", System.currentTimeMillis() - start);
+            return result;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("running", running.get());
+        stats.put("retentionMonths", retentionMonths);
+        stats.put("archivedLoans", archivedLoans.get());
+        stats.put("archivedRepayments", archivedRepayments.get());
+        stats.put("lastRunAt", lastRunAt);
+        return stats;
+    }
+
+    private List<Long> findArchivable(LocalDate cutoff) {
+        // Rows from before closedDate existed fall back to the last date they carry
+        return jdbcTemplate.queryForList("select loan_id from loan_applications where status in (:statuses) " +
+                        "and coalesce(closed_date, approved_date, application_date) < :cutoff " +
+                        "order by loan_id fetch first :limit rows only",
+                new MapSqlParameterSource("statuses", CLOSED_STATUSES)
+                        .addValue("cutoff", cutoff)
+                        .addValue("limit", chunkSize),
+                Long.class);
+    }
+
+    private int[] moveChunk(List<Long> loanIds) {
+        MapSqlParameterSource params = new MapSqlParameterSource("ids", loanIds)
+                .addValue("now", LocalDateTime.now());
+        int loans = jdbcTemplate.update("insert into loan_applications_archive (loan_id, employee_id, loan_type_id, " +
+                "amount, status, application_date, approved_date, closed_date, officer_id, remarks, rejection_reason, " +
+                "archived_at) select loan_id, employee_id, loan_type_id, amount, status, application_date, " +
+                "approved_date, closed_date, officer_id, remarks, rejection_reason, :now " +
+                "from loan_applications where loan_id in (:ids)", params);
+        int repayments = jdbcTemplate.update("insert into repayments_archive (repayment_id, loan_id, accountant_id, " +
+                "amount_paid, payment_date, balance, bank_ref) select repayment_id, loan_id, accountant_id, amount_paid, " +
+                "payment_date, balance, bank_ref from repayments where loan_id in (:ids)", params);
+        jdbcTemplate.update("delete from repayments where loan_id in (:ids)", params);
+        jdbcTemplate.update("delete from loan_applications where loan_id in (:ids)", params);
+        return new int[]{loans, repayments};
+    }
+}
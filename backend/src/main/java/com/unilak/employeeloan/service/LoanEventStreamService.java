@@ -0,0 +1,258 @@
+package com.unilak.employeeloan.service;
+
+import com.unilak.employeeloan.event.LoanEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Pushes {@link LoanEvent}s to dashboards over Server-Sent Events. Emitters are async requests,
+ * so idle subscribers hold no thread; each one has a bounded buffer drained by a small shared
+ * pool, and a subscriber whose buffer overflows is disconnected rather than slowing the rest.
+ * <p>
+ * A send is a blocking socket write, so a stalled client can also hold a sender thread. A send
+ * still running after events.stream.send-timeout gets its subscriber disconnected, and the pool
+ * gets an extra thread until the write gives up. Stalled clients never leave the others short of
+ * senders.
+ */
+@Service
+@Slf4j
+public class LoanEventStreamService {
+
+    private static final Set<LoanEvent.Type> OFFICER_EVENTS =
+            EnumSet.of(LoanEvent.Type.LOAN_SUBMITTED, LoanEvent.Type.LOAN_APPROVED, LoanEvent.Type.LOAN_REJECTED);
+    private static final Set<LoanEvent.Type> ACCOUNTANT_EVENTS =
+            EnumSet.of(LoanEvent.Type.LOAN_APPROVED, LoanEvent.Type.LOAN_COMPLETED, LoanEvent.Type.REPAYMENT_POSTED);
+
+    private final Map<Long, Subscriber> subscribers = new ConcurrentHashMap<>();
+    private final AtomicLong subscriberIds = new AtomicLong();
+    private final AtomicLong eventIds = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong sendTimeouts = new AtomicLong();
+    private final ThreadPoolExecutor senders;
+    private final int senderThreads;
+
+    @Value("${events.stream.max-subscribers}")
+    private int maxSubscribers;
+
+    @Value("${events.stream.buffer-size}")
+    private int bufferSize;
+
+    @Value("${events.stream.timeout}")
+    private long timeout;
+
+    @Value("${events.stream.send-timeout}")
+    private long sendTimeout;
+
+    public LoanEventStreamService(@Value("${events.stream.sender-threads}") int senderThreads) {
+        AtomicLong threadIds = new AtomicLong();
+        this.senderThreads = senderThreads;
+        this.senders = new ThreadPoolExecutor(senderThreads, senderThreads, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "sse-sender-" + threadIds.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public SseEmitter subscribe(Authentication authentication) {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new IllegalStateException("Too many open event streams, try again later");
+        }
+        Set<String> roles = authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.toSet());
+        Subscriber subscriber = new Subscriber(subscriberIds.incrementAndGet(), authentication.getName(), roles,
+                new SseEmitter(timeout), new ArrayBlockingQueue<>(bufferSize));
+
+        SseEmitter emitter = subscriber.emitter;
+        emitter.onCompletion(() -> subscribers.remove(subscriber.id));
+        emitter.onTimeout(() -> subscribers.remove(subscriber.id));
+        emitter.onError(error -> subscribers.remove(subscriber.id));
+        subscribers.put(subscriber.id, subscriber);
+        subscriber.heartbeatDue = true;
+        schedule(subscriber);
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLoanEvent(LoanEvent event) {
+        for (Subscriber subscriber : subscribers.values()) {
+            if (!subscriber.wants(event)) {
+                continue;
+            }
+            if (subscriber.buffer.offer(event)) {
+                schedule(subscriber);
+            } else {
+                evict(subscriber, "buffer full");
+            }
+        }
+    }
+
+    @Scheduled(fixedRateString = "${events.stream.heartbeat-interval}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers.values()) {
+            subscriber.heartbeatDue = true;
+            schedule(subscriber);
+        }
+    }
+
+    @Scheduled(fixedRateString = "${events.stream.send-timeout}")
+    public void evictStalledSenders() {
+        long now = System.nanoTime();
+        for (Subscriber subscriber : subscribers.values()) {
+            long started = subscriber.sendStartedAt;
+            if (started != 0 && now - started > sendTimeout * 1_000_000 && markStalled(subscriber)) {
+                sendTimeouts.incrementAndGet();
+                evict(subscriber, "send timed out");
+            }
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("subscribers", subscribers.size());
+        stats.put("maxSubscribers", maxSubscribers);
+        stats.put("bufferSize", bufferSize);
+        stats.put("evictions", evictions.get());
+        stats.put("sendTimeouts", sendTimeouts.get());
+        stats.put("stalledSenders", senders.getCorePoolSize() - senderThreads);
+        stats.put("eventsSent", eventIds.get());
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.values().forEach(subscriber -> subscriber.emitter.complete());
+        senders.shutdownNow();
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.draining.compareAndSet(false, true)) {
+            senders.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            if (subscriber.heartbeatDue) {
+                subscriber.heartbeatDue = false;
+                send(subscriber, SseEmitter.event().comment("keep-alive"));
+            }
+            LoanEvent event;
+            while ((event = subscriber.buffer.poll()) != null) {
+                send(subscriber, SseEmitter.event()
+                        .id(Long.toString(eventIds.incrementAndGet()))
+                        .name(event.getType().name())
+                        .data(event, MediaType.APPLICATION_JSON));
+            }
+        } catch (IOException | IllegalStateException e) {
+            evict(subscriber, e.getMessage());
+            return;
+        } finally {
+            subscriber.draining.set(false);
+            releaseStalled(subscriber);
+        }
+        // An event may have been buffered after the last poll but before the flag was cleared
+        if (!subscriber.buffer.isEmpty()) {
+            schedule(subscriber);
+        }
+    }
+
+    private void send(Subscriber subscriber, SseEmitter.SseEventBuilder event) throws IOException {
+        subscriber.sendStartedAt = System.nanoTime();
+        try {
+            subscriber.emitter.send(event);
+        } finally {
+            subscriber.sendStartedAt = 0;
+        }
+    }
+
+    /**
+     * Adds a sender thread to stand in for the one stuck in this subscriber's send, which only
+     * returns once the connection times out. Growing raises the maximum before the core size and
+     * shrinking lowers it after, as the pool requires.
+     */
+    private synchronized boolean markStalled(Subscriber subscriber) {
+        if (subscriber.stalled) {
+            return false;
+        }
+        subscriber.stalled = true;
+        senders.setMaximumPoolSize(senders.getMaximumPoolSize() + 1);
+        senders.setCorePoolSize(senders.getCorePoolSize() + 1);
+        return true;
+    }
+
+    private synchronized void releaseStalled(Subscriber subscriber) {
+        if (subscriber.stalled) {
+            subscriber.stalled = false;
+            senders.setCorePoolSize(senders.getCorePoolSize() - 1);
+            senders.setMaximumPoolSize(senders.getMaximumPoolSize() - 1);
+        }
+    }
+
+    private void evict(Subscriber subscriber, String reason) {
+        if (subscribers.remove(subscriber.id) != null) {
+            evictions.incrementAndGet();
+            log.debug("Dropping event stream {} for {}: {}", subscriber.id, subscriber.email, reason);
+            subscriber.emitter.complete();
+        }
+    }
+
+    private static final class Subscriber {
+        private final long id;
+        private final String email;
+        private final Set<String> roles;
+        private final SseEmitter emitter;
+        private final Queue<LoanEvent> buffer;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean heartbeatDue;
+        // Set while a send that outlived the send timeout has an extra sender thread covering it
+        private boolean stalled;
+        // System.nanoTime() when the current send started, 0 between sends
+        private volatile long sendStartedAt;
+
+        private Subscriber(long id, String email, Set<String> roles, SseEmitter emitter, Queue<LoanEvent> buffer) {
+            this.id = id;
+            this.email = email;
+            this.roles = roles;
+            this.emitter = emitter;
+            this.buffer = buffer;
+        }
+
+        private boolean wants(LoanEvent event) {
+            if (roles.contains("ROLE_ADMIN")) {
+                return true;
+            }
+            if (roles.contains("ROLE_LOAN_OFFICER") && OFFICER_EVENTS.contains(event.getType())) {
+                return true;
+            }
+            if (roles.contains("ROLE_ACCOUNTANT") && ACCOUNTANT_EVENTS.contains(event.getType())) {
+                return true;
+            }
+            return roles.contains("ROLE_EMPLOYEE") && email.equals(event.getEmployeeEmail());
+        }
+    }
+}
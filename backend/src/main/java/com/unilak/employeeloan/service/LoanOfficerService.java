@@ -6,6 +6,7 @@ import com.unilak.employeeloan.repository.LoanOfficerRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -15,21 +16,26 @@ public class LoanOfficerService {
 
     private final LoanOfficerRepository loanOfficerRepository;
     private final PasswordEncoder passwordEncoder;
+    private final VersionStampService versionStampService;
 
+    @Transactional(readOnly = true)
     public List<LoanOfficer> getAllLoanOfficers() {
         return loanOfficerRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
     public LoanOfficer getLoanOfficerById(Long id) {
         return loanOfficerRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("LoanOfficer", "id", id));
     }
 
+    @Transactional(readOnly = true)
     public LoanOfficer getLoanOfficerByEmail(String email) {
         return loanOfficerRepository.findByEmail(email)
                 .orElseThrow(() -> new ResourceNotFoundException("LoanOfficer", "email", email));
     }
 
+    @Transactional
     public LoanOfficer createLoanOfficer(LoanOfficer loanOfficer) {
         if (loanOfficerRepository.existsByEmail(loanOfficer.getEmail())) {
             throw new IllegalArgumentException("Email already exists");
@@ -38,16 +44,21 @@ public class LoanOfficerService {
         return loanOfficerRepository.save(loanOfficer);
     }
 
+    @Transactional
     public LoanOfficer updateLoanOfficer(Long id, LoanOfficer updatedLoanOfficer) {
         LoanOfficer loanOfficer = getLoanOfficerById(id);
         loanOfficer.setName(updatedLoanOfficer.getName());
         if (updatedLoanOfficer.getPassword() != null && !updatedLoanOfficer.getPassword().isEmpty()) {
             loanOfficer.setPassword(passwordEncoder.encode(updatedLoanOfficer.getPassword()));
         }
-        return loanOfficerRepository.save(loanOfficer);
+        LoanOfficer savedLoanOfficer = loanOfficerRepository.save(loanOfficer);
+        versionStampService.staffChanged();
+        return savedLoanOfficer;
     }
 
+    @Transactional
     public void deleteLoanOfficer(Long id) {
         loanOfficerRepository.deleteById(id);
+        versionStampService.staffChanged();
     }
 }
@@ -0,0 +1,219 @@
+package com.unilak.employeeloan.service;
+
+import com.unilak.employeeloan.dto.SimulationRequest;
+import com.unilak.employeeloan.dto.SimulationResponse;
+import com.unilak.employeeloan.dto.SimulationResult;
+import com.unilak.employeeloan.exception.ResourceNotFoundException;
+import com.unilak.employeeloan.model.LoanType;
+import com.unilak.employeeloan.repository.LoanTypeRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * What-if repayment plans for a grid of amounts, terms and loan types. Each scenario is a level
+ * monthly installment (annuity) at the loan type's annual rate, with interest charged on the
+ * outstanding balance each month and rounded to the cent, and a final installment that settles
+ * whatever the rounding left over.
+ * <p>
+ * The hot loop works in whole cents on {@code long}s and runs across the fork-join common pool.
+ * Only the installment itself needs a power, which is computed in {@code double}; when that lands
+ * too close to a half cent to round reliably, the scenario goes through the exact reference
+ * instead, so both always give the same answer.
+ */
+@Service
+@RequiredArgsConstructor
+public class LoanSimulationService {
+
+    // A rate in hundredths of a percent per year, divided by this, is the monthly rate
+    private static final long RATE_DIVISOR = 120_000;
+    // Keeps balance * rate within a long for the largest allowed amount
+    private static final long MAX_FAST_RATE = 100_000;
+    private static final int PARALLEL_THRESHOLD = 2048;
+    private static final BigDecimal MONTHS_PER_YEAR_PERCENT = BigDecimal.valueOf(1200);
+
+    private final LoanTypeRepository loanTypeRepository;
+
+    @Value("${simulation.max-scenarios}")
+    private int maxScenarios;
+
+    public SimulationResponse simulate(SimulationRequest request) {
+        List<LoanType> loanTypes = loanTypes(request.getLoanTypeIds());
+        List<BigDecimal> amounts = request.getAmounts().stream().map(amount -> amount.setScale(2, RoundingMode.HALF_UP)).toList();
+        List<Integer> terms = request.getTermMonths();
+        long count = (long) loanTypes.size() * amounts.size() * terms.size();
+        if (count > maxScenarios) {
+            throw new IllegalArgumentException("Grid has " + count + " scenarios; the limit is " + maxScenarios);
+        }
+        int scenarios = (int) count;
+        LocalDate start = request.getStartDate() != null ? request.getStartDate() : LocalDate.now();
+
+        long[] amountCents = amounts.stream().mapToLong(LoanSimulationService::toCents).toArray();
+        int[] termMonths = terms.stream().mapToInt(Integer::intValue).toArray();
+        long[] rates = loanTypes.stream().mapToLong(type -> toCents(type.getInterestRate())).toArray();
+
+        long[] installments = new long[scenarios];
+        long[] finalInstallments = new long[scenarios];
+        long[] interest = new long[scenarios];
+        int[] months = new int[scenarios];
+        boolean[] paysDown = new boolean[scenarios];
+
+        long started = System.nanoTime();
+        IntStream indexes = IntStream.range(0, scenarios);
+        (scenarios >= PARALLEL_THRESHOLD ? indexes.parallel() : indexes).forEach(index -> {
+            Outcome outcome = schedule(amountCents[index / termMonths.length % amountCents.length],
+                    rates[index / termMonths.length / amountCents.length], termMonths[index % termMonths.length]);
+            installments[index] = outcome.installment();
+            finalInstallments[index] = outcome.finalInstallment();
+            interest[index] = outcome.totalInterest();
+            months[index] = outcome.months();
+            paysDown[index] = outcome.paysDown();
+        });
+        double computeMs = (System.nanoTime() - started) / 1_000_000.0;
+
+        List<SimulationResult> results = new ArrayList<>(scenarios);
+        for (int index = 0; index < scenarios; index++) {
+            LoanType type = loanTypes.get(index / termMonths.length / amountCents.length);
+            long amount = amountCents[index / termMonths.length % amountCents.length];
+            results.add(new SimulationResult(type.getLoanTypeId(), type.getName(), BigDecimal.valueOf(amount, 2),
+                    termMonths[index % termMonths.length], BigDecimal.valueOf(installments[index], 2),
+                    BigDecimal.valueOf(finalInstallments[index], 2), BigDecimal.valueOf(interest[index], 2),
+                    BigDecimal.valueOf(amount + interest[index], 2), start.plusMonths(months[index]),
+                    amount <= toCents(type.getMaxAmount()), paysDown[index]));
+        }
+        return new SimulationResponse(scenarios, computeMs, results);
+    }
+
+    /**
+     * One scenario's plan: the cents-and-longs schedule when the installment can be rounded from a
+     * double, otherwise {@link #reference}. Both give the same answer for every input.
+     */
+    static Outcome schedule(long amount, long rate, int term) {
+        long installment = rate > MAX_FAST_RATE ? -1 : installment(amount, rate, term);
+        if (installment < 0) {
+            return reference(amount, rate, term);
+        }
+        // Same schedule as reference(), in cents
+        long balance = amount;
+        long totalInterest = 0;
+        boolean paysDown = true;
+        for (int month = 1; ; month++) {
+            long charge = (balance * rate * 2 + RATE_DIVISOR) / (2 * RATE_DIVISOR);
+            totalInterest += charge;
+            long due = balance + charge;
+            if (month == term || installment >= due) {
+                return new Outcome(installment, due, totalInterest, month, paysDown);
+            }
+            if (month == 1) {
+                paysDown = paysDown(installment, charge);
+            }
+            balance = due - installment;
+        }
+    }
+
+    /**
+     * The level installment in cents, rounded half up, or -1 when the double estimate is too
+     * close to a half cent to know which way the exact value rounds.
+     */
+    private static long installment(long principal, long rate, int months) {
+        if (rate == 0) {
+            return (principal * 2 + months) / (2L * months);
+        }
+        double monthlyRate = rate / (double) RATE_DIVISOR;
+        // 1 - (1 + r)^-n without the cancellation of computing it directly
+        double exact = principal * monthlyRate / -Math.expm1(-months * Math.log1p(monthlyRate));
+        double fraction = exact - Math.floor(exact);
+        if (Math.abs(fraction - 0.5) < exact * 1e-12 + 1e-9) {
+            return -1;
+        }
+        return (long) Math.floor(exact + 0.5);
+    }
+
+    /**
+     * Exact version of the plan. With the monthly rate r = R / 120000 (R in hundredths of a percent
+     * a year), the annuity formula P r (1 + r)^n / ((1 + r)^n - 1) is the fraction
+     * P R A^n / (120000 (A^n - 120000^n)) with A = 120000 + R, which is rounded half up to the cent
+     * in integers. The month-by-month schedule then runs in BigDecimal.
+     */
+    static Outcome reference(long principalCents, long rateHundredths, int months) {
+        long installmentCents;
+        if (rateHundredths == 0) {
+            installmentCents = (principalCents * 2 + months) / (2L * months);
+        } else {
+            BigInteger divisor = BigInteger.valueOf(RATE_DIVISOR);
+            BigInteger growth = divisor.add(BigInteger.valueOf(rateHundredths)).pow(months);
+            BigInteger numerator = BigInteger.valueOf(principalCents).multiply(BigInteger.valueOf(rateHundredths))
+                    .multiply(growth);
+            BigInteger denominator = divisor.multiply(growth.subtract(divisor.pow(months)));
+            installmentCents = numerator.shiftLeft(1).add(denominator).divide(denominator.shiftLeft(1)).longValueExact();
+        }
+        BigDecimal installment = BigDecimal.valueOf(installmentCents, 2);
+        BigDecimal rate = BigDecimal.valueOf(rateHundredths, 2);
+
+        BigDecimal balance = BigDecimal.valueOf(principalCents, 2);
+        BigDecimal totalInterest = BigDecimal.ZERO;
+        boolean paysDown = true;
+        for (int month = 1; ; month++) {
+            BigDecimal charge = balance.multiply(rate).divide(MONTHS_PER_YEAR_PERCENT, 2, RoundingMode.HALF_UP);
+            totalInterest = totalInterest.add(charge);
+            BigDecimal due = balance.add(charge);
+            if (month == months || installment.compareTo(due) >= 0) {
+                return new Outcome(installmentCents, toCents(due), toCents(totalInterest), month, paysDown);
+            }
+            if (month == 1) {
+                paysDown = paysDown(installmentCents, toCents(charge));
+            }
+            balance = due.subtract(installment);
+        }
+    }
+
+    /**
+     * Whether the installment reduces the balance. The exact installment exceeds P r, so rounded
+     * it is never below the first month's interest, but with a tiny amount, a high rate and a
+     * long term it can equal it: the balance then never moves and the plan is interest-only with
+     * the principal due at the end. Anything lower would grow the balance without bound.
+     */
+    private static boolean paysDown(long installment, long charge) {
+        if (installment < charge) {
+            throw new IllegalStateException("Installment " + installment + " is below the interest of " + charge);
+        }
+        return installment > charge;
+    }
+
+    private List<LoanType> loanTypes(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return loanTypeRepository.findAll(Sort.by("loanTypeId"));
+        }
+        Set<Long> wanted = new LinkedHashSet<>(ids);
+        Map<Long, LoanType> found = loanTypeRepository.findAllById(wanted).stream()
+                .collect(Collectors.toMap(LoanType::getLoanTypeId, Function.identity()));
+        for (Long id : wanted) {
+            if (!found.containsKey(id)) {
+                throw new ResourceNotFoundException("LoanType", "id", id);
+            }
+        }
+        return found.values().stream().sorted(Comparator.comparing(LoanType::getLoanTypeId)).toList();
+    }
+
+    private static long toCents(BigDecimal value) {
+        return value.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    record Outcome(long installment, long finalInstallment, long totalInterest, int months, boolean paysDown) {
+    }
+}
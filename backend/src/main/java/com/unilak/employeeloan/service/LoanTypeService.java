@@ -5,6 +5,7 @@ import com.unilak.employeeloan.model.LoanType;
 import com.unilak.employeeloan.repository.LoanTypeRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -13,29 +14,40 @@ import java.util.List;
 public class LoanTypeService {
 
     private final LoanTypeRepository loanTypeRepository;
+    private final VersionStampService versionStampService;
 
+    @Transactional(readOnly = true)
     public List<LoanType> getAllLoanTypes() {
         return loanTypeRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
     public LoanType getLoanTypeById(Long id) {
         return loanTypeRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("LoanType", "id", id));
     }
 
+    @Transactional
     public LoanType createLoanType(LoanType loanType) {
-        return loanTypeRepository.save(loanType);
+        LoanType savedLoanType = loanTypeRepository.save(loanType);
+        versionStampService.loanTypesChanged();
+        return savedLoanType;
     }
 
+    @Transactional
     public LoanType updateLoanType(Long id, LoanType loanType) {
         LoanType existing = getLoanTypeById(id);
         existing.setName(loanType.getName());
         existing.setDescription(loanType.getDescription());
         existing.setMaxAmount(loanType.getMaxAmount());
-        return loanTypeRepository.save(existing);
+        LoanType savedLoanType = loanTypeRepository.save(existing);
+        versionStampService.loanTypesChanged();
+        return savedLoanType;
     }
 
+    @Transactional
     public void deleteLoanType(Long id) {
         loanTypeRepository.deleteById(id);
+        versionStampService.loanTypesChanged();
     }
 }
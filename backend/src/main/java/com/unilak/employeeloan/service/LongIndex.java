@@ -0,0 +1,80 @@
+package com.unilak.employeeloan.service;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from long keys to non-negative int values, without boxing. Lookups of
+ * a missing key return -1. Used for indexes that are built and probed once per line of a large
+ * input, where a {@code HashMap<Long, Integer>} would allocate on every probe.
+ */
+final class LongIndex {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private long[] keys;
+    private int[] values;
+    private int size;
+
+    LongIndex(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(4, expected * 2 - 1)) << 1;
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+    }
+
+    int get(long key) {
+        int mask = keys.length - 1;
+        for (int slot = mix(key) & mask; ; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+            if (keys[slot] == EMPTY) {
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * Maps {@code key} to {@code value} unless it is already present; returns whether it was
+     * added.
+     */
+    boolean putIfAbsent(long key, int value) {
+        if (key == EMPTY) {
+            throw new IllegalArgumentException("Reserved key");
+        }
+        if ((size + 1) * 2 > keys.length) {
+            grow();
+        }
+        int mask = keys.length - 1;
+        for (int slot = mix(key) & mask; ; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return false;
+            }
+            if (keys[slot] == EMPTY) {
+                keys[slot] = key;
+                values[slot] = value;
+                size++;
+                return true;
+            }
+        }
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new int[oldValues.length * 2];
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                putIfAbsent(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,231 @@
+package com.unilak.employeeloan.service;
+
+import com.unilak.employeeloan.event.LoanEvent;
+import com.unilak.employeeloan.model.OutboxMessage;
+import com.unilak.employeeloan.notification.NotificationSink;
+import com.unilak.employeeloan.repository.OutboxMessageRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Transactional outbox for the notifications employees get when their loan changes. The message
+ * row is inserted just before the business transaction commits, in that same transaction, so a
+ * notification exists exactly when the change does and the request never waits on a mail server.
+ * A scheduled dispatcher delivers due messages in batches to the configured sink, backing off
+ * exponentially (with jitter) on failure and giving up after notification.max-attempts.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationService {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final OutboxMessageRepository outboxMessageRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final List<NotificationSink> sinks;
+
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong failedAttempts = new AtomicLong();
+    private final AtomicLong deadLettered = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final LatencyHistogram deliveryLag = new LatencyHistogram();
+    private volatile double lastRunThroughput;
+    private volatile LocalDateTime lastRunAt;
+
+    @Value("${notification.enabled}")
+    private boolean enabled;
+
+    @Value("${notification.sink}")
+    private String sinkName;
+
+    @Value("${notification.batch-size}")
+    private int batchSize;
+
+    @Value("${notification.max-attempts}")
+    private int maxAttempts;
+
+    @Value("${notification.initial-backoff}")
+    private long initialBackoff;
+
+    @Value("${notification.max-backoff}")
+    private long maxBackoff;
+
+    private NotificationSink sink;
+
+    @PostConstruct
+    public void selectSink() {
+        sink = sinks.stream()
+                .filter(candidate -> candidate.name().equals(sinkName))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("Unknown notification.sink '" + sinkName + "'"));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onLoanEvent(LoanEvent event) {
+        // Submitting is the employee's own action; they only hear about what others do to the loan
+        if (!enabled || event.getType() == LoanEvent.Type.LOAN_SUBMITTED) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        outboxMessageRepository.save(new OutboxMessage(null, event.getType().name(), event.getLoanId(),
+                event.getRepaymentId(), event.getEmployeeId(), event.getEmployeeEmail(), subject(event), body(event),
+                OutboxMessage.Status.PENDING, 0, now, now, null, null));
+        enqueued.incrementAndGet();
+    }
+
+    @Scheduled(fixedDelayString = "${notification.poll-interval}")
+    public void dispatch() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        long sent = 0;
+        while (true) {
+            List<OutboxMessage> batch = outboxMessageRepository.findDue(LocalDateTime.now(), PageRequest.of(0, batchSize));
+            if (batch.isEmpty()) {
+                break;
+            }
+            sent += deliver(batch);
+            if (batch.size() < batchSize) {
+                break;
+            }
+        }
+        if (sent > 0) {
+            lastRunThroughput = sent * 1_000_000_000.0 / Math.max(1, System.nanoTime() - start);
+            lastRunAt = LocalDateTime.now();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        LatencyHistogram.Snapshot lag = deliveryLag.snapshot();
+        Map<String, Object> lagMs = new LinkedHashMap<>();
+        lagMs.put("p50", lag.percentile(50) / 1000.0);
+        lagMs.put("p99", lag.percentile(99) / 1000.0);
+        lagMs.put("max", lag.max() / 1000.0);
+        LocalDateTime oldestPending = outboxMessageRepository.oldestPendingCreatedAt();
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("sink", sink.name());
+        stats.put("enqueued", enqueued.get());
+        stats.put("delivered", delivered.get());
+        stats.put("failedAttempts", failedAttempts.get());
+        stats.put("deadLettered", deadLettered.get());
+        stats.put("batches", batches.get());
+        stats.put("pending", outboxMessageRepository.countByStatus(OutboxMessage.Status.PENDING));
+        stats.put("dead", outboxMessageRepository.countByStatus(OutboxMessage.Status.DEAD));
+        stats.put("oldestPendingAgeMs", oldestPending == null ? 0 : Duration.between(oldestPending, LocalDateTime.now()).toMillis());
+        stats.put("deliveryLagMs", lagMs);
+        stats.put("lastRunMessagesPerSecond", lastRunThroughput);
+        stats.put("lastRunAt", lastRunAt);
+        return stats;
+    }
+
+    private int deliver(List<OutboxMessage> batch) {
+        batches.incrementAndGet();
+        List<OutboxMessage> sent = new ArrayList<>(batch.size());
+        Map<OutboxMessage, Exception> failed = new LinkedHashMap<>();
+        try {
+            sink.deliver(batch);
+            sent.addAll(batch);
+        } catch (Exception batchFailure) {
+            if (batch.size() == 1) {
+                failed.put(batch.get(0), batchFailure);
+            } else {
+                // Find out which messages are at fault rather than backing off the whole batch
+                for (OutboxMessage message : batch) {
+                    try {
+                        sink.deliver(List.of(message));
+                        sent.add(message);
+                    } catch (Exception e) {
+                        failed.put(message, e);
+                    }
+                }
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!sent.isEmpty()) {
+                outboxMessageRepository.markSent(sent.stream().map(OutboxMessage::getId).toList(), now);
+            }
+            failed.forEach((message, e) -> outboxMessageRepository.save(scheduleRetry(message, e, now)));
+        });
+
+        for (OutboxMessage message : sent) {
+            deliveryLag.record(TimeUnit.MILLISECONDS.toMicros(Duration.between(message.getCreatedAt(), now).toMillis()));
+        }
+        delivered.addAndGet(sent.size());
+        failedAttempts.addAndGet(failed.size());
+        return sent.size();
+    }
+
+    private OutboxMessage scheduleRetry(OutboxMessage message, Exception e, LocalDateTime now) {
+        int attempts = message.getAttempts() + 1;
+        message.setAttempts(attempts);
+        String error = e.getClass().getSimpleName() + ": " + e.getMessage();
+        message.setLastError(error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error);
+        if (attempts >= maxAttempts) {
+            message.setStatus(OutboxMessage.Status.DEAD);
+            deadLettered.incrementAndGet();
+            log.error("Giving up on notification {} to {} after {} attempts: {}",
+                    message.getId(), message.getRecipient(), attempts, error);
+        } else {
+            long backoff = Math.min(maxBackoff, initialBackoff << Math.min(attempts - 1, 30));
+            long delay = backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+            message.setNextAttemptAt(now.plus(Duration.ofMillis(delay)));
+            log.warn("Notification {} failed (attempt {}), retrying in {} ms: {}", message.getId(), attempts, delay, error);
+        }
+        return message;
+    }
+
+    private static String subject(LoanEvent event) {
+        return switch (event.getType()) {
+            case LOAN_APPROVED -> "Your loan application #" + event.getLoanId() + " was approved";
+            case LOAN_REJECTED -> "Your loan application #" + event.getLoanId() + " was rejected";
+            case LOAN_COMPLETED -> "Your loan #" + event.getLoanId() + " is fully repaid";
+            case REPAYMENT_POSTED -> "Repayment received for loan #" + event.getLoanId();
+            default -> "Update on loan #" + event.getLoanId();
+        };
+    }
+
+    private static String body(LoanEvent event) {
+        StringBuilder body = new StringBuilder();
+        switch (event.getType()) {
+            case LOAN_APPROVED -> body.append("Your application for ").append(rwf(event.getAmount()))
+                    .append(" has been approved.");
+            case LOAN_REJECTED -> body.append("Your application for ").append(rwf(event.getAmount()))
+                    .append(" has been rejected. Please contact the loan office for details.");
+            case LOAN_COMPLETED -> body.append("Your loan has been fully repaid and is now closed.");
+            case REPAYMENT_POSTED -> body.append("A repayment of ").append(rwf(event.getAmount()))
+                    .append(" was recorded. Outstanding balance: ").append(rwf(event.getOutstandingBalance())).append('.');
+            default -> body.append("The status of your loan is now ").append(event.getStatus()).append('.');
+        }
+        return body.append("\n\nReference: loan #").append(event.getLoanId()).toString();
+    }
+
+    private static String rwf(BigDecimal amount) {
+        return amount == null ? "-" : amount.toPlainString() + " RWF";
+    }
+}
@@ -0,0 +1,146 @@
+package com.unilak.employeeloan.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Token buckets per user and route group. Each bucket is a single "theoretical arrival time"
+ * (the GCRA form of a token bucket) updated with compare-and-set, so checking a request takes no
+ * lock and stores one long. A bucket whose arrival time has passed is full again and therefore
+ * indistinguishable from a new one, which is what lets idle buckets be evicted without loss.
+ */
+@Service
+@Slf4j
+public class RateLimitService {
+
+    public enum RouteGroup { REPORTS, LOANS, REPAYMENTS, DEFAULT }
+
+    public static final String ANONYMOUS = "ANONYMOUS";
+
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final Map<RouteGroup, LongAdder> allowed = new EnumMap<>(RouteGroup.class);
+    private final Map<RouteGroup, LongAdder> rejected = new EnumMap<>(RouteGroup.class);
+    private final AtomicLong evictions = new AtomicLong();
+
+    @Value("#{${rate-limit.requests-per-minute}}")
+    private Map<String, Integer> requestsPerMinute;
+
+    @Value("#{${rate-limit.reports-per-minute}}")
+    private Map<String, Integer> reportsPerMinute;
+
+    @Value("${rate-limit.burst-seconds}")
+    private long burstSeconds;
+
+    public RateLimitService() {
+        for (RouteGroup group : RouteGroup.values()) {
+            allowed.put(group, new LongAdder());
+            rejected.put(group, new LongAdder());
+        }
+    }
+
+    public static RouteGroup routeGroup(String path) {
+        if (path.startsWith("/api/reports")) {
+            return RouteGroup.REPORTS;
+        }
+        if (path.startsWith("/api/loans")) {
+            return RouteGroup.LOANS;
+        }
+        if (path.startsWith("/api/repayments")) {
+            return RouteGroup.REPAYMENTS;
+        }
+        return RouteGroup.DEFAULT;
+    }
+
+    /**
+     * Takes a token for the caller. Returns 0 if the request may proceed, otherwise the number of
+     * milliseconds until the next token is available.
+     */
+    public long tryAcquire(String principal, String role, RouteGroup group) {
+        long now = System.nanoTime();
+        Bucket bucket = buckets.get(principal + '|' + group);
+        if (bucket == null) {
+            bucket = buckets.computeIfAbsent(principal + '|' + group, key -> newBucket(role, group, now));
+        }
+        long waitNanos = bucket.tryAcquire(now);
+        (waitNanos == 0 ? allowed : rejected).get(group).increment();
+        return TimeUnit.NANOSECONDS.toMillis(waitNanos) + (waitNanos > 0 ? 1 : 0);
+    }
+
+    public int limitPerMinute(String role, RouteGroup group) {
+        Map<String, Integer> limits = group == RouteGroup.REPORTS ? reportsPerMinute : requestsPerMinute;
+        Integer limit = limits.get(role);
+        return limit != null ? limit : limits.getOrDefault(ANONYMOUS, 0);
+    }
+
+    @Scheduled(fixedRateString = "${rate-limit.idle-eviction-interval}")
+    public void evictIdleBuckets() {
+        long now = System.nanoTime();
+        int before = buckets.size();
+        buckets.values().removeIf(bucket -> bucket.isFull(now));
+        int evicted = before - buckets.size();
+        if (evicted > 0) {
+            evictions.addAndGet(evicted);
+            log.debug("Evicted {} idle rate limit buckets", evicted);
+        }
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> byGroup = new HashMap<>();
+        for (RouteGroup group : RouteGroup.values()) {
+            byGroup.put(group.name(), Map.of("allowed", allowed.get(group).sum(), "rejected", rejected.get(group).sum()));
+        }
+        Map<String, Object> metrics = new HashMap<>();
+        metrics.put("activeBuckets", buckets.size());
+        metrics.put("evictedBuckets", evictions.get());
+        metrics.put("routeGroups", byGroup);
+        metrics.put("requestsPerMinute", requestsPerMinute);
+        metrics.put("reportsPerMinute", reportsPerMinute);
+        return metrics;
+    }
+
+    private Bucket newBucket(String role, RouteGroup group, long now) {
+        int limit = Math.max(1, limitPerMinute(role, group));
+        long interval = TimeUnit.MINUTES.toNanos(1) / limit;
+        long capacity = Math.max(1, limit * burstSeconds / 60);
+        return new Bucket(interval, interval * (capacity - 1), now);
+    }
+
+    private static final class Bucket {
+        private final long interval;
+        private final long tolerance;
+        private final AtomicLong theoreticalArrival;
+
+        private Bucket(long interval, long tolerance, long now) {
+            this.interval = interval;
+            this.tolerance = tolerance;
+            this.theoreticalArrival = new AtomicLong(now);
+        }
+
+        private long tryAcquire(long now) {
+            while (true) {
+                long current = theoreticalArrival.get();
+                long earliest = current - tolerance;
+                if (now < earliest) {
+                    return earliest - now;
+                }
+                if (theoreticalArrival.compareAndSet(current, Math.max(current, now) + interval)) {
+                    return 0;
+                }
+            }
+        }
+
+        private boolean isFull(long now) {
+            return theoreticalArrival.get() <= now;
+        }
+    }
+}
@@ -0,0 +1,455 @@
+package com.unilak.employeeloan.service;
+
+import com.unilak.employeeloan.dto.ReconciliationReport;
+import com.unilak.employeeloan.dto.UnmatchedLine;
+import com.unilak.employeeloan.event.LoanEvent;
+import com.unilak.employeeloan.exception.ResourceNotFoundException;
+import com.unilak.employeeloan.model.Accountant;
+import com.unilak.employeeloan.model.LoanApplication;
+import com.unilak.employeeloan.model.Repayment;
+import com.unilak.employeeloan.repository.AccountantRepository;
+import com.unilak.employeeloan.repository.EmployeeRepository;
+import com.unilak.employeeloan.repository.LoanApplicationRepository;
+import com.unilak.employeeloan.repository.RepaymentRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+
+/**
+ * Matches a bank deduction statement against the approved loans and posts the repayments it can
+ * attribute unambiguously. The statement is parsed from a memory-mapped copy of the upload (see
+ * {@link StatementParser}) and each line is matched against primitive in-memory indexes of the
+ * open loans, built with one query up front, so matching does no I/O. A line matches only when
+ * exactly one of the employee's open loans has that amount as its last installment or as its
+ * outstanding balance; any other amount is reported rather than posted, even for an employee with
+ * a single open loan.
+ * Matches are then posted in chunks of reconciliation.chunk-size, each in its own transaction, with
+ * the same effects as {@code POST /api/repayments}. Every other line goes to the exceptions report.
+ * <p>
+ * Each posted repayment keeps its line's bank reference, which is unique. A reference that is
+ * already posted, or repeats within the statement, is a DUPLICATE, so uploading the same or an
+ * overlapping statement again posts only the lines that are new.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReconciliationService {
+
+    private final LoanApplicationRepository loanApplicationRepository;
+    private final RepaymentRepository repaymentRepository;
+    private final EmployeeRepository employeeRepository;
+    private final AccountantRepository accountantRepository;
+    private final ExposureService exposureService;
+    private final SearchIndexService searchIndexService;
+    private final VersionStampService versionStampService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${reconciliation.chunk-size}")
+    private int chunkSize;
+
+    @Value("${reconciliation.max-reported-exceptions}")
+    private int maxReportedExceptions;
+
+    public ReconciliationReport reconcile(InputStream statement, boolean dryRun) throws IOException {
+        String email = SecurityContextHolder.getContext().getAuthentication().getName();
+        Accountant accountant = accountantRepository.findByEmail(email)
+                .orElseThrow(() -> new ResourceNotFoundException("Accountant", "email", email));
+
+        Path file = Files.createTempFile("statement-", ".csv");
+        try {
+            Files.copy(statement, file, StandardCopyOption.REPLACE_EXISTING);
+            long started = System.nanoTime();
+            Matcher matcher = new Matcher(openLoans(), employeeIndex(), postedBankRefs());
+            long indexNanos = System.nanoTime() - started;
+            started = System.nanoTime();
+            long lines = StatementParser.parse(file, matcher::match);
+            long matchNanos = System.nanoTime() - started;
+
+            started = System.nanoTime();
+            long[] created = dryRun ? new long[2] : apply(matcher, accountant.getId(), email);
+            long applyNanos = System.nanoTime() - started;
+
+            List<UnmatchedLine> exceptions = matcher.exceptions;
+            exceptions.sort(Comparator.comparingLong(UnmatchedLine::getLine));
+            Map<UnmatchedLine.Reason, Long> unmatchedByReason = new EnumMap<>(UnmatchedLine.Reason.class);
+            for (UnmatchedLine.Reason reason : UnmatchedLine.Reason.values()) {
+                if (matcher.unmatchedCounts[reason.ordinal()] > 0) {
+                    unmatchedByReason.put(reason, matcher.unmatchedCounts[reason.ordinal()]);
+                }
+            }
+            long unmatched = Arrays.stream(matcher.unmatchedCounts).sum();
+            log.info("Reconciled {} statement lines: {} matched, {} unmatched, {} repayments posted in {} ms",
+                    lines, matcher.matches - matcher.withdrawn, unmatched, created[0], (indexNanos + matchNanos + applyNanos) / 1_000_000);
+            return ReconciliationReport.builder()
+                    .dryRun(dryRun)
+                    .lines(lines)
+                    .matched(matcher.matches - matcher.withdrawn)
+                    .matchedAmount(BigDecimal.valueOf(matcher.matchedCents, 2))
+                    .repaymentsCreated(created[0])
+                    .loansCompleted(created[1])
+                    .unmatched(unmatched)
+                    .unmatchedByReason(unmatchedByReason)
+                    .exceptions(exceptions)
+                    .indexMs(indexNanos / 1_000_000.0)
+                    .parseAndMatchMs(matchNanos / 1_000_000.0)
+                    .applyMs(dryRun ? 0 : applyNanos / 1_000_000.0)
+                    .linesPerSecond(lines * 1_000_000_000.0 / Math.max(1, matchNanos))
+                    .build();
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private OpenLoans openLoans() {
+        List<Object[]> rows = loanApplicationRepository.findBalancesByStatus(LoanApplication.LoanStatus.APPROVED);
+        OpenLoans loans = new OpenLoans(rows.size());
+        for (Object[] row : rows) {
+            loans.add((Long) row[0], (Long) row[1], cents((BigDecimal) row[2]),
+                    row[3] == null ? -1 : cents((BigDecimal) row[3]));
+        }
+        return loans;
+    }
+
+    // Hashes of every bank reference already posted, archived repayments included
+    private LongIndex postedBankRefs() {
+        LongIndex posted = new LongIndex(1 << 16);
+        jdbcTemplate.query("select bank_ref from repayments where bank_ref is not null " +
+                        "union all select bank_ref from repayments_archive where bank_ref is not null",
+                row -> {
+                    posted.putIfAbsent(StatementParser.hashBankRef(row.getString(1)), 0);
+                });
+        return posted;
+    }
+
+    private EmployeeIndex employeeIndex() {
+        List<Object[]> rows = employeeRepository.findAllIdsAndEmails();
+        EmployeeIndex index = new EmployeeIndex(rows.size());
+        for (Object[] row : rows) {
+            index.ids.putIfAbsent((Long) row[0], 0);
+            index.byEmail.put(((String) row[1]).toLowerCase(Locale.ROOT), (Long) row[0]);
+        }
+        return index;
+    }
+
+    // Posts the matches chunk by chunk; returns {repayments created, loans completed}
+    private long[] apply(Matcher matcher, Long accountantId, String actorEmail) {
+        long[] totals = new long[2];
+        Set<Long> changed = new HashSet<>();
+        for (int from = 0; from < matcher.matches; from += chunkSize) {
+            int to = (int) Math.min(matcher.matches, (long) from + chunkSize);
+            int chunkFrom = from;
+            long[] chunk;
+            try {
+                chunk = transactionTemplate.execute(status -> applyChunk(matcher, chunkFrom, to, accountantId, actorEmail, changed));
+            } catch (DataIntegrityViolationException e) {
+                // Lost a race with a concurrent upload of the same lines; the unique bank_ref kept them
+                // from being posted twice, and re-uploading posts whatever is still missing
+                throw new IllegalStateException("Another reconciliation posted some of these bank references at the same time. "
+                        + totals[0] + " repayments were posted before it; upload the statement again to post the rest");
+            }
+            totals[0] += chunk[0];
+            totals[1] += chunk[1];
+        }
+        return totals;
+    }
+
+    private long[] applyChunk(Matcher matcher, int from, int to, Long accountantId, String actorEmail, Set<Long> changed) {
+        OpenLoans open = matcher.loans;
+        Set<Long> loanIds = new LinkedHashSet<>();
+        for (int i = from; i < to; i++) {
+            loanIds.add(open.loanIds[matcher.matchSlot[i]]);
+        }
+        Map<Long, LoanApplication> loans = new HashMap<>();
+        loanApplicationRepository.findWithEmployeeByLoanIdIn(loanIds).forEach(loan -> loans.put(loan.getLoanId(), loan));
+        Map<Long, Long> paid = new HashMap<>();
+        for (Object[] row : repaymentRepository.sumAmountPaidByLoanIds(loanIds)) {
+            paid.put((Long) row[0], cents((BigDecimal) row[1]));
+        }
+        // References posted by another upload since this one started; their loans' balances moved too
+        Set<String> bankRefs = new HashSet<>();
+        for (int i = from; i < to; i++) {
+            bankRefs.add(matcher.matchBankRef[i]);
+        }
+        Set<String> posted = repaymentRepository.findExistingBankRefs(bankRefs);
+        for (int i = from; i < to; i++) {
+            if (posted.contains(matcher.matchBankRef[i])) {
+                changed.add(open.loanIds[matcher.matchSlot[i]]);
+            }
+        }
+
+        // Someone may have posted to or closed a loan since it was matched; leave it alone then
+        Set<Long> checked = new HashSet<>();
+        for (int i = from; i < to; i++) {
+            Long loanId = open.loanIds[matcher.matchSlot[i]];
+            if (changed.contains(loanId) || !checked.add(loanId)) {
+                continue;
+            }
+            LoanApplication loan = loans.get(loanId);
+            long balance = loan == null ? -1 : cents(loan.getAmount()) - paid.getOrDefault(loanId, 0L);
+            if (loan == null || loan.getStatus() != LoanApplication.LoanStatus.APPROVED
+                    || balance != matcher.matchBalanceAfter[i] + matcher.matchCents[i]) {
+                changed.add(loanId);
+            }
+        }
+
+        Accountant accountant = accountantRepository.getReferenceById(accountantId);
+        Set<String> employees = new HashSet<>();
+        long created = 0;
+        long completed = 0;
+        for (int i = from; i < to; i++) {
+            LoanApplication loan = loans.get(open.loanIds[matcher.matchSlot[i]]);
+            if (posted.contains(matcher.matchBankRef[i])) {
+                matcher.withdraw(i, UnmatchedLine.Reason.DUPLICATE, null);
+                continue;
+            }
+            if (loan == null || changed.contains(loan.getLoanId())) {
+                matcher.withdraw(i, UnmatchedLine.Reason.BALANCE_CHANGED, String.valueOf(open.loanIds[matcher.matchSlot[i]]));
+                continue;
+            }
+            boolean completes = matcher.matchBalanceAfter[i] == 0;
+            if (completes) {
+                // Loaded before the insert so the new repayment is not read back in as well
+                Hibernate.initialize(loan.getRepayments());
+            }
+            Repayment repayment = new Repayment();
+            repayment.setLoanApplication(loan);
+            repayment.setAccountant(accountant);
+            repayment.setAmountPaid(BigDecimal.valueOf(matcher.matchCents[i], 2));
+            repayment.setPaymentDate(LocalDate.ofEpochDay(matcher.matchDate[i]));
+            repayment.setBalance(BigDecimal.valueOf(matcher.matchBalanceAfter[i], 2));
+            repayment.setBankRef(matcher.matchBankRef[i]);
+            Repayment saved = repaymentRepository.save(repayment);
+            created++;
+
+            exposureService.onRepaymentPosted(loan, saved.getAmountPaid(), completes);
+            if (completes) {
+                loan.getRepayments().add(saved);
+                loan.setStatus(LoanApplication.LoanStatus.COMPLETED);
+                loan.setClosedDate(saved.getPaymentDate());
+                searchIndexService.indexLoan(loan);
+                completed++;
+            }
+            employees.add(loan.getEmployee().getEmail());
+            eventPublisher.publishEvent(LoanEvent.repaymentPosted(saved, actorEmail));
+            if (completes) {
+                eventPublisher.publishEvent(LoanEvent.of(LoanEvent.Type.LOAN_COMPLETED, loan, actorEmail));
+            }
+        }
+        employees.forEach(versionStampService::loansChanged);
+        return new long[]{created, completed};
+    }
+
+    private static long cents(BigDecimal amount) {
+        return amount.movePointRight(2).longValueExact();
+    }
+
+    /**
+     * Approved loans as parallel arrays, grouped by employee (the query orders them so), with the
+     * first slot of each employee in a primitive hash index.
+     */
+    private static final class OpenLoans {
+        private final long[] loanIds;
+        private final long[] employeeIds;
+        private final long[] outstanding;
+        private final long[] installment;
+        private final LongIndex firstSlot;
+        private int size;
+
+        private OpenLoans(int capacity) {
+            loanIds = new long[capacity];
+            employeeIds = new long[capacity];
+            outstanding = new long[capacity];
+            installment = new long[capacity];
+            firstSlot = new LongIndex(capacity);
+        }
+
+        private void add(long loanId, long employeeId, long balance, long lastInstallment) {
+            loanIds[size] = loanId;
+            employeeIds[size] = employeeId;
+            outstanding[size] = balance;
+            installment[size] = lastInstallment;
+            firstSlot.putIfAbsent(employeeId, size);
+            size++;
+        }
+    }
+
+    private static final class EmployeeIndex {
+        private final LongIndex ids;
+        private final Map<String, Long> byEmail;
+
+        private EmployeeIndex(int capacity) {
+            ids = new LongIndex(capacity);
+            byEmail = new HashMap<>(capacity * 2);
+        }
+    }
+
+    /**
+     * Matches lines in statement order, drawing down the in-memory balances as it goes so that
+     * several deductions for the same loan in one statement are checked against each other.
+     */
+    private final class Matcher {
+        private final OpenLoans loans;
+        private final EmployeeIndex employees;
+        private final LongIndex bankRefs;
+
+        private int matches;
+        private int withdrawn;
+        private long matchedCents;
+        private int[] matchSlot = new int[1024];
+        private long[] matchLine = new long[1024];
+        private long[] matchCents = new long[1024];
+        private long[] matchDate = new long[1024];
+        private long[] matchBalanceAfter = new long[1024];
+        private String[] matchBankRef = new String[1024];
+
+        private final long[] unmatchedCounts = new long[UnmatchedLine.Reason.values().length];
+        private final List<UnmatchedLine> exceptions = new ArrayList<>();
+
+        // bankRefs starts out holding the posted references and collects the statement's as it goes
+        private Matcher(OpenLoans loans, EmployeeIndex employees, LongIndex bankRefs) {
+            this.loans = loans;
+            this.employees = employees;
+            this.bankRefs = bankRefs;
+        }
+
+        private void match(StatementParser.Line line) {
+            if (line.error != null) {
+                unmatched(line, line.error, -1, 0);
+                return;
+            }
+            if (!bankRefs.putIfAbsent(line.bankRefHash, 0)) {
+                unmatched(line, UnmatchedLine.Reason.DUPLICATE, -1, 0);
+                return;
+            }
+            long employeeId = line.employeeId;
+            if (employeeId < 0) {
+                employeeId = employees.byEmail.getOrDefault(line.reference().toLowerCase(Locale.ROOT), -1L);
+            }
+            if (employeeId < 0 || employees.ids.get(employeeId) < 0) {
+                unmatched(line, UnmatchedLine.Reason.UNKNOWN_EMPLOYEE, -1, 0);
+                return;
+            }
+            int first = loans.firstSlot.get(employeeId);
+            if (first < 0) {
+                unmatched(line, UnmatchedLine.Reason.NO_ACTIVE_LOAN, -1, 0);
+                return;
+            }
+
+            long amount = line.amountCents;
+            int open = 0;
+            long largestBalance = 0;
+            int exact = 0;
+            int exactSlot = -1;
+            for (int slot = first; slot < loans.size && loans.employeeIds[slot] == employeeId; slot++) {
+                if (loans.outstanding[slot] <= 0) {
+                    continue;
+                }
+                open++;
+                largestBalance = Math.max(largestBalance, loans.outstanding[slot]);
+                if (loans.installment[slot] == amount || loans.outstanding[slot] == amount) {
+                    exact++;
+                    exactSlot = slot;
+                }
+            }
+            if (exact != 1) {
+                UnmatchedLine.Reason reason;
+                if (exact > 1) {
+                    reason = UnmatchedLine.Reason.AMBIGUOUS;
+                } else if (open == 0) {
+                    reason = UnmatchedLine.Reason.NO_ACTIVE_LOAN;
+                } else if (amount > largestBalance) {
+                    reason = UnmatchedLine.Reason.EXCEEDS_BALANCE;
+                } else {
+                    reason = UnmatchedLine.Reason.INEXACT_AMOUNT;
+                }
+                unmatched(line, reason, open == 0 ? -1 : first, employeeId);
+                return;
+            }
+            int slot = exactSlot;
+
+            if (matches == matchSlot.length) {
+                int capacity = matches * 2;
+                matchSlot = Arrays.copyOf(matchSlot, capacity);
+                matchLine = Arrays.copyOf(matchLine, capacity);
+                matchCents = Arrays.copyOf(matchCents, capacity);
+                matchDate = Arrays.copyOf(matchDate, capacity);
+                matchBalanceAfter = Arrays.copyOf(matchBalanceAfter, capacity);
+                matchBankRef = Arrays.copyOf(matchBankRef, capacity);
+            }
+            loans.outstanding[slot] -= amount;
+            matchSlot[matches] = slot;
+            matchLine[matches] = line.number;
+            matchCents[matches] = amount;
+            matchDate[matches] = line.valueDate;
+            matchBalanceAfter[matches] = loans.outstanding[slot];
+            matchBankRef[matches] = line.bankRef();
+            matches++;
+            matchedCents += amount;
+        }
+
+        private String candidates(int first, long employeeId) {
+            StringJoiner joiner = new StringJoiner(", ");
+            for (int slot = first; slot < loans.size && loans.employeeIds[slot] == employeeId; slot++) {
+                if (loans.outstanding[slot] > 0) {
+                    joiner.add("loan " + loans.loanIds[slot] + " (balance " + BigDecimal.valueOf(loans.outstanding[slot], 2)
+                            + (loans.installment[slot] >= 0 ? ", installment " + BigDecimal.valueOf(loans.installment[slot], 2) : "")
+                            + ")");
+                }
+            }
+            return joiner.toString();
+        }
+
+        // Text is only materialized for the lines that make it into the report
+        private void unmatched(StatementParser.Line line, UnmatchedLine.Reason reason, int first, long employeeId) {
+            if (count(reason)) {
+                exceptions.add(new UnmatchedLine(line.number, line.bankRef(), line.reference(), line.amount(), reason,
+                        first < 0 ? null : candidates(first, employeeId)));
+            }
+        }
+
+        // A match that turned out not to be postable when its chunk was applied
+        private void withdraw(int match, UnmatchedLine.Reason reason, String candidates) {
+            withdrawn++;
+            matchedCents -= matchCents[match];
+            if (count(reason)) {
+                exceptions.add(new UnmatchedLine(matchLine[match], matchBankRef[match],
+                        String.valueOf(loans.employeeIds[matchSlot[match]]),
+                        BigDecimal.valueOf(matchCents[match], 2).toPlainString(), reason, candidates));
+            }
+        }
+
+        private boolean count(UnmatchedLine.Reason reason) {
+            unmatchedCounts[reason.ordinal()]++;
+            return exceptions.size() < maxReportedExceptions;
+        }
+    }
+}
@@ -1,38 +1,124 @@
 package com.unilak.employeeloan.service;
 
+import com.unilak.employeeloan.dto.BatchGetResponse;
 import com.unilak.employeeloan.dto.RepaymentRequest;
+import com.unilak.employeeloan.event.LoanEvent;
 import com.unilak.employeeloan.exception.ResourceNotFoundException;
 import com.unilak.employeeloan.model.Accountant;
+import com.unilak.employeeloan.model.ArchivedLoanApplication;
 import com.unilak.employeeloan.model.LoanApplication;
 import com.unilak.employeeloan.model.Repayment;
 import com.unilak.employeeloan.repository.AccountantRepository;
+import com.unilak.employeeloan.repository.ArchivedLoanApplicationRepository;
 import com.unilak.employeeloan.repository.LoanApplicationRepository;
 import com.unilak.employeeloan.repository.RepaymentRepository;
+import com.unilak.employeeloan.repository.SparseFieldQuery;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.Hibernate;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 public class RepaymentService {
 
+    private static final Set<String> STAFF_ROLES = Set.of("ROLE_ADMIN", "ROLE_ACCOUNTANT", "ROLE_LOAN_OFFICER");
+
     private final RepaymentRepository repaymentRepository;
     private final LoanApplicationRepository loanApplicationRepository;
+    private final ArchivedLoanApplicationRepository archivedLoanApplicationRepository;
     private final AccountantRepository accountantRepository;
+    private final ExposureService exposureService;
+    private final SearchIndexService searchIndexService;
+    private final VersionStampService versionStampService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SparseFieldQuery sparseFieldQuery;
 
+    @Transactional(readOnly = true)
     public List<Repayment> getAllRepayments() {
-        return repaymentRepository.findAll();
+        // Through the loans: every repayment serializes its loan's balance, and the loan graph fetches
+        // all of them in one query instead of a batch of repayments per hundred loans
+        List<Repayment> repayments = new ArrayList<>();
+        for (LoanApplication loan : loanApplicationRepository.findAll()) {
+            repayments.addAll(loan.getRepayments());
+        }
+        repayments.sort(Comparator.comparing(Repayment::getRepaymentId));
+        for (ArchivedLoanApplication archived : archivedLoanApplicationRepository.findAllWithRepayments()) {
+            repayments.addAll(archived.toLoanApplication().getRepayments());
+        }
+        return repayments;
     }
 
+    @Transactional(readOnly = true)
     public List<Repayment> getRepaymentsByLoanId(Long loanId) {
-        return repaymentRepository.findByLoanApplicationLoanId(loanId);
+        List<Repayment> repayments = initializeLoanRepayments(repaymentRepository.findByLoanApplicationLoanId(loanId));
+        if (!repayments.isEmpty()) {
+            return repayments;
+        }
+        return archivedLoanApplicationRepository.findWithRepaymentsByLoanId(loanId)
+                .map(archived -> archived.toLoanApplication().getRepayments())
+                .orElse(repayments);
+    }
+
+    /**
+     * Looks up a batch of repayments, live and archived. Staff who can list repayments see every
+     * one; an employee only those on their own loans.
+     */
+    @Transactional(readOnly = true)
+    public BatchGetResponse<Repayment> getRepaymentsByIds(List<Long> ids) {
+        Set<Long> wanted = new LinkedHashSet<>(ids);
+        Map<Long, Repayment> found = new HashMap<>();
+        initializeLoanRepayments(repaymentRepository.findAllById(wanted))
+                .forEach(repayment -> found.put(repayment.getRepaymentId(), repayment));
+        if (found.size() < wanted.size()) {
+            List<Long> missing = wanted.stream().filter(id -> !found.containsKey(id)).toList();
+            for (ArchivedLoanApplication archived : archivedLoanApplicationRepository.findWithRepaymentsByRepaymentIdIn(missing)) {
+                archived.toLoanApplication().getRepayments().stream()
+                        .filter(repayment -> wanted.contains(repayment.getRepaymentId()))
+                        .forEach(repayment -> found.put(repayment.getRepaymentId(), repayment));
+            }
+        }
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        boolean staff = auth.getAuthorities().stream().map(GrantedAuthority::getAuthority)
+                .anyMatch(STAFF_ROLES::contains);
+        return BatchGetResponse.of(wanted, found, repayment -> staff
+                || repayment.getLoanApplication().getEmployee().getEmail().equals(auth.getName()));
+    }
+
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getAllRepayments(String fields) {
+        return sparseFieldQuery.find(SparseFieldQuery.REPAYMENTS, fields, q -> null, true);
     }
 
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getRepaymentsByLoanId(Long loanId, String fields) {
+        // A loan's repayments are either all live or all archived, so one side is always empty
+        return sparseFieldQuery.find(SparseFieldQuery.REPAYMENTS, fields, q -> q.cb().equal(q.archived()
+                ? q.root().get("loanId") : q.root().get("loanApplication").get("loanId"), loanId), true);
+    }
+
+    // Each repayment serializes its loan's totals, which read the loan's repayments; load those
+    // collections while the transaction is open (a batch of loans per query)
+    private List<Repayment> initializeLoanRepayments(List<Repayment> repayments) {
+        repayments.forEach(repayment -> Hibernate.initialize(repayment.getLoanApplication().getRepayments()));
+        return repayments;
+    }
+
+    @Transactional
     public Repayment createRepayment(RepaymentRequest request) {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         String email = auth.getName();
@@ -64,14 +150,31 @@ public class RepaymentService {
         // Add repayment to loan's collection to maintain bidirectional relationship
         loan.getRepayments().add(savedRepayment);
 
+        boolean wasActive = loan.getStatus() == LoanApplication.LoanStatus.APPROVED;
+
         // Auto-complete loan if fully paid
         if (repayment.getBalance().compareTo(BigDecimal.ZERO) == 0) {
             loan.setStatus(LoanApplication.LoanStatus.COMPLETED);
+            loan.setClosedDate(repayment.getPaymentDate());
         }
         
         // Save the loan to update status and maintain relationship
         loanApplicationRepository.save(loan);
 
+        if (wasActive) {
+            boolean completed = loan.getStatus() == LoanApplication.LoanStatus.COMPLETED;
+            exposureService.onRepaymentPosted(loan, savedRepayment.getAmountPaid(), completed);
+            if (completed) {
+                searchIndexService.indexLoan(loan);
+            }
+        }
+        versionStampService.loansChanged(loan.getEmployee().getEmail());
+
+        eventPublisher.publishEvent(LoanEvent.repaymentPosted(savedRepayment, email));
+        if (wasActive && loan.getStatus() == LoanApplication.LoanStatus.COMPLETED) {
+            eventPublisher.publishEvent(LoanEvent.of(LoanEvent.Type.LOAN_COMPLETED, loan, email));
+        }
+
         return savedRepayment;
     }
 }
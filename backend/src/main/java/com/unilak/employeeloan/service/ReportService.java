@@ -0,0 +1,181 @@
+package com.unilak.employeeloan.service;
+
+import com.unilak.employeeloan.dto.StatusTotals;
+import com.unilak.employeeloan.model.LoanApplication;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Builds the reports and keeps the last result of each, tagged with the LOANS version it was
+ * computed at. Every loan and repayment write bumps that version, so a result is current exactly
+ * while the version is unchanged.
+ * <p>
+ * Once the version moves on, the first request starts a background rebuild and everyone is served
+ * the previous result for up to report-cache.max-stale milliseconds. After that, or when there is
+ * no result yet, requests wait for the rebuild. There is never more than one rebuild per report,
+ * so a burst of requests costs one computation.
+ */
+@Service
+@Slf4j
+public class ReportService {
+
+    private static final String OUTSTANDING = "outstanding";
+    private static final String SUMMARY = "summary";
+
+    private final LoanApplicationService loanApplicationService;
+    private final VersionStampService versionStampService;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService refreshers;
+
+    private final Map<String, Cached> cache = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<Cached>> refreshing = new ConcurrentHashMap<>();
+    private final AtomicLong fresh = new AtomicLong();
+    private final AtomicLong stale = new AtomicLong();
+    private final AtomicLong waited = new AtomicLong();
+    private final AtomicLong computed = new AtomicLong();
+
+    @Value("${report-cache.max-stale}")
+    private long maxStaleMillis;
+
+    public ReportService(LoanApplicationService loanApplicationService, VersionStampService versionStampService,
+                         TransactionTemplate transactionTemplate) {
+        this.loanApplicationService = loanApplicationService;
+        this.versionStampService = versionStampService;
+        this.transactionTemplate = transactionTemplate;
+        AtomicLong threadIds = new AtomicLong();
+        // At most one rebuild per report runs at a time, so this never grows past the number of reports
+        this.refreshers = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "report-refresh-" + threadIds.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshers.shutdownNow();
+    }
+
+    public Report getOutstandingReport() {
+        return get(OUTSTANDING, () -> {
+            List<LoanApplication> approvedLoans = loanApplicationService.getLoansByStatus(LoanApplication.LoanStatus.APPROVED);
+
+            BigDecimal totalOutstanding = approvedLoans.stream()
+                    .map(LoanApplication::getOutstandingBalance)
+                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+
+            Map<String, Object> report = new HashMap<>();
+            report.put("totalOutstandingLoans", approvedLoans.size());
+            report.put("totalOutstandingAmount", totalOutstanding);
+            report.put("loans", approvedLoans);
+            return report;
+        });
+    }
+
+    public Report getSummaryReport() {
+        return get(SUMMARY, () -> {
+            Map<LoanApplication.LoanStatus, StatusTotals> totals = loanApplicationService.getStatusTotals();
+
+            BigDecimal totalDisbursed = totals.get(LoanApplication.LoanStatus.APPROVED).getTotalAmount()
+                    .add(totals.get(LoanApplication.LoanStatus.COMPLETED).getTotalAmount());
+
+            Map<String, Object> summary = new HashMap<>();
+            summary.put("totalLoans", totals.values().stream().mapToLong(StatusTotals::getCount).sum());
+            summary.put("pendingLoans", totals.get(LoanApplication.LoanStatus.PENDING).getCount());
+            summary.put("approvedLoans", totals.get(LoanApplication.LoanStatus.APPROVED).getCount());
+            summary.put("completedLoans", totals.get(LoanApplication.LoanStatus.COMPLETED).getCount());
+            summary.put("rejectedLoans", totals.get(LoanApplication.LoanStatus.REJECTED).getCount());
+            summary.put("totalDisbursed", totalDisbursed);
+            return summary;
+        });
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("fresh", fresh.get());
+        stats.put("servedStale", stale.get());
+        stats.put("waitedForRefresh", waited.get());
+        stats.put("computed", computed.get());
+        stats.put("refreshing", refreshing.size());
+        stats.put("maxStaleMillis", maxStaleMillis);
+        return stats;
+    }
+
+    private Report get(String name, Supplier<Map<String, Object>> build) {
+        long version = versionStampService.version(VersionStampService.Aggregate.LOANS);
+        Cached cached = cache.get(name);
+        if (cached != null && cached.report().version() == version) {
+            fresh.incrementAndGet();
+            return cached.report();
+        }
+        CompletableFuture<Cached> refresh = refresh(name, build);
+        if (cached != null) {
+            long now = System.nanoTime();
+            cached.staleSince().compareAndSet(0, now);
+            if (now - cached.staleSince().get() <= maxStaleMillis * 1_000_000) {
+                stale.incrementAndGet();
+                return cached.report();
+            }
+        }
+        waited.incrementAndGet();
+        try {
+            return refresh.join().report();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private CompletableFuture<Cached> refresh(String name, Supplier<Map<String, Object>> build) {
+        CompletableFuture<Cached> refresh = refreshing.computeIfAbsent(name, key -> CompletableFuture.supplyAsync(() -> {
+            // Read before building: a write that lands mid-build leaves the result already stale
+            long version = versionStampService.version(VersionStampService.Aggregate.LOANS);
+            long started = System.nanoTime();
+            Map<String, Object> body;
+            try {
+                // Built on the primary: the version only says what has committed there, and a lagging
+                // replica would cache older data under it. The read-only service methods join this transaction
+                body = transactionTemplate.execute(status -> build.get());
+            } catch (RuntimeException e) {
+                log.warn("Failed to rebuild {} report", name, e);
+                throw e;
+            }
+            Cached result = new Cached(new Report(body, version), new AtomicLong());
+            computed.incrementAndGet();
+            cache.merge(name, result, (current, built) -> built.report().version() >= current.report().version() ? built : current);
+            log.debug("Rebuilt {} report at version {} in {} ms", name, version, (System.nanoTime() - started) / 1_000_000);
+            return result;
+        }, refreshers));
+        // Registered outside computeIfAbsent, which must not see the map change underneath it
+        refresh.whenComplete((result, error) -> refreshing.remove(name, refresh));
+        return refresh;
+    }
+
+    // staleSince is 0 until a request first finds the result out of date
+    private record Cached(Report report, AtomicLong staleSince) {
+    }
+
+    /**
+     * A report body and the LOANS version it was built at, which is what its ETag must describe
+     * when a stale result is served.
+     */
+    public record Report(Map<String, Object> body, long version) {
+    }
+}
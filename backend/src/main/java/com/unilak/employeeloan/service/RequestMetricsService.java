@@ -0,0 +1,178 @@
+package com.unilak.employeeloan.service;
+
+import com.unilak.employeeloan.dto.SlowRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Latency histograms per method, route template and status, plus a flight recorder of the slowest
+ * requests seen within the recent window. The common case (a histogram that already exists and a
+ * request faster than every recorded one) takes no lock and allocates nothing; only a request
+ * slow enough to enter the recorder synchronizes.
+ */
+@Service
+public class RequestMetricsService {
+
+    public static final String UNMATCHED_ROUTE = "UNMATCHED";
+
+    private static final int MAX_STATUS = 600;
+
+    private final Map<String, Map<String, AtomicReferenceArray<LatencyHistogram>>> histograms = new ConcurrentHashMap<>();
+
+    private final SlowRequest[] slowest;
+    private final long[] slowestNanos;
+    private final long[] slowestAt;
+    private volatile long slowThresholdNanos;
+    private volatile long oldestSlowAt;
+
+    @Value("${request-metrics.slow-window}")
+    private long slowWindow;
+
+    public RequestMetricsService(@Value("${request-metrics.slow-requests}") int slowRequests) {
+        slowest = new SlowRequest[slowRequests];
+        slowestNanos = new long[slowRequests];
+        slowestAt = new long[slowRequests];
+    }
+
+    public void record(String method, String route, String path, int status, String user, long sqlStatements,
+                       long authNanos, long serviceNanos, long serializationNanos, long totalNanos) {
+        histogram(method, route, status).record(TimeUnit.NANOSECONDS.toMicros(totalNanos));
+
+        long now = System.currentTimeMillis();
+        if (totalNanos < slowThresholdNanos && now - oldestSlowAt < slowWindow) {
+            return;
+        }
+        synchronized (slowest) {
+            int slot = slotFor(totalNanos, now);
+            if (slot < 0) {
+                return;
+            }
+            slowest[slot] = SlowRequest.builder()
+                    .timestamp(LocalDateTime.ofInstant(Instant.ofEpochMilli(now), ZoneId.systemDefault()))
+                    .method(method)
+                    .route(route)
+                    .path(path)
+                    .status(status)
+                    .user(user)
+                    .sqlStatements(sqlStatements)
+                    .totalMs(toMillis(totalNanos))
+                    .authMs(toMillis(authNanos))
+                    .serviceMs(toMillis(serviceNanos))
+                    .serializationMs(toMillis(serializationNanos))
+                    .build();
+            slowestNanos[slot] = totalNanos;
+            slowestAt[slot] = now;
+            updateThreshold();
+        }
+    }
+
+    public Map<String, Object> getLatency() {
+        List<Map<String, Object>> routes = new ArrayList<>();
+        histograms.forEach((method, byRoute) -> byRoute.forEach((route, byStatus) -> {
+            for (int status = 0; status < MAX_STATUS; status++) {
+                LatencyHistogram histogram = byStatus.get(status);
+                if (histogram != null) {
+                    routes.add(describe(method, route, status, histogram.snapshot()));
+                }
+            }
+        }));
+        routes.sort(Comparator.comparing((Map<String, Object> route) -> (Double) route.get("p99Ms")).reversed());
+
+        Map<String, Object> latency = new HashMap<>();
+        latency.put("routes", routes);
+        return latency;
+    }
+
+    public List<SlowRequest> getSlowRequests() {
+        long cutoff = System.currentTimeMillis() - slowWindow;
+        List<SlowRequest> requests = new ArrayList<>();
+        synchronized (slowest) {
+            for (int i = 0; i < slowest.length; i++) {
+                if (slowest[i] != null && slowestAt[i] >= cutoff) {
+                    requests.add(slowest[i]);
+                }
+            }
+        }
+        requests.sort(Comparator.comparingDouble(SlowRequest::getTotalMs).reversed());
+        return requests;
+    }
+
+    private LatencyHistogram histogram(String method, String route, int status) {
+        Map<String, AtomicReferenceArray<LatencyHistogram>> byRoute = histograms.get(method);
+        if (byRoute == null) {
+            byRoute = histograms.computeIfAbsent(method, key -> new ConcurrentHashMap<>());
+        }
+        AtomicReferenceArray<LatencyHistogram> byStatus = byRoute.get(route);
+        if (byStatus == null) {
+            byStatus = byRoute.computeIfAbsent(route, key -> new AtomicReferenceArray<>(MAX_STATUS));
+        }
+        int index = status >= 0 && status < MAX_STATUS ? status : 0;
+        LatencyHistogram histogram = byStatus.get(index);
+        if (histogram == null) {
+            byStatus.compareAndSet(index, null, new LatencyHistogram());
+            histogram = byStatus.get(index);
+        }
+        return histogram;
+    }
+
+    // An empty slot first, then one that has aged out of the window, then the fastest recorded
+    // request if this one is slower
+    private int slotFor(long totalNanos, long now) {
+        int fastest = -1;
+        for (int i = 0; i < slowest.length; i++) {
+            if (slowest[i] == null || now - slowestAt[i] >= slowWindow) {
+                return i;
+            }
+            if (fastest < 0 || slowestNanos[i] < slowestNanos[fastest]) {
+                fastest = i;
+            }
+        }
+        return fastest >= 0 && totalNanos > slowestNanos[fastest] ? fastest : -1;
+    }
+
+    private void updateThreshold() {
+        long threshold = Long.MAX_VALUE;
+        long oldest = Long.MAX_VALUE;
+        for (int i = 0; i < slowest.length; i++) {
+            if (slowest[i] == null) {
+                threshold = 0;
+                break;
+            }
+            threshold = Math.min(threshold, slowestNanos[i]);
+            oldest = Math.min(oldest, slowestAt[i]);
+        }
+        slowThresholdNanos = threshold;
+        oldestSlowAt = threshold == 0 ? 0 : oldest;
+    }
+
+    private static Map<String, Object> describe(String method, String route, int status, LatencyHistogram.Snapshot snapshot) {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("method", method);
+        stats.put("route", route);
+        stats.put("status", status);
+        stats.put("count", snapshot.count());
+        stats.put("meanMs", snapshot.mean() / 1000.0);
+        stats.put("p50Ms", snapshot.percentile(50) / 1000.0);
+        stats.put("p90Ms", snapshot.percentile(90) / 1000.0);
+        stats.put("p99Ms", snapshot.percentile(99) / 1000.0);
+        stats.put("p999Ms", snapshot.percentile(99.9) / 1000.0);
+        stats.put("maxMs", snapshot.max() / 1000.0);
+        return stats;
+    }
+
+    private static double toMillis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos) / 1000.0;
+    }
+}
@@ -0,0 +1,290 @@
+package com.unilak.employeeloan.service;
+
+import com.unilak.employeeloan.dto.SearchHit;
+import com.unilak.employeeloan.dto.SearchResponse;
+import com.unilak.employeeloan.model.ArchivedLoanApplication;
+import com.unilak.employeeloan.model.Employee;
+import com.unilak.employeeloan.model.LoanApplication;
+import com.unilak.employeeloan.repository.ArchivedLoanApplicationRepository;
+import com.unilak.employeeloan.repository.EmployeeRepository;
+import com.unilak.employeeloan.repository.LoanApplicationRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-process inverted index over employees and loan applications. Terms live in a sorted map so
+ * that prefix queries ("jo*") are a range scan; each document keeps the terms it was indexed
+ * under so that updates and removals only touch its own postings.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SearchIndexService {
+
+    public enum DocType { LOAN, EMPLOYEE }
+
+    private final EmployeeRepository employeeRepository;
+    private final LoanApplicationRepository loanApplicationRepository;
+    private final ArchivedLoanApplicationRepository archivedLoanApplicationRepository;
+
+    private final NavigableMap<String, Set<DocRef>> postings = new ConcurrentSkipListMap<>();
+    private final Map<DocRef, Set<String>> docTerms = new ConcurrentHashMap<>();
+    private final Map<Long, EmployeeSource> employees = new ConcurrentHashMap<>();
+    private final Map<Long, LoanSource> loans = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Long>> loansByEmployee = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        List<Employee> allEmployees = employeeRepository.findAll();
+        allEmployees.parallelStream().forEach(employee -> putEmployee(EmployeeSource.of(employee)));
+        List<LoanApplication> allLoans = loanApplicationRepository.findAllForIndex();
+        allLoans.parallelStream().forEach(loan -> putLoan(LoanSource.of(loan)));
+        List<ArchivedLoanApplication> archivedLoans = archivedLoanApplicationRepository.findAll();
+        archivedLoans.parallelStream().forEach(loan -> putLoan(LoanSource.of(loan)));
+        log.info("Search index built with {} employees and {} loans ({} archived, {} terms) in {} ms",
+                allEmployees.size(), allLoans.size() + archivedLoans.size(), archivedLoans.size(), postings.size(),
+                System.currentTimeMillis() - start);
+    }
+
+    // Sources are captured from the entities right away and applied to the index after commit
+
+    public void indexEmployee(Employee employee) {
+        EmployeeSource source = EmployeeSource.of(employee);
+        AfterCommit.run(() -> {
+            putEmployee(source);
+            // Loan documents carry the employee's name and department, so re-tokenize them as well
+            for (Long loanId : loansByEmployee.getOrDefault(source.id(), Set.of())) {
+                LoanSource loan = loans.get(loanId);
+                if (loan != null) {
+                    putLoan(loan);
+                }
+            }
+        });
+    }
+
+    public void removeEmployee(Long employeeId) {
+        AfterCommit.run(() -> {
+            employees.remove(employeeId);
+            remove(new DocRef(DocType.EMPLOYEE, employeeId));
+            Set<Long> loanIds = loansByEmployee.remove(employeeId);
+            if (loanIds != null) {
+                loanIds.forEach(this::unindexLoan);
+            }
+        });
+    }
+
+    public void indexLoan(LoanApplication loan) {
+        LoanSource source = LoanSource.of(loan);
+        AfterCommit.run(() -> putLoan(source));
+    }
+
+    public void removeLoan(Long loanId) {
+        AfterCommit.run(() -> unindexLoan(loanId));
+    }
+
+    private void unindexLoan(Long loanId) {
+        LoanSource removed = loans.remove(loanId);
+        if (removed != null) {
+            Set<Long> siblings = loansByEmployee.get(removed.employeeId());
+            if (siblings != null) {
+                siblings.remove(loanId);
+            }
+        }
+        remove(new DocRef(DocType.LOAN, loanId));
+    }
+
+    public SearchResponse search(String query, DocType type, int page, int size) {
+        // A trailing '*' turns a query token into a prefix match, e.g. "jo* it"
+        List<String> queryTerms = tokenize(query, true);
+        if (queryTerms.isEmpty()) {
+            return new SearchResponse(query, 0, page, size, List.of());
+        }
+
+        List<Set<DocRef>> matches = new ArrayList<>(queryTerms.size());
+        for (String term : queryTerms) {
+            Set<DocRef> docs = lookup(term);
+            if (docs.isEmpty()) {
+                return new SearchResponse(query, 0, page, size, List.of());
+            }
+            matches.add(docs);
+        }
+        matches.sort(Comparator.comparingInt(Set::size));
+
+        List<DocRef> results = new ArrayList<>();
+        for (DocRef ref : matches.get(0)) {
+            if ((type == null || ref.type() == type) && containedInAll(ref, matches)) {
+                results.add(ref);
+            }
+        }
+        results.sort(Comparator.comparing(DocRef::type).thenComparing(DocRef::id, Comparator.reverseOrder()));
+
+        // Long math: a large page would overflow int and make the offset negative
+        int from = (int) Math.min((long) page * size, results.size());
+        int to = Math.min(from + size, results.size());
+        List<SearchHit> hits = new ArrayList<>(to - from);
+        for (DocRef ref : results.subList(from, to)) {
+            SearchHit hit = toHit(ref);
+            if (hit != null) {
+                hits.add(hit);
+            }
+        }
+        return new SearchResponse(query, results.size(), page, size, hits);
+    }
+
+    private Set<DocRef> lookup(String term) {
+        if (!term.endsWith("*")) {
+            return postings.getOrDefault(term, Set.of());
+        }
+        String prefix = term.substring(0, term.length() - 1);
+        Set<DocRef> union = new HashSet<>();
+        for (Set<DocRef> docs : postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+            union.addAll(docs);
+        }
+        return union;
+    }
+
+    private boolean containedInAll(DocRef ref, List<Set<DocRef>> matches) {
+        for (int i = 1; i < matches.size(); i++) {
+            if (!matches.get(i).contains(ref)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private SearchHit toHit(DocRef ref) {
+        if (ref.type() == DocType.EMPLOYEE) {
+            EmployeeSource employee = employees.get(ref.id());
+            return employee == null ? null : new SearchHit(ref.type().name(), employee.id(), employee.name(),
+                    employee.email() + (employee.department() != null ? " · " + employee.department() : ""));
+        }
+        LoanSource loan = loans.get(ref.id());
+        if (loan == null) {
+            return null;
+        }
+        EmployeeSource employee = employees.get(loan.employeeId());
+        String employeeName = employee != null ? employee.name() : "Employee #" + loan.employeeId();
+        return new SearchHit(ref.type().name(), loan.loanId(), "Loan #" + loan.loanId() + " · " + employeeName,
+                loan.loanTypeName() + " · " + loan.status());
+    }
+
+    private void putEmployee(EmployeeSource employee) {
+        employees.put(employee.id(), employee);
+        Set<String> terms = new HashSet<>();
+        addTerms(terms, employee.name(), employee.email(), employee.department());
+        replace(new DocRef(DocType.EMPLOYEE, employee.id()), terms);
+    }
+
+    private void putLoan(LoanSource loan) {
+        loans.put(loan.loanId(), loan);
+        loansByEmployee.computeIfAbsent(loan.employeeId(), id -> ConcurrentHashMap.newKeySet()).add(loan.loanId());
+        Set<String> terms = new HashSet<>();
+        addTerms(terms, loan.loanTypeName(), loan.remarks(), loan.rejectionReason(), loan.status());
+        EmployeeSource employee = employees.get(loan.employeeId());
+        if (employee != null) {
+            addTerms(terms, employee.name(), employee.email(), employee.department());
+        }
+        replace(new DocRef(DocType.LOAN, loan.loanId()), terms);
+    }
+
+    private void replace(DocRef ref, Set<String> terms) {
+        docTerms.compute(ref, (key, previous) -> {
+            if (previous != null) {
+                for (String term : previous) {
+                    if (!terms.contains(term)) {
+                        unpost(term, key);
+                    }
+                }
+            }
+            for (String term : terms) {
+                postings.compute(term, (t, docs) -> {
+                    Set<DocRef> updated = docs != null ? docs : ConcurrentHashMap.newKeySet();
+                    updated.add(key);
+                    return updated;
+                });
+            }
+            return terms;
+        });
+    }
+
+    private void remove(DocRef ref) {
+        docTerms.computeIfPresent(ref, (key, previous) -> {
+            previous.forEach(term -> unpost(term, key));
+            return null;
+        });
+    }
+
+    private void unpost(String term, DocRef ref) {
+        postings.computeIfPresent(term, (t, docs) -> {
+            docs.remove(ref);
+            return docs.isEmpty() ? null : docs;
+        });
+    }
+
+    private static void addTerms(Collection<String> terms, String... values) {
+        for (String value : values) {
+            terms.addAll(tokenize(value, false));
+        }
+    }
+
+    private static List<String> tokenize(String text, boolean allowWildcard) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        StringBuilder current = new StringBuilder();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                current.append(Character.toLowerCase(c));
+            } else if (current.length() > 0) {
+                if (allowWildcard && c == '*') {
+                    current.append(c);
+                }
+                tokens.add(current.toString());
+                current.setLength(0);
+            }
+        }
+        if (current.length() > 0) {
+            tokens.add(current.toString());
+        }
+        return tokens;
+    }
+
+    private record DocRef(DocType type, Long id) {
+    }
+
+    private record EmployeeSource(Long id, String name, String email, String department) {
+        static EmployeeSource of(Employee employee) {
+            return new EmployeeSource(employee.getId(), employee.getName(), employee.getEmail(), employee.getDepartment());
+        }
+    }
+
+    private record LoanSource(Long loanId, Long employeeId, String loanTypeName, String remarks,
+                              String rejectionReason, String status) {
+        static LoanSource of(LoanApplication loan) {
+            return new LoanSource(loan.getLoanId(), loan.getEmployee().getId(), loan.getLoanType().getName(),
+                    loan.getRemarks(), loan.getRejectionReason(), loan.getStatus().name());
+        }
+
+        static LoanSource of(ArchivedLoanApplication loan) {
+            return new LoanSource(loan.getLoanId(), loan.getEmployee().getId(), loan.getLoanType().getName(),
+                    loan.getRemarks(), loan.getRejectionReason(), loan.getStatus().name());
+        }
+    }
+}
@@ -0,0 +1,602 @@
+package com.unilak.employeeloan.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32C;
+
+/**
+ * Dumps the business tables to a compact binary file and loads them back into an empty database.
+ *
+ * <p>Layout: an 8-byte magic, format version, schema fingerprint and creation time, then per
+ * table its column names and JDBC types followed by rows (a null bitmap plus the non-null values),
+ * and finally a CRC32C of everything before it. The fingerprint covers every table, column and type
+ * so that a snapshot taken before a model change is rejected instead of half-loaded.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SnapshotService {
+
+    // Parents before children so foreign keys hold while loading
+    static final List<String> TABLES = List.of("loan_types", "users", "admins", "employees", "loan_officers",
+            "accountants", "loan_applications", "repayments", "loan_applications_archive", "repayments_archive");
+
+    private static final byte[] MAGIC = "ELOANSNP".getBytes(StandardCharsets.US_ASCII);
+    private static final int FORMAT_VERSION = 1;
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final byte ROW = 1;
+    private static final byte END_OF_TABLE = 0;
+
+    private final DataSource dataSource;
+
+    @Value("${snapshot.path}")
+    private String snapshotPath;
+
+    @Value("${snapshot.batch-size}")
+    private int batchSize;
+
+    @Value("${snapshot.restore-threads}")
+    private int threads;
+
+    public Path getPath() {
+        return Path.of(snapshotPath);
+    }
+
+    public Map<String, Object> save() {
+        long start = System.currentTimeMillis();
+        Path target = getPath();
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        Map<String, Long> rowCounts = new LinkedHashMap<>();
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setReadOnly(true);
+            connection.setAutoCommit(false);
+            // One transaction across all tables, so that the snapshot is internally consistent
+            connection.setTransactionIsolation(Connection.TRANSACTION_SERIALIZABLE);
+            if (target.getParent() != null) {
+                Files.createDirectories(target.getParent());
+            }
+            try (SnapshotWriter out = new SnapshotWriter(FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE))) {
+                out.putRaw(MAGIC);
+                out.putInt(FORMAT_VERSION);
+                out.putInt(schemaFingerprint(connection));
+                out.putLong(System.currentTimeMillis());
+                out.putInt(TABLES.size());
+                for (String table : TABLES) {
+                    rowCounts.put(table, writeTable(connection, table, out));
+                }
+                out.finish();
+            }
+            connection.commit();
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to read tables for snapshot", e);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write snapshot " + target, e);
+        }
+
+        long bytes = sizeOf(target);
+        long duration = System.currentTimeMillis() - start;
+        log.info("Wrote snapshot {} ({} bytes, {} rows) in {} ms", target, bytes,
+                rowCounts.values().stream().mapToLong(Long::longValue).sum(), duration);
+        return result(target, bytes, rowCounts, duration);
+    }
+
+    public Map<String, Object> restore() {
+        long start = System.currentTimeMillis();
+        Path source = getPath();
+        Map<String, Long> rowCounts = new LinkedHashMap<>();
+        try (Connection connection = dataSource.getConnection()) {
+            requireEmpty(connection);
+            verifyChecksum(source);
+            try (SnapshotReader in = new SnapshotReader(FileChannel.open(source, StandardOpenOption.READ))) {
+                byte[] magic = in.getRaw(MAGIC.length);
+                if (!Arrays.equals(magic, MAGIC)) {
+                    throw new IllegalStateException(source + " is not a loan snapshot");
+                }
+                int version = in.getInt();
+                if (version != FORMAT_VERSION) {
+                    throw new IllegalStateException("Unsupported snapshot format version " + version);
+                }
+                int fingerprint = in.getInt();
+                if (fingerprint != schemaFingerprint(connection)) {
+                    throw new IllegalStateException("Snapshot " + source + " was taken with a different schema");
+                }
+                long createdAt = in.getLong();
+                int tableCount = in.getInt();
+
+                ExecutorService executor = Executors.newFixedThreadPool(threads);
+                try {
+                    for (int t = 0; t < tableCount; t++) {
+                        String table = in.getString();
+                        rowCounts.put(table, loadTable(connection, table, in, executor));
+                    }
+                } finally {
+                    executor.shutdownNow();
+                }
+                log.info("Snapshot {} was created at {}", source, Instant.ofEpochMilli(createdAt));
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to load snapshot " + source, e);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read snapshot " + source, e);
+        }
+
+        long duration = System.currentTimeMillis() - start;
+        log.info("Restored snapshot {} ({} rows) in {} ms", source,
+                rowCounts.values().stream().mapToLong(Long::longValue).sum(), duration);
+        return result(source, sizeOf(source), rowCounts, duration);
+    }
+
+    private long writeTable(Connection connection, String table, SnapshotWriter out) throws SQLException, IOException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("select * from " + table)) {
+            ResultSetMetaData meta = rows.getMetaData();
+            int columns = meta.getColumnCount();
+            int[] types = new int[columns];
+            out.putString(table);
+            out.putInt(columns);
+            for (int c = 0; c < columns; c++) {
+                types[c] = meta.getColumnType(c + 1);
+                out.putString(meta.getColumnName(c + 1).toLowerCase());
+                out.putInt(types[c]);
+            }
+
+            Object[] values = new Object[columns];
+            byte[] nulls = new byte[(columns + 7) / 8];
+            long count = 0;
+            while (rows.next()) {
+                Arrays.fill(nulls, (byte) 0);
+                for (int c = 0; c < columns; c++) {
+                    values[c] = read(rows, c + 1, types[c]);
+                    if (values[c] == null) {
+                        nulls[c >> 3] |= (byte) (1 << (c & 7));
+                    }
+                }
+                out.putByte(ROW);
+                out.putRaw(nulls);
+                for (int c = 0; c < columns; c++) {
+                    if (values[c] != null) {
+                        write(out, types[c], values[c]);
+                    }
+                }
+                count++;
+            }
+            out.putByte(END_OF_TABLE);
+            return count;
+        }
+    }
+
+    private long loadTable(Connection connection, String table, SnapshotReader in, ExecutorService executor)
+            throws SQLException, IOException {
+        if (!TABLES.contains(table)) {
+            throw new IllegalStateException("Snapshot contains unknown table " + table);
+        }
+        int columns = in.getInt();
+        String[] names = new String[columns];
+        int[] types = new int[columns];
+        for (int c = 0; c < columns; c++) {
+            names[c] = in.getString();
+            types[c] = in.getInt();
+        }
+        String sql = "insert into " + table + " (" + String.join(", ", names) + ") values ("
+                + "?, ".repeat(columns - 1) + "?)";
+        byte[] nulls = new byte[(columns + 7) / 8];
+        Deque<Future<?>> inFlight = new ArrayDeque<>();
+        List<Object[]> batch = new ArrayList<>(batchSize);
+        long count = 0;
+        // Decoding stays on this thread; batches are inserted on pooled connections, with a bounded
+        // number outstanding so that a large table never sits decoded in memory all at once
+        while (in.getByte() == ROW) {
+            in.getRaw(nulls);
+            Object[] row = new Object[columns];
+            for (int c = 0; c < columns; c++) {
+                if ((nulls[c >> 3] & (1 << (c & 7))) == 0) {
+                    row[c] = decode(types[c], in);
+                }
+            }
+            batch.add(row);
+            count++;
+            if (batch.size() == batchSize) {
+                submit(executor, inFlight, sql, types, batch);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            submit(executor, inFlight, sql, types, batch);
+        }
+        // Every row of a table must be in before its children are loaded
+        while (!inFlight.isEmpty()) {
+            await(inFlight.poll());
+        }
+        restartIdentity(connection, table);
+        return count;
+    }
+
+    private void submit(ExecutorService executor, Deque<Future<?>> inFlight, String sql, int[] types, List<Object[]> rows) {
+        if (inFlight.size() >= threads * 2) {
+            await(inFlight.poll());
+        }
+        inFlight.add(executor.submit(() -> insertBatch(sql, types, rows)));
+    }
+
+    private Void insertBatch(String sql, int[] types, List<Object[]> rows) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement insert = connection.prepareStatement(sql)) {
+            // Restores only run against an empty database, so each batch commits on its own
+            // instead of the whole table sitting in one transaction's undo log
+            connection.setAutoCommit(false);
+            for (Object[] row : rows) {
+                for (int c = 0; c < types.length; c++) {
+                    if (row[c] == null) {
+                        insert.setNull(c + 1, types[c]);
+                    } else {
+                        insert.setObject(c + 1, row[c]);
+                    }
+                }
+                insert.addBatch();
+            }
+            insert.executeBatch();
+            connection.commit();
+        }
+        return null;
+    }
+
+    private static void await(Future<?> future) {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while restoring snapshot", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to insert snapshot rows", e.getCause());
+        }
+    }
+
+    private static Object read(ResultSet rows, int column, int type) throws SQLException {
+        return switch (type) {
+            case Types.BIGINT, Types.INTEGER, Types.SMALLINT, Types.TINYINT -> {
+                long value = rows.getLong(column);
+                yield rows.wasNull() ? null : value;
+            }
+            case Types.NUMERIC, Types.DECIMAL -> rows.getBigDecimal(column);
+            case Types.DOUBLE, Types.FLOAT, Types.REAL -> {
+                double value = rows.getDouble(column);
+                yield rows.wasNull() ? null : value;
+            }
+            case Types.BOOLEAN, Types.BIT -> {
+                boolean value = rows.getBoolean(column);
+                yield rows.wasNull() ? null : value;
+            }
+            case Types.DATE -> rows.getObject(column, LocalDate.class);
+            case Types.TIMESTAMP -> rows.getObject(column, LocalDateTime.class);
+            case Types.VARCHAR, Types.CHAR, Types.LONGVARCHAR, Types.CLOB, Types.NVARCHAR -> rows.getString(column);
+            case Types.VARBINARY, Types.BINARY, Types.LONGVARBINARY, Types.BLOB -> rows.getBytes(column);
+            default -> throw new IllegalStateException("Unsupported column type " + type);
+        };
+    }
+
+    private static void write(SnapshotWriter out, int type, Object value) throws IOException {
+        switch (type) {
+            case Types.BIGINT, Types.INTEGER, Types.SMALLINT, Types.TINYINT -> out.putLong((Long) value);
+            case Types.NUMERIC, Types.DECIMAL -> {
+                BigDecimal decimal = (BigDecimal) value;
+                out.putInt(decimal.scale());
+                out.putBytes(decimal.unscaledValue().toByteArray());
+            }
+            case Types.DOUBLE, Types.FLOAT, Types.REAL -> out.putLong(Double.doubleToRawLongBits((Double) value));
+            case Types.BOOLEAN, Types.BIT -> out.putByte((byte) ((Boolean) value ? 1 : 0));
+            case Types.DATE -> out.putLong(((LocalDate) value).toEpochDay());
+            case Types.TIMESTAMP -> {
+                LocalDateTime timestamp = (LocalDateTime) value;
+                out.putLong(timestamp.toLocalDate().toEpochDay());
+                out.putLong(timestamp.toLocalTime().toNanoOfDay());
+            }
+            case Types.VARBINARY, Types.BINARY, Types.LONGVARBINARY, Types.BLOB -> out.putBytes((byte[]) value);
+            default -> out.putString((String) value);
+        }
+    }
+
+    private static Object decode(int type, SnapshotReader in) throws IOException {
+        return switch (type) {
+            case Types.BIGINT, Types.INTEGER, Types.SMALLINT, Types.TINYINT -> in.getLong();
+            case Types.NUMERIC, Types.DECIMAL -> {
+                int scale = in.getInt();
+                yield new BigDecimal(new BigInteger(in.getBytes()), scale);
+            }
+            case Types.DOUBLE, Types.FLOAT, Types.REAL -> Double.longBitsToDouble(in.getLong());
+            case Types.BOOLEAN, Types.BIT -> in.getByte() != 0;
+            case Types.DATE -> LocalDate.ofEpochDay(in.getLong());
+            case Types.TIMESTAMP -> LocalDate.ofEpochDay(in.getLong()).atTime(LocalTime.ofNanoOfDay(in.getLong()));
+            case Types.VARBINARY, Types.BINARY, Types.LONGVARBINARY, Types.BLOB -> in.getBytes();
+            default -> in.getString();
+        };
+    }
+
+    private static int schemaFingerprint(Connection connection) throws SQLException {
+        CRC32C crc = new CRC32C();
+        for (String table : TABLES) {
+            try (Statement statement = connection.createStatement();
+                 ResultSet empty = statement.executeQuery("select * from " + table + " where 1 = 0")) {
+                ResultSetMetaData meta = empty.getMetaData();
+                crc.update(table.getBytes(StandardCharsets.UTF_8));
+                for (int c = 1; c <= meta.getColumnCount(); c++) {
+                    crc.update((meta.getColumnName(c).toLowerCase() + ":" + meta.getColumnType(c) + ";")
+                            .getBytes(StandardCharsets.UTF_8));
+                }
+            }
+        }
+        return (int) crc.getValue();
+    }
+
+    // Checked for every table up front, so a non-empty database is refused before any row is loaded
+    private static void requireEmpty(Connection connection) throws SQLException {
+        for (String table : TABLES) {
+            try (Statement statement = connection.createStatement();
+                 ResultSet existing = statement.executeQuery("select 1 from " + table + " limit 1")) {
+                if (existing.next()) {
+                    throw new IllegalStateException("Snapshots can only be restored into an empty database, "
+                            + table + " already has rows");
+                }
+            }
+        }
+    }
+
+    private static void restartIdentity(Connection connection, String table) throws SQLException {
+        List<String> identityColumns = new ArrayList<>();
+        try (PreparedStatement query = connection.prepareStatement("select column_name from information_schema.columns " +
+                "where lower(table_name) = ? and is_identity = 'YES'")) {
+            query.setString(1, table);
+            try (ResultSet rows = query.executeQuery()) {
+                while (rows.next()) {
+                    identityColumns.add(rows.getString(1));
+                }
+            }
+        }
+        for (String column : identityColumns) {
+            long next;
+            try (Statement statement = connection.createStatement();
+                 ResultSet max = statement.executeQuery("select coalesce(max(" + column + "), 0) + 1 from " + table)) {
+                max.next();
+                next = max.getLong(1);
+            }
+            // Rows were loaded with their original ids (H2 syntax)
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("alter table " + table + " alter column " + column + " restart with " + next);
+            }
+        }
+    }
+
+    private static void verifyChecksum(Path source) throws IOException {
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            long dataLength = channel.size() - Long.BYTES;
+            if (dataLength < MAGIC.length) {
+                throw new IllegalStateException(source + " is too short to be a snapshot");
+            }
+            CRC32C crc = new CRC32C();
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            long position = 0;
+            while (position < dataLength) {
+                buffer.clear();
+                buffer.limit((int) Math.min(BUFFER_SIZE, dataLength - position));
+                int read = channel.read(buffer, position);
+                if (read < 0) {
+                    throw new EOFException();
+                }
+                buffer.flip();
+                crc.update(buffer);
+                position += read;
+            }
+            ByteBuffer trailer = ByteBuffer.allocate(Long.BYTES);
+            channel.read(trailer, dataLength);
+            trailer.flip();
+            if (trailer.getLong() != crc.getValue()) {
+                throw new IllegalStateException("Snapshot " + source + " is corrupt (checksum mismatch)");
+            }
+        }
+    }
+
+    private static long sizeOf(Path path) {
+        try {
+            return Files.size(path);
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private static Map<String, Object> result(Path path, long bytes, Map<String, Long> rowCounts, long duration) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("path", path.toAbsolutePath().toString());
+        result.put("bytes", bytes);
+        result.put("rows", rowCounts);
+        result.put("durationMs", duration);
+        return result;
+    }
+
+    /**
+     * Buffered writer over a file channel that checksums everything it writes.
+     */
+    private static final class SnapshotWriter implements Closeable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private final CRC32C crc = new CRC32C();
+
+        private SnapshotWriter(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        void putByte(byte value) throws IOException {
+            ensure(1);
+            buffer.put(value);
+        }
+
+        void putInt(int value) throws IOException {
+            ensure(Integer.BYTES);
+            buffer.putInt(value);
+        }
+
+        void putLong(long value) throws IOException {
+            ensure(Long.BYTES);
+            buffer.putLong(value);
+        }
+
+        void putString(String value) throws IOException {
+            putBytes(value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        void putBytes(byte[] value) throws IOException {
+            putInt(value.length);
+            putRaw(value);
+        }
+
+        void putRaw(byte[] value) throws IOException {
+            if (value.length > BUFFER_SIZE) {
+                flush();
+                write(ByteBuffer.wrap(value));
+            } else {
+                ensure(value.length);
+                buffer.put(value);
+            }
+        }
+
+        void finish() throws IOException {
+            flush();
+            ByteBuffer trailer = ByteBuffer.allocate(Long.BYTES).putLong(crc.getValue());
+            trailer.flip();
+            while (trailer.hasRemaining()) {
+                channel.write(trailer);
+            }
+            channel.force(true);
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            write(buffer);
+            buffer.clear();
+        }
+
+        private void write(ByteBuffer data) throws IOException {
+            crc.update(data.duplicate());
+            while (data.hasRemaining()) {
+                channel.write(data);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    private static final class SnapshotReader implements Closeable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+        private SnapshotReader(FileChannel channel) {
+            this.channel = channel;
+            buffer.flip();
+        }
+
+        byte getByte() throws IOException {
+            ensure(1);
+            return buffer.get();
+        }
+
+        int getInt() throws IOException {
+            ensure(Integer.BYTES);
+            return buffer.getInt();
+        }
+
+        long getLong() throws IOException {
+            ensure(Long.BYTES);
+            return buffer.getLong();
+        }
+
+        String getString() throws IOException {
+            return new String(getBytes(), StandardCharsets.UTF_8);
+        }
+
+        byte[] getBytes() throws IOException {
+            return getRaw(getInt());
+        }
+
+        byte[] getRaw(int length) throws IOException {
+            byte[] value = new byte[length];
+            getRaw(value);
+            return value;
+        }
+
+        void getRaw(byte[] target) throws IOException {
+            int offset = 0;
+            while (offset < target.length) {
+                ensure(1);
+                int chunk = Math.min(buffer.remaining(), target.length - offset);
+                buffer.get(target, offset, chunk);
+                offset += chunk;
+            }
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() >= bytes) {
+                return;
+            }
+            buffer.compact();
+            while (buffer.position() < bytes) {
+                if (channel.read(buffer) < 0) {
+                    throw new EOFException("Snapshot ends unexpectedly");
+                }
+            }
+            buffer.flip();
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,300 @@
+package com.unilak.employeeloan.service;
+
+import com.unilak.employeeloan.dto.UnmatchedLine;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+
+/**
+ * Reads a bank statement CSV ({@code bank_ref,value_date,employee_ref,amount[,anything else]})
+ * from a memory-mapped file, a segment at a time. Each line is decoded in place into one reused
+ * {@link Line}: numbers are parsed from the bytes and the bank reference is kept as a hash, so
+ * no strings are created unless a caller asks for the text of a line.
+ */
+final class StatementParser {
+
+    private static final long SEGMENT_SIZE = 256L << 20;
+    // Bytes are copied out of the mapping a window at a time: one bulk copy, then plain array
+    // reads, which stay fast however many ByteBuffer implementations the JVM has seen
+    private static final int WINDOW_SIZE = 1 << 20;
+    // Column size of repayments.bank_ref
+    private static final int MAX_BANK_REF_BYTES = 255;
+
+    interface Handler {
+        void accept(Line line);
+    }
+
+    private StatementParser() {
+    }
+
+    /**
+     * Calls {@code handler} for every non-blank line and returns the number of lines in the file,
+     * which is also how {@link Line#number} counts. A first
+     * line whose amount column is not a number is taken as a header and skipped.
+     */
+    static long parse(Path file, Handler handler) throws IOException {
+        return parse(file, handler, SEGMENT_SIZE);
+    }
+
+    static long parse(Path file, Handler handler, long segmentSize) throws IOException {
+        Line line = new Line();
+        byte[] window = new byte[WINDOW_SIZE];
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long segmentStart = 0;
+            while (segmentStart < size) {
+                int segmentLength = (int) Math.min(segmentSize, size - segmentStart);
+                MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY, segmentStart, segmentLength);
+                boolean lastSegment = segmentStart + segmentLength == size;
+                int offset = 0;
+                while (offset < segmentLength) {
+                    int length = Math.min(WINDOW_SIZE, segmentLength - offset);
+                    segment.get(offset, window, 0, length);
+                    boolean last = lastSegment && offset + length == segmentLength;
+                    int start = 0;
+                    for (int i = 0; i < length; i++) {
+                        if (window[i] == '\n') {
+                            line.decode(window, start, i, handler);
+                            start = i + 1;
+                        }
+                    }
+                    if (last && start < length) {
+                        line.decode(window, start, length, handler);
+                        start = length;
+                    }
+                    if (start == 0) {
+                        if (offset + length == segmentLength && !lastSegment) {
+                            break;
+                        }
+                        throw new IllegalArgumentException("Statement line " + (line.number + 1) + " is longer than "
+                                + WINDOW_SIZE + " bytes");
+                    }
+                    // The next window starts with the line this one cut off
+                    offset += start;
+                }
+                segmentStart += offset;
+            }
+        }
+        return line.number;
+    }
+
+    /**
+     * One statement line, valid only during the handler call. {@link #error} is set when the line
+     * could not be read; the other fields are then unreliable.
+     */
+    static final class Line {
+        long number;
+        UnmatchedLine.Reason error;
+        long bankRefHash;
+        long valueDate;
+        // -1 when the reference is not numeric (an e-mail address)
+        long employeeId;
+        long amountCents;
+
+        private byte[] buffer;
+        private int start;
+        private int end;
+        private final int[] fieldStart = new int[4];
+        private final int[] fieldEnd = new int[4];
+        private int lastDateKey = -1;
+        private long lastEpochDay;
+
+        String bankRef() {
+            return text(0);
+        }
+
+        String reference() {
+            return text(2);
+        }
+
+        String amount() {
+            return text(3);
+        }
+
+        private String text(int field) {
+            if (fieldStart[field] < 0) {
+                return null;
+            }
+            return new String(buffer, fieldStart[field], fieldEnd[field] - fieldStart[field], StandardCharsets.UTF_8);
+        }
+
+        private void decode(byte[] buffer, int start, int end, Handler handler) {
+            number++;
+            if (end > start && buffer[end - 1] == '\r') {
+                end--;
+            }
+            if (end == start) {
+                return;
+            }
+            this.buffer = buffer;
+            this.start = start;
+            this.end = end;
+            error = null;
+            split();
+            if (error == null) {
+                amountCents = parseAmount(fieldStart[3], fieldEnd[3]);
+                if (amountCents < 0 && number == 1) {
+                    return;
+                }
+                if (amountCents <= 0) {
+                    error = UnmatchedLine.Reason.INVALID_AMOUNT;
+                }
+            }
+            if (error == null) {
+                valueDate = parseDate(fieldStart[1], fieldEnd[1]);
+                if (valueDate == Long.MIN_VALUE) {
+                    error = UnmatchedLine.Reason.INVALID_DATE;
+                }
+            }
+            if (error == null) {
+                bankRefHash = hash(buffer, fieldStart[0], fieldEnd[0]);
+                employeeId = parseId(fieldStart[2], fieldEnd[2]);
+                // Without a bank reference a line could not be told apart from a repeat of itself
+                int bankRefLength = fieldEnd[0] - fieldStart[0];
+                if (fieldEnd[2] == fieldStart[2] || bankRefLength == 0 || bankRefLength > MAX_BANK_REF_BYTES) {
+                    error = UnmatchedLine.Reason.MALFORMED;
+                }
+            }
+            handler.accept(this);
+        }
+
+        // Finds the first four comma separated fields, trimmed and without surrounding quotes
+        private void split() {
+            int field = 0;
+            int from = start;
+            for (int i = start; i <= end && field < 4; i++) {
+                if (i == end || buffer[i] == ',') {
+                    int s = from;
+                    int e = i;
+                    while (s < e && buffer[s] == ' ') {
+                        s++;
+                    }
+                    while (e > s && buffer[e - 1] == ' ') {
+                        e--;
+                    }
+                    if (e - s >= 2 && buffer[s] == '"' && buffer[e - 1] == '"') {
+                        s++;
+                        e--;
+                    }
+                    fieldStart[field] = s;
+                    fieldEnd[field] = e;
+                    field++;
+                    from = i + 1;
+                }
+            }
+            for (int f = field; f < 4; f++) {
+                fieldStart[f] = -1;
+                fieldEnd[f] = -1;
+            }
+            if (field < 4) {
+                error = UnmatchedLine.Reason.MALFORMED;
+            }
+        }
+
+        // Whole cents from "1234", "1234.5" or "1234.56"; -1 for anything else
+        private long parseAmount(int s, int e) {
+            long units = 0;
+            int digits = 0;
+            int i = s;
+            for (; i < e && buffer[i] != '.'; i++) {
+                byte b = buffer[i];
+                if (b < '0' || b > '9' || ++digits > 15) {
+                    return -1;
+                }
+                units = units * 10 + (b - '0');
+            }
+            long cents = 0;
+            int decimals = 0;
+            if (i < e) {
+                for (i++; i < e; i++) {
+                    byte b = buffer[i];
+                    if (b < '0' || b > '9' || ++decimals > 2) {
+                        return -1;
+                    }
+                    cents = cents * 10 + (b - '0');
+                }
+            }
+            if (digits == 0 && decimals == 0) {
+                return -1;
+            }
+            return units * 100 + (decimals == 1 ? cents * 10 : cents);
+        }
+
+        // Epoch day of a yyyy-MM-dd date; Long.MIN_VALUE if it is not one
+        private long parseDate(int s, int e) {
+            if (e - s != 10 || buffer[s + 4] != '-' || buffer[s + 7] != '-') {
+                return Long.MIN_VALUE;
+            }
+            int year = digits(s, 4);
+            int month = digits(s + 5, 2);
+            int day = digits(s + 8, 2);
+            if (year < 0 || month < 0 || day < 0) {
+                return Long.MIN_VALUE;
+            }
+            // Statements repeat the same few value dates, so only a new one is validated
+            int key = year * 10_000 + month * 100 + day;
+            if (key != lastDateKey) {
+                try {
+                    lastEpochDay = LocalDate.of(year, month, day).toEpochDay();
+                } catch (DateTimeException ex) {
+                    lastEpochDay = Long.MIN_VALUE;
+                }
+                lastDateKey = key;
+            }
+            return lastEpochDay;
+        }
+
+        private long parseId(int s, int e) {
+            if (e == s || e - s > 18) {
+                return -1;
+            }
+            long id = 0;
+            for (int i = s; i < e; i++) {
+                byte b = buffer[i];
+                if (b < '0' || b > '9') {
+                    return -1;
+                }
+                id = id * 10 + (b - '0');
+            }
+            return id;
+        }
+
+        private int digits(int s, int count) {
+            int value = 0;
+            for (int i = s; i < s + count; i++) {
+                byte b = buffer[i];
+                if (b < '0' || b > '9') {
+                    return -1;
+                }
+                value = value * 10 + (b - '0');
+            }
+            return value;
+        }
+
+    }
+
+    /**
+     * The {@link Line#bankRefHash} a line with this bank reference gets, for checking statement
+     * lines against references that are already posted.
+     */
+    static long hashBankRef(String bankRef) {
+        byte[] bytes = bankRef.getBytes(StandardCharsets.UTF_8);
+        return hash(bytes, 0, bytes.length);
+    }
+
+    // 64-bit FNV-1a; Long.MIN_VALUE is reserved by LongIndex
+    private static long hash(byte[] bytes, int s, int e) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = s; i < e; i++) {
+            h ^= bytes[i];
+            h *= 0x100000001b3L;
+        }
+        return h == Long.MIN_VALUE ? h + 1 : h;
+    }
+}
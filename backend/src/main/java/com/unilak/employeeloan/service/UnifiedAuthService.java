@@ -9,6 +9,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 @RequiredArgsConstructor
@@ -21,6 +22,7 @@ public class UnifiedAuthService {
     private final AuthenticationManager authenticationManager;
     private final JwtUtil jwtUtil;
 
+    // Deliberately outside a transaction, so the password hash check does not hold a connection
     public LoginResponse login(LoginRequest request) {
         authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword())
@@ -54,6 +56,7 @@ public class UnifiedAuthService {
         throw new RuntimeException("User not found");
     }
 
+    @Transactional(readOnly = true)
     public String getUserRole(String email) {
         if (employeeRepository.findByEmail(email).isPresent()) {
             return "EMPLOYEE";
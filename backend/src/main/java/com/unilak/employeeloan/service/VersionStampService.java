@@ -0,0 +1,75 @@
+package com.unilak.employeeloan.service;
+
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Monotonic version counters per aggregate (and per employee for "my loans") used to build ETags
+ * without touching the database. Every write path bumps the counters it affects; the boot epoch
+ * keeps tags from colliding across restarts. Tags are weak: Tomcat does not compress responses
+ * that carry a strong ETag, since the gzipped bytes would differ from what the tag promises.
+ */
+@Service
+public class VersionStampService {
+
+    public enum Aggregate { LOAN_TYPES, LOANS }
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final Map<Aggregate, AtomicLong> versions = new EnumMap<>(Aggregate.class);
+    private final Map<String, AtomicLong> employeeVersions = new ConcurrentHashMap<>();
+    // Changes embedded in every employee's loans (loan types, officers, accountants)
+    private final AtomicLong sharedVersion = new AtomicLong();
+
+    public VersionStampService() {
+        for (Aggregate aggregate : Aggregate.values()) {
+            versions.put(aggregate, new AtomicLong());
+        }
+    }
+
+    // Bumped after commit: a tag handed out for the new version must never describe the old data
+    public void loanTypesChanged() {
+        AfterCommit.run(() -> {
+            versions.get(Aggregate.LOAN_TYPES).incrementAndGet();
+            sharedDataChanged();
+        });
+    }
+
+    public void staffChanged() {
+        AfterCommit.run(this::sharedDataChanged);
+    }
+
+    public void loansChanged(String employeeEmail) {
+        AfterCommit.run(() -> {
+            versions.get(Aggregate.LOANS).incrementAndGet();
+            employeeVersions.computeIfAbsent(employeeEmail, email -> new AtomicLong()).incrementAndGet();
+        });
+    }
+
+    private void sharedDataChanged() {
+        versions.get(Aggregate.LOANS).incrementAndGet();
+        sharedVersion.incrementAndGet();
+    }
+
+    public long version(Aggregate aggregate) {
+        return versions.get(aggregate).get();
+    }
+
+    public String etag(Aggregate aggregate) {
+        return etag(aggregate, version(aggregate));
+    }
+
+    // For a response built at an earlier version, e.g. a cached report served while it is rebuilt
+    public String etag(Aggregate aggregate, long version) {
+        return "W/\"" + epoch + "-" + aggregate.name().toLowerCase() + "-" + version + "\"";
+    }
+
+    public String employeeLoansEtag(String employeeEmail) {
+        AtomicLong version = employeeVersions.get(employeeEmail);
+        return "W/\"" + epoch + "-employee-" + Integer.toHexString(employeeEmail.hashCode()) + "-"
+                + (version != null ? version.get() : 0) + "-" + sharedVersion.get() + "\"";
+    }
+}
@@ -0,0 +1,172 @@
+package com.unilak.employeeloan.service;
+
+import com.unilak.employeeloan.exception.ResourceNotFoundException;
+import com.unilak.employeeloan.model.LoanApplication;
+import com.unilak.employeeloan.model.LoanOfficer;
+import com.unilak.employeeloan.repository.LoanApplicationRepository;
+import com.unilak.employeeloan.repository.LoanOfficerRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands out PENDING applications to officers under time-limited leases. A claim is a conditional
+ * UPDATE that only succeeds while the row is unleased (or its lease has expired), so concurrent
+ * officers skip each other's rows instead of blocking or double-reviewing. Expired leases need
+ * no cleanup: they simply match the claim condition again.
+ */
+@Service
+@RequiredArgsConstructor
+public class WorkQueueService {
+
+    private static final LoanApplication.LoanStatus PENDING = LoanApplication.LoanStatus.PENDING;
+    private static final int CLAIM_ROUNDS = 3;
+
+    private final LoanApplicationRepository loanApplicationRepository;
+    private final LoanOfficerRepository loanOfficerRepository;
+    private final VersionStampService versionStampService;
+    private final TransactionTemplate transactionTemplate;
+
+    private final AtomicLong claimsGranted = new AtomicLong();
+    private final AtomicLong claimConflicts = new AtomicLong();
+    private final AtomicLong releases = new AtomicLong();
+
+    @Value("${loan.work-queue.lease-duration}")
+    private long leaseDuration;
+
+    @Value("${loan.work-queue.max-leases-per-officer}")
+    private int maxLeasesPerOfficer;
+
+    // Not transactional: each claim commits on its own, so a row lock lasts one UPDATE rather than
+    // until the whole batch is claimed, and a conflict never rolls back the claims already won
+    public List<LoanApplication> claim(int count) {
+        LoanOfficer officer = currentOfficer();
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plus(Duration.ofMillis(leaseDuration));
+
+        // Fairness: nobody can hoard the queue beyond their lease allowance. This count only sizes the
+        // batch; each claim locks the officer and re-checks the cap in its UPDATE
+        long held = loanApplicationRepository.countByStatusAndClaimedByIdAndLeaseExpiresAtGreaterThanEqual(
+                PENDING, officer.getId(), now);
+        int wanted = (int) Math.min(count, maxLeasesPerOfficer - held);
+
+        List<Long> claimed = new ArrayList<>();
+        for (int round = 0; round < CLAIM_ROUNDS && claimed.size() < wanted; round++) {
+            int remaining = wanted - claimed.size();
+            List<Long> candidates = loanApplicationRepository.findClaimableIds(PENDING, now, PageRequest.of(0, remaining * 2));
+            if (candidates.isEmpty()) {
+                break;
+            }
+            for (Long loanId : candidates) {
+                if (claimed.size() >= wanted) {
+                    break;
+                }
+                Integer updated = transactionTemplate.execute(status -> {
+                    loanOfficerRepository.lockById(officer.getId());
+                    return loanApplicationRepository.tryClaim(loanId, PENDING, officer.getId(), now, expiresAt,
+                            maxLeasesPerOfficer);
+                });
+                if (updated != null && updated == 1) {
+                    claimed.add(loanId);
+                } else if (loanApplicationRepository.countByStatusAndClaimedByIdAndLeaseExpiresAtGreaterThanEqual(
+                        PENDING, officer.getId(), now) >= maxLeasesPerOfficer) {
+                    // A concurrent claim by the same officer used up the allowance
+                    wanted = claimed.size();
+                } else {
+                    claimConflicts.incrementAndGet();
+                }
+            }
+        }
+        claimsGranted.addAndGet(claimed.size());
+
+        // Read-write, so it goes to the primary, which already has every claim made above
+        return transactionTemplate.execute(status -> {
+            List<LoanApplication> loans = loanApplicationRepository.findAllById(claimed);
+            loans.forEach(loan -> versionStampService.loansChanged(loan.getEmployee().getEmail()));
+            return loans;
+        });
+    }
+
+    @Transactional(readOnly = true)
+    public List<LoanApplication> getMyClaims() {
+        return loanApplicationRepository.findByStatusAndClaimedByIdAndLeaseExpiresAtGreaterThanEqual(
+                PENDING, currentOfficer().getId(), LocalDateTime.now());
+    }
+
+    @Transactional
+    public LoanApplication renew(Long loanId) {
+        LocalDateTime now = LocalDateTime.now();
+        if (loanApplicationRepository.renewLease(loanId, currentOfficer().getId(), now,
+                now.plus(Duration.ofMillis(leaseDuration))) == 0) {
+            throw new IllegalStateException("You do not hold an active lease on loan application " + loanId);
+        }
+        return loanApplicationRepository.findById(loanId)
+                .orElseThrow(() -> new ResourceNotFoundException("LoanApplication", "id", loanId));
+    }
+
+    @Transactional
+    public void release(Long loanId) {
+        if (loanApplicationRepository.releaseLease(loanId, currentOfficer().getId()) == 0) {
+            throw new IllegalStateException("You do not hold a lease on loan application " + loanId);
+        }
+        releases.incrementAndGet();
+        loanApplicationRepository.findById(loanId)
+                .ifPresent(loan -> versionStampService.loansChanged(loan.getEmployee().getEmail()));
+    }
+
+    /**
+     * Throws if another officer holds a live lease on the application; the lease is cleared so
+     * that decided applications never show up as claimed. The check is the clearing UPDATE itself,
+     * which also keeps the row locked against new claims until the decision commits.
+     */
+    public void checkAndClearLease(LoanApplication loan, LoanOfficer officer) {
+        if (loanApplicationRepository.clearLeaseUnlessHeldByOther(loan.getLoanId(), officer.getId(), LocalDateTime.now()) == 0) {
+            throw new IllegalStateException("Loan application is claimed by another officer");
+        }
+        // The loaded copy is written back on flush, so it has to agree with the row
+        loan.setClaimedById(null);
+        loan.setClaimedAt(null);
+        loan.setLeaseExpiresAt(null);
+    }
+
+    @Transactional(readOnly = true)
+    public Map<String, Object> getMetrics() {
+        LocalDateTime now = LocalDateTime.now();
+        long pending = loanApplicationRepository.countByStatus(PENDING);
+        long leased = loanApplicationRepository.countByStatusAndLeaseExpiresAtGreaterThanEqual(PENDING, now);
+        LocalDateTime oldestClaim = loanApplicationRepository.findOldestActiveClaim(PENDING, now);
+
+        Map<Long, Long> leasesByOfficer = new HashMap<>();
+        for (Object[] row : loanApplicationRepository.countActiveLeasesByOfficer(PENDING, now)) {
+            leasesByOfficer.put((Long) row[0], (Long) row[1]);
+        }
+
+        Map<String, Object> metrics = new HashMap<>();
+        metrics.put("queueDepth", pending - leased);
+        metrics.put("leased", leased);
+        metrics.put("oldestLeaseAgeSeconds", oldestClaim != null ? Duration.between(oldestClaim, now).toSeconds() : 0);
+        metrics.put("leasesByOfficer", leasesByOfficer);
+        metrics.put("claimsGranted", claimsGranted.get());
+        metrics.put("claimConflicts", claimConflicts.get());
+        metrics.put("releases", releases.get());
+        return metrics;
+    }
+
+    private LoanOfficer currentOfficer() {
+        String email = SecurityContextHolder.getContext().getAuthentication().getName();
+        return loanOfficerRepository.findByEmail(email)
+                .orElseThrow(() -> new ResourceNotFoundException("LoanOfficer", "email", email));
+    }
+}
@@ -0,0 +1,264 @@
+-- Schema for profiles that run with spring.jpa.hibernate.ddl-auto=validate (see application-fast-start.properties).
+-- Generated from the entities by Hibernate; regenerate it whenever an entity or index changes, otherwise
+-- validation fails at startup.
+
+create sequence audit_log_seq start with 1 increment by 50;
+
+create sequence notification_outbox_seq start with 1 increment by 50;
+
+create table accountants (
+    id bigint generated by default as identity,
+    email varchar(255) unique,
+    name varchar(255),
+    password varchar(255),
+    primary key (id)
+);
+
+create table admins (
+    id bigint generated by default as identity,
+    email varchar(255) unique,
+    name varchar(255),
+    password varchar(255),
+    role varchar(255),
+    primary key (id)
+);
+
+create table audit_log (
+    amount numeric(38,2),
+    employee_id bigint,
+    id bigint not null,
+    loan_id bigint,
+    occurred_at timestamp(6) not null,
+    recorded_at timestamp(6) not null,
+    repayment_id bigint,
+    action varchar(255) not null,
+    actor varchar(255) not null,
+    status varchar(255),
+    primary key (id)
+);
+
+create table employee_exposure (
+    active_loans bigint not null,
+    employee_id bigint not null,
+    total_outstanding numeric(38,2) not null,
+    primary key (employee_id)
+);
+
+create table employees (
+    id bigint generated by default as identity,
+    department varchar(255),
+    email varchar(255) unique,
+    name varchar(255),
+    password varchar(255),
+    primary key (id)
+);
+
+create table idempotency_keys (
+    status integer,
+    created_at timestamp(6) not null,
+    expires_at timestamp(6) not null,
+    locked_until timestamp(6),
+    owner varchar(36) not null,
+    request_hash varchar(64) not null,
+    scoped_key varchar(600) not null,
+    content_type varchar(255),
+    body blob,
+    primary key (scoped_key)
+);
+
+create table loan_applications (
+    amount numeric(38,2),
+    application_date date,
+    approved_date date,
+    closed_date date,
+    change_seq bigint,
+    claimed_at timestamp(6),
+    claimed_by_id bigint,
+    employee_id bigint not null,
+    lease_expires_at timestamp(6),
+    loan_id bigint generated by default as identity,
+    loan_type_id bigint not null,
+    officer_id bigint,
+    rejection_reason TEXT,
+    remarks TEXT,
+    status varchar(255) check (status in ('PENDING','APPROVED','REJECTED','COMPLETED')),
+    primary key (loan_id)
+);
+
+create table loan_applications_archive (
+    amount numeric(38,2) not null,
+    application_date date not null,
+    approved_date date,
+    closed_date date,
+    archived_at timestamp(6) not null,
+    employee_id bigint not null,
+    loan_id bigint not null,
+    loan_type_id bigint not null,
+    officer_id bigint,
+    rejection_reason TEXT,
+    remarks TEXT,
+    status varchar(255) not null check (status in ('PENDING','APPROVED','REJECTED','COMPLETED')),
+    primary key (loan_id)
+);
+
+create table loan_officers (
+    id bigint generated by default as identity,
+    email varchar(255) unique,
+    name varchar(255),
+    password varchar(255),
+    primary key (id)
+);
+
+create table loan_types (
+    interest_rate numeric(38,2),
+    max_amount numeric(38,2),
+    loan_type_id bigint generated by default as identity,
+    description varchar(255),
+    name varchar(255),
+    primary key (loan_type_id)
+);
+
+create table notification_outbox (
+    attempts integer not null,
+    created_at timestamp(6) not null,
+    employee_id bigint,
+    id bigint not null,
+    loan_id bigint,
+    next_attempt_at timestamp(6) not null,
+    repayment_id bigint,
+    sent_at timestamp(6),
+    last_error varchar(1000),
+    body varchar(2000) not null,
+    event_type varchar(255) not null,
+    recipient varchar(255) not null,
+    status varchar(255) not null check (status in ('PENDING','SENT','DEAD')),
+    subject varchar(255) not null,
+    primary key (id)
+);
+
+create table repayments (
+    amount_paid numeric(38,2),
+    balance numeric(38,2),
+    payment_date date,
+    accountant_id bigint,
+    change_seq bigint,
+    loan_id bigint not null,
+    repayment_id bigint generated by default as identity,
+    bank_ref varchar(255) unique,
+    primary key (repayment_id)
+);
+
+create table repayments_archive (
+    amount_paid numeric(38,2) not null,
+    balance numeric(38,2) not null,
+    payment_date date not null,
+    accountant_id bigint,
+    loan_id bigint not null,
+    repayment_id bigint not null,
+    bank_ref varchar(255) unique,
+    primary key (repayment_id)
+);
+
+create table users (
+    id bigint generated by default as identity,
+    email varchar(255) unique,
+    name varchar(255),
+    password varchar(255),
+    role varchar(255) check (role in ('ADMIN','EMPLOYEE')),
+    primary key (id)
+);
+
+create index idx_audit_log_loan_id
+   on audit_log (loan_id);
+
+create index idx_audit_log_actor
+   on audit_log (actor);
+
+create index idx_audit_log_occurred_at
+   on audit_log (occurred_at);
+
+create index idx_idempotency_keys_expires_at
+   on idempotency_keys (expires_at);
+
+create index idx_loan_applications_employee_id
+   on loan_applications (employee_id);
+
+create index idx_loan_applications_status
+   on loan_applications (status);
+
+create index idx_loan_applications_officer_id
+   on loan_applications (officer_id);
+
+create index idx_loan_applications_application_date
+   on loan_applications (application_date);
+
+create index idx_loan_applications_change_seq
+   on loan_applications (change_seq);
+
+create index idx_loan_applications_archive_employee_id
+   on loan_applications_archive (employee_id);
+
+create index idx_loan_applications_archive_status
+   on loan_applications_archive (status);
+
+create index idx_notification_outbox_due
+   on notification_outbox (status, next_attempt_at);
+
+create index idx_repayments_loan_id_payment_date
+   on repayments (loan_id, payment_date);
+
+create index idx_repayments_change_seq
+   on repayments (change_seq);
+
+create index idx_repayments_archive_loan_id
+   on repayments_archive (loan_id);
+
+alter table if exists loan_applications
+   add constraint FKnedmm3jbtp1rae3y9yvfh15cn
+   foreign key (employee_id)
+   references employees;
+
+alter table if exists loan_applications
+   add constraint FK4i6islffsfwm3m2d3cc9osnkh
+   foreign key (officer_id)
+   references loan_officers;
+
+alter table if exists loan_applications
+   add constraint FK53uh97b3sodeku39y3611tbuo
+   foreign key (loan_type_id)
+   references loan_types;
+
+alter table if exists loan_applications_archive
+   add constraint FKlchjsicfyt65prgw0qxwqr408
+   foreign key (employee_id)
+   references employees;
+
+alter table if exists loan_applications_archive
+   add constraint FKebq5h653q1limvf2prmoi2l59
+   foreign key (officer_id)
+   references loan_officers;
+
+alter table if exists loan_applications_archive
+   add constraint FKt69ybi734m3tplwsgeejisyl9
+   foreign key (loan_type_id)
+   references loan_types;
+
+alter table if exists repayments
+   add constraint FKrq57fh7fwbtq92qf1h8peaqdj
+   foreign key (accountant_id)
+   references accountants;
+
+alter table if exists repayments
+   add constraint FK5k1r5e31fj0796e0stbkaev7u
+   foreign key (loan_id)
+   references loan_applications;
+
+alter table if exists repayments_archive
+   add constraint FKhq9kn047bsvtxxeu3pt8cejk0
+   foreign key (accountant_id)
+   references accountants;
+
+alter table if exists repayments_archive
+   add constraint FKdnwtvhkp5tgrw8juyx5uunglt
+   foreign key (loan_id)
+   references loan_applications_archive;
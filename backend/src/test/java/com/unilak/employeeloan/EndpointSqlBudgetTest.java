@@ -0,0 +1,514 @@
+package com.unilak.employeeloan;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.unilak.employeeloan.config.SqlStatementCounter;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+/**
+ * Calls every controller endpoint against a generated dataset and checks two things per call: the
+ * number of SQL statements stays within its budget, and no statement scans one of the large
+ * tables unless the endpoint is declared to (lists of everything and the reports do).
+ * <p>
+ * {@link SqlStatementCounter} only sees Hibernate statements on the request thread, while reports
+ * are built on a refresh thread and reconciliation, archiving and imports use JDBC directly. So
+ * statements are captured at the DataSource, and the counter is checked to agree with the
+ * capture. Plans come from running EXPLAIN with every parameter bound to null, which H2 plans the
+ * same way as any other value.
+ */
+@SpringBootTest(properties = {
+        "datagen.employees=500",
+        "datagen.officers=10",
+        "datagen.accountants=5",
+        "datagen.loans=5000",
+        "datagen.repayments=25000",
+        "datagen.threads=1",
+        "notification.enabled=false",
+        "loan.archive.enabled=false",
+        "rate-limit.enabled=false",
+        // Audit rows are written by a background flush, not by the request that recorded them
+        "audit.flush-interval=3600000",
+        "snapshot.path=target/test-snapshot/loans.snapshot"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("datagen")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class EndpointSqlBudgetTest {
+
+    // Tables the generator fills; everything else is small reference or bookkeeping data
+    private static final Set<String> LARGE_TABLES = Set.of("EMPLOYEES", "LOAN_APPLICATIONS", "REPAYMENTS",
+            "LOAN_APPLICATIONS_ARCHIVE", "REPAYMENTS_ARCHIVE", "AUDIT_LOG");
+    private static final Pattern TABLE_SCAN = Pattern.compile("/\\* PUBLIC\\.(\\w+)\\.tableScan \\*/(\\s*/\\* direct lookup \\*/)?");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private SqlStatementCounter sqlStatementCounter;
+
+    @Autowired
+    private SqlCapture sqlCapture;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    private JdbcTemplate jdbc;
+    private String employee;
+    private String officer;
+    private String accountant;
+    private String admin;
+    private long employeeId;
+
+    @BeforeAll
+    void login() throws Exception {
+        jdbc = new JdbcTemplate(primaryDataSource);
+        employee = token("employee@company.com");
+        officer = token("officer@company.com");
+        accountant = token("accountant@company.com");
+        admin = token("admin@company.com");
+        employeeId = jdbc.queryForObject("select id from employees where email = 'employee@company.com'", Long.class);
+    }
+
+    @TestFactory
+    Stream<DynamicTest> endpoints() {
+        List<Call> calls = new ArrayList<>();
+
+        calls.add(call("POST /api/auth/login", 3, null, () -> post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"email\":\"employee@company.com\",\"password\":\"pass123\"}")));
+        calls.add(call("POST /api/auth/register/employee", 4, admin, () -> post("/api/auth/register/employee")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(user("budget.employee", ",\"department\":\"Finance\""))));
+        calls.add(call("POST /api/auth/register/admin", 4, admin, () -> post("/api/auth/register/admin")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(user("budget.admin", ""))));
+        calls.add(call("POST /api/auth/register/loan-officer", 4, admin, () -> post("/api/auth/register/loan-officer")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(user("budget.officer", ""))));
+        calls.add(call("POST /api/auth/register/accountant", 4, admin, () -> post("/api/auth/register/accountant")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(user("budget.accountant", ""))));
+
+        // People
+        calls.add(call("GET /api/admins", 3, admin, () -> get("/api/admins")));
+        calls.add(call("GET /api/admins/{id}", 3, admin, () -> get("/api/admins/{id}", idOf("admins", "budget.admin"))));
+        calls.add(call("PUT /api/admins/{id}", 4, admin, () -> put("/api/admins/{id}", idOf("admins", "budget.admin"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(user("budget.admin", ""))));
+        calls.add(call("DELETE /api/admins/{id}", 4, admin, () -> delete("/api/admins/{id}", idOf("admins", "budget.admin"))));
+        calls.add(call("GET /api/loan-officers", 3, admin, () -> get("/api/loan-officers")));
+        calls.add(call("GET /api/loan-officers/{id}", 3, admin,
+                () -> get("/api/loan-officers/{id}", idOf("loan_officers", "budget.officer"))));
+        calls.add(call("PUT /api/loan-officers/{id}", 4, admin,
+                () -> put("/api/loan-officers/{id}", idOf("loan_officers", "budget.officer"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(user("budget.officer", ""))));
+        calls.add(call("DELETE /api/loan-officers/{id}", 5, admin,
+                () -> delete("/api/loan-officers/{id}", idOf("loan_officers", "budget.officer"))));
+        calls.add(call("GET /api/accountants", 3, admin, () -> get("/api/accountants")));
+        calls.add(call("GET /api/accountants/{id}", 3, admin,
+                () -> get("/api/accountants/{id}", idOf("accountants", "budget.accountant"))));
+        calls.add(call("PUT /api/accountants/{id}", 4, admin,
+                () -> put("/api/accountants/{id}", idOf("accountants", "budget.accountant"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(user("budget.accountant", ""))));
+        calls.add(call("DELETE /api/accountants/{id}", 5, admin,
+                () -> delete("/api/accountants/{id}", idOf("accountants", "budget.accountant"))));
+        calls.add(call("GET /api/employees", 3, admin, () -> get("/api/employees")).scans("EMPLOYEES"));
+        calls.add(call("GET /api/employees?fields", 3, admin, () -> get("/api/employees").param("fields", "id,name"))
+                .scans("EMPLOYEES"));
+        calls.add(call("GET /api/employees/{id}", 4, officer, () -> get("/api/employees/{id}", employeeId)));
+        calls.add(call("GET /api/employees/{id}?fields", 4, officer,
+                () -> get("/api/employees/{id}", employeeId).param("fields", "id,name,department")));
+        calls.add(call("POST /api/employees/batch-get", 3, admin, () -> post("/api/employees/batch-get")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"ids\":[1,2,3,4,5]}")));
+        calls.add(call("POST /api/employees/import", 4, admin, () -> post("/api/employees/import")
+                .contentType("text/csv")
+                .content("name,email,password,department\nBudget Import,budget.import@company.com,pass123,Finance\n")));
+        // The first use of an employee's exposure row builds it from their loans: three reads and an insert
+        calls.add(call("GET /api/employees/{id}/exposure", 10, officer, () -> get("/api/employees/{id}/exposure", employeeId)));
+        calls.add(call("PUT /api/employees/{id}", 3, employee, () -> put("/api/employees/{id}", employeeId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"John Doe\",\"email\":\"employee@company.com\",\"password\":\"pass123\","
+                        + "\"department\":\"IT Department\"}")));
+        calls.add(call("DELETE /api/employees/{id}", 9, admin,
+                () -> delete("/api/employees/{id}", idOf("employees", "budget.import"))));
+
+        // Loan types
+        calls.add(call("GET /api/loan-types", 2, employee, () -> get("/api/loan-types")));
+        calls.add(call("GET /api/loan-types/{id}", 2, employee, () -> get("/api/loan-types/{id}", 1)));
+        calls.add(call("POST /api/loan-types", 3, admin, () -> post("/api/loan-types")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"Budget Loan\",\"maxAmount\":100000,\"interestRate\":5}")));
+        calls.add(call("PUT /api/loan-types/{id}", 4, admin, () -> put("/api/loan-types/{id}", loanTypeId("Budget Loan"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"Budget Loan\",\"maxAmount\":200000,\"interestRate\":5}")));
+        calls.add(call("DELETE /api/loan-types/{id}", 5, admin, () -> delete("/api/loan-types/{id}", loanTypeId("Budget Loan"))));
+
+        // Loans
+        calls.add(call("POST /api/loans", 5, employee, () -> post("/api/loans")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"loanTypeId\":1,\"amount\":100000,\"remarks\":\"budget approve\"}")));
+        calls.add(call("POST /api/loans (second)", 7, employee, () -> post("/api/loans")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"loanTypeId\":1,\"amount\":50000,\"remarks\":\"budget reject\"}")));
+        calls.add(call("GET /api/loans", 5, officer, () -> get("/api/loans"))
+                .scans("LOAN_APPLICATIONS", "LOAN_APPLICATIONS_ARCHIVE"));
+        calls.add(call("GET /api/loans?compact", 5, officer, () -> get("/api/loans").param("compact", "true"))
+                .scans("LOAN_APPLICATIONS", "LOAN_APPLICATIONS_ARCHIVE"));
+        calls.add(call("GET /api/loans?fields", 5, officer, () -> get("/api/loans").param("fields", "loanId,status"))
+                .scans("LOAN_APPLICATIONS"));
+        calls.add(call("GET /api/loans/my-loans", 4, employee, () -> get("/api/loans/my-loans")));
+        calls.add(call("GET /api/loans/my-loans?fields", 4, employee,
+                () -> get("/api/loans/my-loans").param("fields", "loanId,status,amount")));
+        calls.add(call("GET /api/loans/employee/{id}", 5, officer, () -> get("/api/loans/employee/{id}", employeeId)));
+        calls.add(call("GET /api/loans/employee/{id}?fields", 5, officer,
+                () -> get("/api/loans/employee/{id}", employeeId).param("fields", "loanId,status")));
+        calls.add(call("GET /api/loans/status/{status}", 5, accountant, () -> get("/api/loans/status/PENDING")));
+        calls.add(call("GET /api/loans/status/{status}?compact", 5, accountant,
+                () -> get("/api/loans/status/PENDING").param("compact", "true")));
+        calls.add(call("GET /api/loans/status/{status}?fields", 5, accountant,
+                () -> get("/api/loans/status/PENDING").param("fields", "loanId,amount")));
+        calls.add(call("GET /api/loans/{id}", 2, employee, () -> get("/api/loans/{id}", loanId("budget approve"))));
+        calls.add(call("GET /api/loans/{id}?fields", 3, employee,
+                () -> get("/api/loans/{id}", loanId("budget approve")).param("fields", "loanId,status")));
+        calls.add(call("POST /api/loans/batch-get", 4, officer, () -> post("/api/loans/batch-get")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"ids\":[1,2,3,4,5]}")));
+
+        // Work queue
+        calls.add(call("POST /api/work-queue/claim", 11, officer, () -> post("/api/work-queue/claim").param("count", "2")));
+        calls.add(call("GET /api/work-queue/mine", 5, officer, () -> get("/api/work-queue/mine")));
+        calls.add(call("PUT /api/work-queue/{id}/renew", 6, officer,
+                () -> put("/api/work-queue/{id}/renew", claimedLoanId())));
+        calls.add(call("PUT /api/work-queue/{id}/release", 6, officer,
+                () -> put("/api/work-queue/{id}/release", claimedLoanId())));
+        calls.add(call("GET /api/work-queue/metrics", 7, officer, () -> get("/api/work-queue/metrics")));
+
+        calls.add(call("PUT /api/loans/{id}/approve", 10, officer, () -> put("/api/loans/{id}/approve", loanId("budget approve"))));
+        calls.add(call("PUT /api/loans/{id}/reject", 8, officer, () -> put("/api/loans/{id}/reject", loanId("budget reject"))
+                .contentType(MediaType.TEXT_PLAIN)
+                .content("Budget test")));
+        calls.add(call("PUT /api/loans/{id}/complete", 13, accountant, () -> put("/api/loans/{id}/complete", paidOffLoanId())));
+
+        // Repayments
+        calls.add(call("POST /api/repayments", 9, accountant, () -> post("/api/repayments")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"loanId\":" + loanId("budget approve") + ",\"amountPaid\":1000}")));
+        calls.add(call("GET /api/repayments", 6, accountant, () -> get("/api/repayments"))
+                .scans("LOAN_APPLICATIONS", "LOAN_APPLICATIONS_ARCHIVE"));
+        calls.add(call("GET /api/repayments?compact", 6, accountant, () -> get("/api/repayments").param("compact", "true"))
+                .scans("LOAN_APPLICATIONS", "LOAN_APPLICATIONS_ARCHIVE"));
+        calls.add(call("GET /api/repayments?fields", 6, accountant,
+                () -> get("/api/repayments").param("fields", "repaymentId,amountPaid")).scans("REPAYMENTS"));
+        calls.add(call("GET /api/repayments/loan/{id}", 5, officer, () -> get("/api/repayments/loan/{id}", repaidLoanId())));
+        calls.add(call("GET /api/repayments/loan/{id}?fields", 5, officer,
+                () -> get("/api/repayments/loan/{id}", repaidLoanId()).param("fields", "repaymentId,paymentDate")));
+        calls.add(call("POST /api/repayments/batch-get", 6, accountant, () -> post("/api/repayments/batch-get")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"ids\":[1,2,3,4,5]}")));
+        calls.add(call("POST /api/reconciliations", 23, accountant, () -> post("/api/reconciliations")
+                .contentType("text/csv")
+                .content(statementLine())));
+        calls.add(call("POST /api/reconciliations?dryRun", 8, accountant, () -> post("/api/reconciliations")
+                .param("dryRun", "true")
+                .contentType("text/csv")
+                .content(statementLine())));
+
+        // Reports, search and feeds
+        calls.add(call("GET /api/reports/summary", 5, officer, () -> get("/api/reports/summary"))
+                .scans("LOAN_APPLICATIONS"));
+        calls.add(call("GET /api/reports/outstanding", 5, accountant, () -> get("/api/reports/outstanding")));
+        calls.add(call("GET /api/reports/cache", 2, admin, () -> get("/api/reports/cache")));
+        calls.add(call("GET /api/search", 3, officer, () -> get("/api/search").param("q", "Uwimana")));
+        calls.add(call("GET /api/changes", 7, accountant, () -> get("/api/changes").param("since", "0").param("limit", "100")));
+        calls.add(call("POST /api/simulations", 2, employee, () -> post("/api/simulations")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"amounts\":[200000,500000],\"termMonths\":[6,12,24]}")));
+        calls.add(call("GET /api/audit", 3, admin, () -> get("/api/audit").param("actor", "officer@company.com")));
+        calls.add(call("GET /api/audit/stats", 3, admin, () -> get("/api/audit/stats")).scans("AUDIT_LOG"));
+
+        // Operations
+        calls.add(call("POST /api/archive/run", 33, admin, () -> post("/api/archive/run")));
+        calls.add(call("GET /api/archive/stats", 2, admin, () -> get("/api/archive/stats")));
+        calls.add(call("POST /api/snapshots", 22, admin, () -> post("/api/snapshots"))
+                .scans("EMPLOYEES", "LOAN_APPLICATIONS", "REPAYMENTS", "LOAN_APPLICATIONS_ARCHIVE",
+                        "REPAYMENTS_ARCHIVE", "AUDIT_LOG"));
+        calls.add(call("GET /api/datasource/routing", 2, admin, () -> get("/api/datasource/routing")));
+        calls.add(call("GET /api/datasource/pools", 2, admin, () -> get("/api/datasource/pools")));
+        calls.add(call("GET /api/metrics/latency", 2, admin, () -> get("/api/metrics/latency")));
+        calls.add(call("GET /api/metrics/slow-requests", 2, admin, () -> get("/api/metrics/slow-requests")));
+        calls.add(call("GET /api/idempotency/stats", 4, admin, () -> get("/api/idempotency/stats")));
+        calls.add(call("GET /api/rate-limits/metrics", 2, admin, () -> get("/api/rate-limits/metrics")));
+        calls.add(call("GET /api/notifications/stats", 5, admin, () -> get("/api/notifications/stats")));
+        calls.add(call("GET /api/notifications/delivered", 2, admin, () -> get("/api/notifications/delivered")));
+        calls.add(call("GET /api/events/stats", 2, admin, () -> get("/api/events/stats")));
+        // GET /api/events/stream is left out: it holds the connection open and issues no SQL
+
+        return calls.stream().map(call -> DynamicTest.dynamicTest(call.name, () -> check(call)));
+    }
+
+    private void check(Call call) throws Exception {
+        MockHttpServletRequestBuilder request = call.request.get();
+        if (call.token != null) {
+            request.header("Authorization", "Bearer " + call.token);
+        }
+        sqlCapture.start();
+        sqlStatementCounter.reset();
+        MvcResult result = mockMvc.perform(request).andReturn();
+        List<String> statements = sqlCapture.stop();
+
+        assertThat(result.getResponse().getStatus())
+                .as("%s: %s", call.name, result.getResponse().getContentAsString())
+                .isBetween(200, 299);
+        assertThat(statements.size())
+                .as("%s issued %d statements:%n%s", call.name, statements.size(), String.join("\n", statements))
+                .isLessThanOrEqualTo(call.budget);
+        assertThat(sqlStatementCounter.current())
+                .as("%s: statements counted by Hibernate but not seen at the DataSource", call.name)
+                .isLessThanOrEqualTo(statements.size());
+        for (String sql : statements) {
+            for (String table : scannedTables(sql)) {
+                assertThat(call.allowedScans)
+                        .as("%s scans %s:%n%s", call.name, table, sql)
+                        .contains(table);
+            }
+        }
+    }
+
+    private List<String> scannedTables(String sql) {
+        String verb = sql.stripLeading().split("\\s+", 2)[0].toLowerCase();
+        if (!Set.of("select", "with", "update", "delete").contains(verb)) {
+            return List.of();
+        }
+        String plan = jdbc.execute((Connection connection) -> {
+            try (PreparedStatement statement = connection.prepareStatement("explain " + sql)) {
+                int parameters = statement.getParameterMetaData().getParameterCount();
+                for (int i = 1; i <= parameters; i++) {
+                    statement.setObject(i, null);
+                }
+                try (ResultSet rows = statement.executeQuery()) {
+                    rows.next();
+                    return rows.getString(1);
+                }
+            }
+        });
+        List<String> tables = new ArrayList<>();
+        Matcher matcher = TABLE_SCAN.matcher(plan);
+        while (matcher.find()) {
+            if (matcher.group(2) == null && LARGE_TABLES.contains(matcher.group(1))) {
+                tables.add(matcher.group(1));
+            }
+        }
+        return tables;
+    }
+
+    private String token(String email) throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"" + email + "\",\"password\":\"pass123\"}"))
+                .andReturn();
+        JsonNode body = objectMapper.readTree(result.getResponse().getContentAsString());
+        return body.get("token").asText();
+    }
+
+    private static String user(String name, String extra) {
+        return "{\"name\":\"" + name + "\",\"email\":\"" + name + "@company.com\",\"password\":\"pass123\"" + extra + "}";
+    }
+
+    private long idOf(String table, String name) {
+        return jdbc.queryForObject("select id from " + table + " where email = ?", Long.class, name + "@company.com");
+    }
+
+    private long loanTypeId(String name) {
+        return jdbc.queryForObject("select loan_type_id from loan_types where name = ?", Long.class, name);
+    }
+
+    private long loanId(String remarks) {
+        return jdbc.queryForObject("select max(loan_id) from loan_applications where remarks = ?", Long.class, remarks);
+    }
+
+    private long claimedLoanId() {
+        return jdbc.queryForObject("select min(loan_id) from loan_applications where claimed_by_id is not null", Long.class);
+    }
+
+    // A paid-off loan that was never marked complete, made by reopening a completed one
+    private long paidOffLoanId() {
+        long loanId = jdbc.queryForObject("select min(loan_id) from loan_applications where status = 'COMPLETED'", Long.class);
+        jdbc.update("update loan_applications set status = 'APPROVED', closed_date = null where loan_id = ?", loanId);
+        return loanId;
+    }
+
+    private long repaidLoanId() {
+        return jdbc.queryForObject("select min(loan_id) from repayments", Long.class);
+    }
+
+    // One line that exactly pays off the only open loan of an employee
+    private String statementLine() {
+        Map<String, Object> loan = jdbc.queryForMap("select l.employee_id, l.amount - coalesce((select sum(r.amount_paid) " +
+                "from repayments r where r.loan_id = l.loan_id), 0) balance from loan_applications l " +
+                "where l.status = 'APPROVED' and not exists (select 1 from loan_applications o " +
+                "where o.employee_id = l.employee_id and o.status = 'APPROVED' and o.loan_id <> l.loan_id) " +
+                "order by l.loan_id limit 1");
+        return "bank_ref,value_date,employee_ref,amount\nBUDGET-" + System.nanoTime() + "," + LocalDate.now() + ","
+                + loan.get("EMPLOYEE_ID") + "," + ((BigDecimal) loan.get("BALANCE")).toPlainString() + "\n";
+    }
+
+    private static Call call(String name, int budget, String token, Supplier<MockHttpServletRequestBuilder> request) {
+        return new Call(name, budget, token, request);
+    }
+
+    private static final class Call {
+        private final String name;
+        private final int budget;
+        private final String token;
+        private final Supplier<MockHttpServletRequestBuilder> request;
+        private Set<String> allowedScans = Set.of();
+
+        private Call(String name, int budget, String token, Supplier<MockHttpServletRequestBuilder> request) {
+            this.name = name;
+            this.budget = budget;
+            this.token = token;
+            this.request = request;
+        }
+
+        private Call scans(String... tables) {
+            allowedScans = Set.of(tables);
+            return this;
+        }
+    }
+
+    /**
+     * Records the SQL of every statement prepared through the application DataSource, from any
+     * thread, between start and stop.
+     */
+    static class SqlCapture {
+
+        private final Queue<String> statements = new ConcurrentLinkedQueue<>();
+        private volatile boolean capturing;
+
+        void start() {
+            statements.clear();
+            capturing = true;
+        }
+
+        List<String> stop() {
+            capturing = false;
+            return new ArrayList<>(statements);
+        }
+
+        DataSource wrap(DataSource dataSource) {
+            return (DataSource) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{DataSource.class},
+                    forwarding(dataSource, (method, args, result) -> result instanceof Connection connection
+                            ? wrap(connection) : result));
+        }
+
+        private Connection wrap(Connection connection) {
+            return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                    forwarding(connection, (method, args, result) -> {
+                        if (method.getName().startsWith("prepare") && args != null && args[0] instanceof String sql) {
+                            record(sql);
+                        }
+                        return result instanceof Statement statement && !(result instanceof PreparedStatement)
+                                ? wrap(statement) : result;
+                    }));
+        }
+
+        private Statement wrap(Statement statement) {
+            return (Statement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Statement.class},
+                    forwarding(statement, (method, args, result) -> result));
+        }
+
+        private InvocationHandler forwarding(Object target, After after) {
+            return (proxy, method, args) -> {
+                if (target instanceof Statement && (method.getName().startsWith("execute") || method.getName().equals("addBatch"))
+                        && args != null && args.length > 0 && args[0] instanceof String sql) {
+                    record(sql);
+                }
+                try {
+                    return after.apply(method, args, method.invoke(target, args));
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            };
+        }
+
+        private void record(String sql) {
+            if (capturing) {
+                statements.add(sql);
+            }
+        }
+
+        private interface After {
+            Object apply(java.lang.reflect.Method method, Object[] args, Object result);
+        }
+    }
+
+    @TestConfiguration
+    static class CaptureConfig {
+
+        @Bean
+        SqlCapture sqlCapture() {
+            return new SqlCapture();
+        }
+
+        @Bean
+        static BeanPostProcessor captureDataSource(org.springframework.beans.factory.ObjectProvider<SqlCapture> sqlCapture) {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return beanName.equals("dataSource") && bean instanceof DataSource dataSource
+                            ? sqlCapture.getObject().wrap(dataSource) : bean;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.unilak.employeeloan.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.sql.Timestamp;
+import java.util.HexFormat;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Drives loan submissions through the filter with keys whose reservation rows the test writes
+ * itself, standing in for an instance that crashed mid-request or is still running one.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:idempotency-test",
+        "idempotency.wait-timeout=300",
+        "notification.enabled=false",
+        "rate-limit.enabled=false"
+})
+@AutoConfigureMockMvc
+class IdempotencyFilterTest {
+
+    private static final String EMAIL = "employee@company.com";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private JdbcTemplate jdbc;
+    private String token;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        jdbc = new JdbcTemplate(dataSource);
+        MvcResult login = mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"" + EMAIL + "\",\"password\":\"pass123\"}"))
+                .andReturn();
+        token = objectMapper.readTree(login.getResponse().getContentAsString()).get("token").asText();
+    }
+
+    @Test
+    void retryTakesOverKeyWhoseOwnerDied() throws Exception {
+        String body = loanRequest("takeover", 1000);
+        reservation("takeover", body, System.currentTimeMillis() - 1000);
+
+        MvcResult first = submit("takeover", body);
+        MvcResult retry = submit("takeover", body);
+
+        assertThat(first.getResponse().getStatus()).isEqualTo(200);
+        assertThat(retry.getResponse().getHeader(IdempotencyFilter.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(retry.getResponse().getContentAsString()).isEqualTo(first.getResponse().getContentAsString());
+        assertThat(loans("takeover")).isEqualTo(1);
+    }
+
+    @Test
+    void keyHeldElsewhereIsNotExecutedAgain() throws Exception {
+        String body = loanRequest("held", 1000);
+        reservation("held", body, System.currentTimeMillis() + 60_000);
+
+        MvcResult result = submit("held", body);
+
+        assertThat(result.getResponse().getStatus()).isEqualTo(409);
+        assertThat(loans("held")).isZero();
+    }
+
+    @Test
+    void failedRequestIsStoredAndRolledBack() throws Exception {
+        String body = loanRequest("too-large", 1_000_000_000);
+
+        MvcResult first = submit("too-large", body);
+        MvcResult retry = submit("too-large", body);
+
+        assertThat(first.getResponse().getStatus()).isEqualTo(400);
+        assertThat(retry.getResponse().getStatus()).isEqualTo(400);
+        assertThat(retry.getResponse().getHeader(IdempotencyFilter.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(loans("too-large")).isZero();
+    }
+
+    private MvcResult submit(String key, String body) throws Exception {
+        return mockMvc.perform(post("/api/loans")
+                        .header("Authorization", "Bearer " + token)
+                        .header(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andReturn();
+    }
+
+    // An unfinished execution of the key, as another instance would leave it
+    private void reservation(String key, String body, long lockedUntil) throws Exception {
+        String hash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                .digest(body.getBytes(StandardCharsets.UTF_8)));
+        jdbc.update("insert into idempotency_keys (scoped_key, request_hash, owner, locked_until, created_at, expires_at) " +
+                        "values (?, ?, 'another-instance', ?, current_timestamp, dateadd(day, 1, current_timestamp))",
+                EMAIL + " /api/loans " + key, hash, new Timestamp(lockedUntil));
+    }
+
+    private int loans(String remarks) {
+        return jdbc.queryForObject("select count(*) from loan_applications where remarks = ?", Integer.class, remarks);
+    }
+
+    private static String loanRequest(String remarks, long amount) {
+        return "{\"loanTypeId\":1,\"amount\":" + amount + ",\"remarks\":\"" + remarks + "\"}";
+    }
+}
@@ -0,0 +1,130 @@
+package com.unilak.employeeloan.config;
+
+import com.unilak.employeeloan.service.ReportService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Points the replica pool at its own in-memory database, so every statement shows which side it
+ * ran on: each database has a one-row marker table naming itself. The replica's heartbeat row is
+ * written by the test, which decides whether the lag monitor finds it caught up.
+ */
+@SpringBootTest(properties = {
+        "datasource.replica.url=jdbc:h2:mem:routing-test-replica;DB_CLOSE_DELAY=-1",
+        "datasource.replica.max-lag=5000",
+        // Checks are driven by the test; keep the scheduled one from racing it
+        "datasource.replica.lag-check-interval=3600000"
+})
+class ReadWriteRoutingDataSourceTest {
+
+    private static final String REPLICA_URL = "jdbc:h2:mem:routing-test-replica;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @Autowired
+    private ReplicaLagMonitor replicaLagMonitor;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ReportService reportService;
+
+    private JdbcTemplate routed;
+    private JdbcTemplate replicaAdmin;
+
+    @BeforeEach
+    void setUp() {
+        routed = new JdbcTemplate(dataSource);
+        replicaAdmin = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+        JdbcTemplate primaryAdmin = new JdbcTemplate(primaryDataSource);
+        for (JdbcTemplate db : new JdbcTemplate[]{primaryAdmin, replicaAdmin}) {
+            db.execute("create table if not exists routing_marker (name varchar(20))");
+            db.update("delete from routing_marker");
+        }
+        primaryAdmin.update("insert into routing_marker values ('primary')");
+        replicaAdmin.update("insert into routing_marker values ('replica')");
+        replicaAdmin.execute("create table if not exists replication_heartbeat (id int primary key, beat_at timestamp(3) not null)");
+    }
+
+    @Test
+    void readOnlyTransactionsUseCaughtUpReplica() {
+        replicaHeartbeat(System.currentTimeMillis() + 60_000);
+
+        assertThat(replicaLagMonitor.isReplicaUsable()).isTrue();
+        assertThat(marker(true)).isEqualTo("replica");
+    }
+
+    @Test
+    void writesGoToPrimary() {
+        replicaHeartbeat(System.currentTimeMillis() + 60_000);
+
+        assertThat(marker(false)).isEqualTo("primary");
+        transaction(false).executeWithoutResult(status -> routed.update("update routing_marker set name = 'written'"));
+
+        assertThat(new JdbcTemplate(primaryDataSource).queryForObject("select name from routing_marker", String.class))
+                .isEqualTo("written");
+        assertThat(replicaAdmin.queryForObject("select name from routing_marker", String.class)).isEqualTo("replica");
+    }
+
+    @Test
+    void readsFallBackToPrimaryWhenHeartbeatIsStale() {
+        replicaHeartbeat(System.currentTimeMillis() - 60_000);
+        long fallbacks = (Long) replicaLagMonitor.getStats().get("readOnlyFallbacks");
+
+        assertThat(replicaLagMonitor.isReplicaUsable()).isFalse();
+        assertThat(marker(true)).isEqualTo("primary");
+        assertThat((Long) replicaLagMonitor.getStats().get("readOnlyFallbacks")).isEqualTo(fallbacks + 1);
+    }
+
+    @Test
+    void readsFallBackToPrimaryWithoutHeartbeat() {
+        replicaAdmin.update("delete from replication_heartbeat");
+        replicaLagMonitor.check();
+
+        assertThat(replicaLagMonitor.isReplicaUsable()).isFalse();
+        assertThat(marker(true)).isEqualTo("primary");
+    }
+
+    // The replica database has no loan tables, so a rebuild routed there would fail
+    @Test
+    void reportRebuildsReadPrimaryWhileReplicaIsUsable() {
+        replicaHeartbeat(System.currentTimeMillis() + 60_000);
+
+        assertThat(replicaLagMonitor.isReplicaUsable()).isTrue();
+        assertThat(reportService.getSummaryReport().body()).containsKey("totalLoans");
+    }
+
+    // Stands in for replication: the monitor compares this with the beat it just wrote to the primary
+    private void replicaHeartbeat(long beatAt) {
+        replicaAdmin.update("merge into replication_heartbeat key (id) values (1, ?)", new Timestamp(beatAt));
+        replicaLagMonitor.check();
+    }
+
+    private String marker(boolean readOnly) {
+        return transaction(readOnly).execute(status -> routed.queryForObject("select name from routing_marker", String.class));
+    }
+
+    private TransactionTemplate transaction(boolean readOnly) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(readOnly);
+        return template;
+    }
+}
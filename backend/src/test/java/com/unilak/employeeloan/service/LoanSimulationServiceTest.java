@@ -0,0 +1,52 @@
+package com.unilak.employeeloan.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LoanSimulationServiceTest {
+
+    @Test
+    void fastPathMatchesExactReference() {
+        SplittableRandom random = new SplittableRandom(47);
+        for (int i = 0; i < 5000; i++) {
+            // Amounts from one cent to the 100 billion limit, spread evenly across magnitudes
+            long amount = Math.max(1, (long) Math.pow(10, random.nextDouble(0, 13)));
+            long rate = random.nextInt(4) == 0 ? random.nextLong(0, 3_000) : random.nextLong(0, 100_001);
+            int term = random.nextInt(1, 601);
+
+            assertThat(LoanSimulationService.schedule(amount, rate, term))
+                    .as("amount %d, rate %d, term %d", amount, rate, term)
+                    .isEqualTo(LoanSimulationService.reference(amount, rate, term));
+        }
+    }
+
+    @Test
+    void referenceInstallmentFollowsAnnuityFormula() {
+        // 100,000.00 at 12% a year over 12 months: 1% a month gives 8,884.88
+        LoanSimulationService.Outcome outcome = LoanSimulationService.reference(10_000_000, 1_200, 12);
+
+        assertThat(outcome.installment()).isEqualTo(888_488);
+        assertThat(outcome.months()).isEqualTo(12);
+        assertThat(outcome.paysDown()).isTrue();
+        assertThat(outcome.totalInterest()).isEqualTo(outcome.installment() * 11 + outcome.finalInstallment() - 10_000_000);
+    }
+
+    @Test
+    void zeroRateSplitsPrincipalAndSettlesRemainderAtTheEnd() {
+        LoanSimulationService.Outcome outcome = LoanSimulationService.schedule(100_000, 0, 3);
+
+        assertThat(outcome).isEqualTo(new LoanSimulationService.Outcome(33_333, 33_334, 0, 3, true));
+    }
+
+    @Test
+    void interestOnlyPlanKeepsBalanceAndSettlesPrincipalAtTheEnd() {
+        // 2.04 at 250% over 546 months: the installment rounds to the monthly interest of 0.43
+        LoanSimulationService.Outcome expected = new LoanSimulationService.Outcome(43, 247, 43 * 546, 546, false);
+
+        assertThat(LoanSimulationService.reference(204, 25_000, 546)).isEqualTo(expected);
+        assertThat(LoanSimulationService.schedule(204, 25_000, 546)).isEqualTo(expected);
+    }
+}
@@ -0,0 +1,74 @@
+#!/bin/bash
+
+# Measures time from JVM launch to the first HTTP response, for the regular executable jar and
+# for the fast-start build (thin jar + AppCDS archive + fast-start profile).
+#
+#   ./benchmark-startup.sh [runs] [default|fast-start|both]
+#
+# MAX_MS=<ms> makes the script fail when the fast-start median is slower than that, so it can
+# guard against startup regressions in CI. Build first with:
+#   mvn -f backend/pom.xml package -DskipTests           (default)
+#   mvn -f backend/pom.xml -Pfast-start package -DskipTests   (fast-start)
+
+RUNS=${1:-5}
+MODE=${2:-both}
+PORT=${PORT:-18080}
+URL="http://localhost:$PORT/api/loan-types"
+
+cd "$(dirname "$0")/backend" || exit 1
+
+now_ms() {
+    echo $(( $(date +%s%N) / 1000000 ))
+}
+
+# Prints the milliseconds until the first response (any status) or fails after 120 s
+time_to_first_request() {
+    local log=$1
+    shift
+    local start pid
+    start=$(now_ms)
+    "$@" --server.port="$PORT" > "$log" 2>&1 &
+    pid=$!
+    while ! curl -s -o /dev/null "$URL"; do
+        if ! kill -0 "$pid" 2> /dev/null || [ $(( $(now_ms) - start )) -gt 120000 ]; then
+            echo "Application did not start, see $log" >&2
+            kill "$pid" 2> /dev/null
+            return 1
+        fi
+        sleep 0.05
+    done
+    local elapsed=$(( $(now_ms) - start ))
+    kill "$pid"
+    wait "$pid" 2> /dev/null
+    echo "$elapsed"
+}
+
+# Runs one configuration RUNS times and prints min/median/max; the median is left in $MEDIAN
+benchmark() {
+    local name=$1
+    shift
+    local times=()
+    for i in $(seq 1 "$RUNS"); do
+        t=$(time_to_first_request "/tmp/startup-$name-$i.log" "$@") || exit 1
+        times+=("$t")
+    done
+    sorted=($(printf '%s\n' "${times[@]}" | sort -n))
+    MEDIAN=${sorted[$(( RUNS / 2 ))]}
+    printf '%-11s runs=%d min=%dms median=%dms max=%dms\n' "$name" "$RUNS" "${sorted[0]}" "$MEDIAN" "${sorted[-1]}"
+}
+
+if [ "$MODE" != "fast-start" ]; then
+    [ -f target/employee-loan-1.0.0.jar ] || { echo "Build the executable jar first"; exit 1; }
+    benchmark default java -jar target/employee-loan-1.0.0.jar --spring.jpa.show-sql=false
+fi
+
+if [ "$MODE" != "default" ]; then
+    [ -f target/fast-start/app.jsa ] || { echo "Build with -Pfast-start first"; exit 1; }
+    cd target/fast-start || exit 1
+    benchmark fast-start java -XX:SharedArchiveFile=app.jsa -Xlog:cds=error -Dspring.profiles.active=fast-start \
+        -jar employee-loan-1.0.0-fast-start.jar
+    if [ -n "$MAX_MS" ] && [ "$MEDIAN" -gt "$MAX_MS" ]; then
+        echo "Startup regression: median ${MEDIAN}ms is above ${MAX_MS}ms"
+        exit 1
+    fi
+fi